@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.journal.EntityJournal;
+import ru.yandex.practicum.filmorate.storage.journal.JournaledFilmStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка каталога пачкой через {@code POST /films/batch} и по одному фильму через
+ * {@code POST /films}: разбор JSON, проверка и сохранение, без HTTP. С {@code storage=fsync}
+ * фильмы пишутся в журнал с fsync, как при {@code filmorate.persistence.fsync=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BatchImportBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"memory", "fsync"})
+    public String storage;
+
+    private ObjectReader reader;
+    private byte[] batchBody;
+    private List<byte[]> singleBodies;
+    private FilmService filmService;
+    private Path directory;
+    private EntityJournal<Film> journal;
+
+    @Setup(Level.Trial)
+    public void prepareBodies() throws IOException {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        reader = objectMapper.readerFor(Film.class);
+        List<Film> films = new ArrayList<>(size);
+        singleBodies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Film film = Fixtures.film(i);
+            films.add(film);
+            singleBodies.add(objectMapper.writeValueAsBytes(film));
+        }
+        batchBody = objectMapper.writeValueAsBytes(films);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetStorage() throws IOException {
+        InMemoryFilmStorage memory = new InMemoryFilmStorage();
+        FilmStorage filmStorage = memory;
+        if (storage.equals("fsync")) {
+            directory = Files.createTempDirectory("filmorate-batch");
+            journal = new EntityJournal<>(directory, "films", Film.class, Fixtures.objectMapper(), true);
+            journal.replay(memory::restore);
+            filmStorage = new JournaledFilmStorage(memory, journal);
+        }
+        filmService = new FilmService(filmStorage, new InMemoryUserStorage(), new InMemoryLikeStorage(),
+                new InMemoryFilmSearchIndex(), new InMemoryFilmRangeIndex(),
+                new InMemoryRecommendationIndex(), event -> {
+                });
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            FileSystemUtils.deleteRecursively(directory);
+            journal = null;
+        }
+    }
+
+    @Benchmark
+    public BatchResult batch() throws IOException {
+        List<Film> films = new ArrayList<>(size);
+        try (MappingIterator<Film> iterator = reader.readValues(batchBody)) {
+            while (iterator.hasNextValue()) {
+                films.add(iterator.nextValue());
+            }
+        }
+        return filmService.importBatch(films);
+    }
+
+    @Benchmark
+    public int oneByOne() throws IOException {
+        for (byte[] body : singleBodies) {
+            filmService.create(reader.readValue(body));
+        }
+        return size;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+import ru.yandex.practicum.filmorate.service.ChangeFeedProperties;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Цена ленты изменений для пути записи: обновление фильма без ленты и с публикацией в ленту, пока
+ * {@code readers} подписчиков в отдельных потоках дочитывают её так же, как поток {@code /events}.
+ * Число пишущих потоков задаётся при запуске, например {@code -t 4}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeFeedBenchmark {
+    private static final int FILMS = 10_000;
+
+    @Param({"0", "1", "4"})
+    public int readers;
+
+    private InMemoryFilmStorage storage;
+    private ChangeFeed feed;
+    private final List<Thread> readerThreads = new ArrayList<>();
+    private final LongAdder delivered = new LongAdder();
+
+    @Setup
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.create(Fixtures.film(i));
+        }
+        feed = new ChangeFeed(new ChangeFeedProperties());
+        for (int i = 0; i < readers; i++) {
+            readerThreads.add(Thread.ofPlatform().daemon().start(this::tail));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        for (Thread reader : readerThreads) {
+            reader.interrupt();
+            reader.join();
+        }
+        if (readers > 0) {
+            System.out.printf("%nдоставлено подписчикам: %,d событий из %,d%n",
+                    delivered.sum(), feed.lastSequence() * readers);
+        }
+    }
+
+    @Benchmark
+    public Film update() {
+        return storage.update(film()).orElseThrow();
+    }
+
+    @Benchmark
+    public Film updateAndPublish() {
+        Film film = storage.update(film()).orElseThrow();
+        feed.onChange(new EntitiesChanged(EntitiesChanged.Entity.FILM, EntitiesChanged.Change.UPDATED,
+                List.of(film.getId())));
+        return film;
+    }
+
+    private static Film film() {
+        long id = ThreadLocalRandom.current().nextLong(1, FILMS + 1);
+        Film film = Fixtures.film(id);
+        film.setId(id);
+        return film;
+    }
+
+    private void tail() {
+        long cursor = feed.lastSequence();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ChangeFeed.Batch batch = feed.read(cursor, 256);
+                delivered.add(batch.events().size());
+                cursor = batch.cursor();
+                if (batch.events().isEmpty()) {
+                    feed.await(cursor, Duration.ofSeconds(1));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
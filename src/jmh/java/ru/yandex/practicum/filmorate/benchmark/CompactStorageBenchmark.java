@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена компактного хранилища на чтение и запись: фильм по id, страница из 100 фильмов
+ * и обновление в хранилище объектов и в компактном, где {@link Film} собирается при каждом чтении.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompactStorageBenchmark {
+    private static final int FILMS = 1_000_000;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"objects", "compact"})
+    public String mode;
+
+    private FilmStorage storage;
+
+    @Setup
+    public void setUp() {
+        storage = mode.equals("compact") ? new CompactFilmStorage() : new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.create(Fixtures.film(i));
+        }
+    }
+
+    @Benchmark
+    public Optional<Film> findById() {
+        return storage.findById(randomId());
+    }
+
+    @Benchmark
+    public Collection<Film> findPage() {
+        return storage.findPage(randomId() - 1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Optional<Film> update() {
+        long id = randomId();
+        Film film = Fixtures.film(id);
+        film.setId(id);
+        return storage.update(film);
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, FILMS - PAGE_SIZE);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выборка фильмов по диапазону даты выхода (одна неделя) и продолжительности (одна минута)
+ * через индексы. Для сравнения — фильтрация полным просмотром каталога.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FilmRangeBenchmark {
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1900, 1, 1);
+    private static final int RELEASE_DAYS = 125 * 365;
+    private static final int MAX_DURATION = 240;
+
+    @Param({"100000", "1000000"})
+    public int films;
+
+    private FilmService filmService;
+
+    @Setup
+    public void setUp() {
+        filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage(), new InMemoryLikeStorage(),
+                new InMemoryFilmSearchIndex(), new InMemoryFilmRangeIndex(),
+                new InMemoryRecommendationIndex(), event -> {
+                });
+        Random random = new Random(42);
+        for (int i = 0; i < films; i++) {
+            Film film = Fixtures.film(i);
+            film.setReleaseDate(FIRST_RELEASE.plusDays(random.nextInt(RELEASE_DAYS)));
+            film.setDuration(1 + random.nextInt(MAX_DURATION));
+            filmService.create(film);
+        }
+    }
+
+    @Benchmark
+    public List<Film> releaseWeekIndexed() {
+        return filmService.findFiltered(releaseWeek()).toList();
+    }
+
+    @Benchmark
+    public List<Film> releaseWeekScan() {
+        return scan(releaseWeek());
+    }
+
+    @Benchmark
+    public List<Film> durationMinuteIndexed() {
+        return filmService.findFiltered(durationMinute()).toList();
+    }
+
+    @Benchmark
+    public List<Film> durationMinuteScan() {
+        return scan(durationMinute());
+    }
+
+    private List<Film> scan(FilmFilter filter) {
+        return filmService.findAll().stream().filter(filter::matches).toList();
+    }
+
+    private static FilmFilter releaseWeek() {
+        LocalDate from = FIRST_RELEASE.plusDays(ThreadLocalRandom.current().nextInt(RELEASE_DAYS - 7));
+        return new FilmFilter(from, from.plusDays(6), null, null);
+    }
+
+    private static FilmFilter durationMinute() {
+        int duration = 1 + ThreadLocalRandom.current().nextInt(MAX_DURATION);
+        return new FilmFilter(null, null, duration, duration);
+    }
+}
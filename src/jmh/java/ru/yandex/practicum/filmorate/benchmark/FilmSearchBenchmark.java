@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка {@code GET /films/search} на каталоге до миллиона фильмов. Названия и описания
+ * собираются из словаря с неравномерной частотой слов, как в живом тексте; смотреть стоит
+ * на перцентили p0.99 в режиме SampleTime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FilmSearchBenchmark {
+    private static final int VOCABULARY = 50_000;
+
+    @Param({"1000000"})
+    public int films;
+
+    private InMemoryFilmSearchIndex index;
+    private String[] words;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = randomWord(random);
+        }
+        index = new InMemoryFilmSearchIndex();
+        for (int i = 1; i <= films; i++) {
+            Film film = new Film();
+            film.setId((long) i);
+            film.setName(phrase(random, 3));
+            film.setDescription(phrase(random, 20));
+            index.index(film);
+        }
+    }
+
+    @Benchmark
+    public List<Long> twoWords() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.search(word(random) + " " + word(random), 20);
+    }
+
+    /**
+     * Первые две буквы слова — самый широкий префикс, который раскрывается; цель — p99 в пределах
+     * нескольких миллисекунд на миллионе фильмов.
+     */
+    @Benchmark
+    public List<Long> twoLetterPrefix() {
+        String word = word(ThreadLocalRandom.current());
+        return index.search(word.substring(0, 2), 20);
+    }
+
+    @Benchmark
+    public List<Long> typeaheadPrefix() {
+        String word = word(ThreadLocalRandom.current());
+        return index.search(word.substring(0, Math.min(word.length(), 3)), 20);
+    }
+
+    private String phrase(Random random, int length) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            phrase.append(word(random)).append(' ');
+        }
+        return phrase.toString();
+    }
+
+    /**
+     * Частота слова обратно пропорциональна его номеру (закон Ципфа).
+     */
+    private String word(Random random) {
+        int rank = (int) Math.pow(VOCABULARY, random.nextDouble());
+        return words[Math.min(rank, VOCABULARY - 1)];
+    }
+
+    private static String randomWord(Random random) {
+        String alphabet = random.nextBoolean() ? "abcdefghijklmnopqrstuvwxyz" : "абвгдеёжзийклмнопрстуфхцчшщэюя";
+        int length = 3 + random.nextInt(8);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Общие тестовые данные для бенчмарков.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * ObjectMapper с теми же настройками, что и в приложении.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    static Film film(long i) {
+        Film film = new Film();
+        film.setName("Film " + i);
+        film.setDescription("Description of film number " + i + " with some words in it");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(60 + (int) (i % 120));
+        return film;
+    }
+
+    static User user(long i) {
+        User user = new User();
+        user.setEmail("user" + i + "@example.com");
+        user.setLogin("user" + i);
+        user.setName("User " + i);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
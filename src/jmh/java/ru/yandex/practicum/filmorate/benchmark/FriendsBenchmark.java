@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.SortedLongSet;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск общих друзей на отсортированных массивах и на {@code HashSet<Long>} для сравнения.
+ * Память на ребро печатается при подготовке состояния (см. вывод форка).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FriendsBenchmark {
+    private static final int USERS = 1_000_000;
+
+    @Param({"100", "10000"})
+    public int degree;
+
+    private SortedLongSet left;
+    private SortedLongSet right;
+    private Set<Long> boxedLeft;
+    private Set<Long> boxedRight;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        left = SortedLongSet.EMPTY;
+        right = SortedLongSet.EMPTY;
+        boxedLeft = new HashSet<>();
+        boxedRight = new HashSet<>();
+        while (left.size() < degree) {
+            long id = random.nextInt(USERS);
+            left = left.with(id);
+            boxedLeft.add(id);
+        }
+        while (right.size() < degree) {
+            long id = random.nextInt(USERS);
+            right = right.with(id);
+            boxedRight.add(id);
+        }
+        reportBytesPerEdge();
+    }
+
+    @Benchmark
+    public long[] commonFriendsSorted() {
+        return left.intersect(right);
+    }
+
+    @Benchmark
+    public Set<Long> commonFriendsBoxedBaseline() {
+        Set<Long> common = new HashSet<>(boxedLeft);
+        common.retainAll(boxedRight);
+        return common;
+    }
+
+    private static void reportBytesPerEdge() {
+        int edges = 1_000_000;
+        Random random = new Random(7);
+        long before = usedHeap();
+        InMemoryFriendStorage storage = new InMemoryFriendStorage();
+        for (int i = 0; i < edges; i++) {
+            storage.addFriend(random.nextInt(USERS / 10), random.nextInt(USERS / 10) + USERS);
+        }
+        long after = usedHeap();
+        System.out.printf("%nInMemoryFriendStorage: ~%d байт на ребро (%d рёбер, с накладными расходами карты)%n",
+                (after - before) / edges, edges);
+        if (storage.findFriendIds(0).length < 0) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
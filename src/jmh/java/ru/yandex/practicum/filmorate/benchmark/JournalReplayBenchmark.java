@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.EntityJournal;
+import ru.yandex.practicum.filmorate.storage.journal.JournaledFilmStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время восстановления фильмов с диска при старте: из снимка и из одного журнала без снимка.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class JournalReplayBenchmark {
+
+    @Param({"100000", "1000000", "3000000"})
+    public int records;
+
+    @Param({"snapshot", "log"})
+    public String source;
+
+    private final ObjectMapper objectMapper = Fixtures.objectMapper();
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("filmorate-journal");
+        InMemoryFilmStorage memory = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            journal.replay(memory::restore);
+            JournaledFilmStorage storage = new JournaledFilmStorage(memory, journal);
+            for (int i = 0; i < records; i++) {
+                storage.create(Fixtures.film(i));
+            }
+            if (source.equals("snapshot")) {
+                journal.snapshot(memory.findAll());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public InMemoryFilmStorage replay() throws IOException {
+        InMemoryFilmStorage memory = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            journal.replay(memory::restore);
+        }
+        return memory;
+    }
+
+    private EntityJournal<Film> newJournal() {
+        return new EntityJournal<>(directory, "films", Film.class, objectMapper, false);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и разбор одного фильма и одного пользователя в разных форматах. Размер тела в байтах
+ * печатается при подготовке, выделение памяти на сущность показывает {@code -prof gc}.
+ * <ul>
+ *     <li>{@code json-reflective} — прежний путь: свойства и их порядок Jackson находит через рефлексию;</li>
+ *     <li>{@code json}, {@code smile}, {@code cbor} — готовые сериализаторы из {@code FilmJson}
+ *     и {@code UserJson}.</li>
+ * </ul>
+ * Параметр {@code pool} — откуда берутся буферы Jackson: {@code bounded} — общий пул, как в приложении,
+ * {@code none} — новые буферы на каждый вызов, как при {@code ThreadLocal}-пуле в виртуальном потоке,
+ * который живёт один запрос.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JsonFormatBenchmark {
+
+    @Param({"json-reflective", "json", "smile", "cbor"})
+    public String format;
+
+    @Param({"bounded", "none"})
+    public String pool;
+
+    private ObjectWriter writer;
+    private ObjectReader filmReader;
+    private ObjectReader userReader;
+    private Film film;
+    private User user;
+    private byte[] filmBytes;
+    private byte[] userBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = mapper();
+        writer = mapper.writer();
+        filmReader = mapper.readerFor(Film.class);
+        userReader = mapper.readerFor(User.class);
+        film = Fixtures.film(42);
+        film.setId(42L);
+        film.setVersion(1L);
+        user = Fixtures.user(42);
+        user.setId(42L);
+        user.setVersion(1L);
+        filmBytes = writer.writeValueAsBytes(film);
+        userBytes = writer.writeValueAsBytes(user);
+        System.out.printf("%n%s: фильм %d байт, пользователь %d байт%n", format, filmBytes.length, userBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeFilm() throws IOException {
+        return writer.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public Film deserializeFilm() throws IOException {
+        return filmReader.readValue(filmBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws IOException {
+        return writer.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public User deserializeUser() throws IOException {
+        return userReader.readValue(userBytes);
+    }
+
+    private ObjectMapper mapper() {
+        RecyclerPool<BufferRecycler> buffers = pool.equals("bounded") ? JsonRecyclerPools.newBoundedPool(256)
+                : JsonRecyclerPools.nonRecyclingPool();
+        JsonFactory factory = switch (format) {
+            case "json", "json-reflective" -> JsonFactory.builder().recyclerPool(buffers).build();
+            case "smile" -> SmileFactory.builder().recyclerPool(buffers).build();
+            case "cbor" -> CBORFactory.builder().recyclerPool(buffers).build();
+            default -> throw new IllegalArgumentException("Неизвестный формат: " + format);
+        };
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (format.equals("json-reflective")) {
+            builder.featuresToDisable(MapperFeature.USE_ANNOTATIONS);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочный тест запущенного приложения: {@code connections} клиентов одновременно и без пауз
+ * повторяют запросы, каждый по своему соединению. Доля {@code writePercent} запросов создаёт
+ * фильмы, остальные читают случайный фильм по id. Первые {@code warmup} секунд не учитываются:
+ * за это время открываются соединения и прогревается JIT.
+ *
+ * <p>Чтение и запись считаются отдельно: задержки печатаются для успешных чтений и записей, для записи
+ * ещё и число ответов 429 и 503 — так видно, что при ограничении записи ({@code filmorate.throttling.*})
+ * задержка чтения не растёт.
+ *
+ * <p>Аргументы: {@code <url> [connections=10000] [seconds=30] [writePercent=10] [warmup=10]}.
+ */
+public final class LoadTest {
+    private static final int FILMS = 1000;
+    private static final String FILM_JSON = """
+            {"name":"Load test","description":"Film created by the load test",\
+            "releaseDate":"2000-01-01","duration":100}""";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(args[0]);
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        Duration warmup = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 10);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        seed(client, base);
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result>> futures = new ArrayList<>(connections);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return run(client, base, writePercent, measureFrom, stopAt);
+                }));
+            }
+            start.countDown();
+
+            Result total = new Result();
+            for (Future<Result> future : futures) {
+                total.merge(future.get());
+            }
+            total.print(connections, duration);
+        }
+    }
+
+    private static void seed(HttpClient client, URI base) throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < FILMS; i++) {
+            body.append(i == 0 ? "" : ",").append(FILM_JSON);
+        }
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/films/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось загрузить фильмы: " + response.body());
+        }
+    }
+
+    private static Result run(HttpClient client, URI base, int writePercent, long measureFrom, long stopAt) {
+        Result result = new Result();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < stopAt) {
+            boolean write = random.nextInt(100) < writePercent;
+            HttpRequest request = write
+                    ? HttpRequest.newBuilder(base.resolve("/films"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(FILM_JSON))
+                    .build()
+                    : HttpRequest.newBuilder(base.resolve("/films/" + random.nextInt(1, FILMS + 1))).GET().build();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = 0;
+            }
+            long finished = System.nanoTime();
+            if (now >= measureFrom) {
+                (write ? result.writes : result.reads).record(finished - now, status);
+            }
+        }
+        return result;
+    }
+
+    private static final class Result {
+        private final Requests reads = new Requests();
+        private final Requests writes = new Requests();
+
+        void merge(Result other) {
+            reads.merge(other.reads);
+            writes.merge(other.writes);
+        }
+
+        void print(int connections, Duration duration) {
+            System.out.printf("connections=%d%n", connections);
+            reads.print("read", duration);
+            writes.print("write", duration);
+        }
+    }
+
+    private static final class Requests {
+        private long[] latencies = new long[64];
+        private int count;
+        private long tooManyRequests;
+        private long unavailable;
+        private long errors;
+
+        void record(long latencyNanos, int status) {
+            switch (status) {
+                case 200 -> {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = latencyNanos;
+                }
+                case 429 -> tooManyRequests++;
+                case 503 -> unavailable++;
+                default -> errors++;
+            }
+        }
+
+        void merge(Requests other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            tooManyRequests += other.tooManyRequests;
+            unavailable += other.unavailable;
+            errors += other.errors;
+        }
+
+        void print(String name, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%s: ok=%d 429=%d 503=%d errors=%d throughput=%.0f req/s%n", name, count,
+                    tooManyRequests, unavailable, errors, count / (double) duration.toSeconds());
+            for (double percentile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+                long nanos = sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * percentile)];
+                System.out.printf("  p%s=%.2f ms%n", percentile * 100, nanos / 1e6);
+            }
+        }
+    }
+}
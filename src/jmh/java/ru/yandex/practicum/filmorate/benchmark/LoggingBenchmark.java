@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.AuditJsonEncoder;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность обновления пользователя с логированием в файл. {@code entityLine} — как
+ * было раньше: строка с {@code toString()} всего пользователя; {@code auditEvent} — текущий путь
+ * через {@link UserService} с JSON-событием аудита (id и изменённые поля). Режимы вывода:
+ * синхронный, асинхронный с ожиданием места в очереди и асинхронный с отбрасыванием.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+    private static final int USERS = 10_000;
+
+    @Param({"sync", "async", "asyncDrop"})
+    public String mode;
+
+    private final org.slf4j.Logger entityLog = LoggerFactory.getLogger(UserService.class);
+    private Path directory;
+    private InMemoryUserStorage storage;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("filmorate-logs");
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+        pattern.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39} : %m%n");
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(wrap(context, file(context, "app.log", pattern), true));
+
+        Logger audit = context.getLogger("filmorate.audit");
+        audit.setAdditive(false);
+        audit.addAppender(wrap(context, file(context, "audit.json", new AuditJsonEncoder()), mode.equals("asyncDrop")));
+
+        storage = new InMemoryUserStorage();
+        userService = new UserService(storage, new InMemoryFriendStorage(), event -> {
+        });
+        for (int i = 0; i < USERS; i++) {
+            userService.create(Fixtures.user(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public User entityLine() {
+        User user = changedUser();
+        storage.update(user);
+        entityLog.info("Обновлен пользователь: {}", user);
+        return user;
+    }
+
+    @Benchmark
+    public User auditEvent() {
+        return userService.update(changedUser());
+    }
+
+    private static User changedUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(USERS);
+        User user = Fixtures.user(i);
+        user.setId(i + 1L);
+        user.setName("name " + random.nextInt(100));
+        return user;
+    }
+
+    private Appender<ILoggingEvent> file(LoggerContext context, String name, Encoder<ILoggingEvent> encoder) {
+        encoder.setContext(context);
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve(name).toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private Appender<ILoggingEvent> wrap(LoggerContext context, Appender<ILoggingEvent> appender, boolean neverBlock) {
+        if (mode.equals("sync")) {
+            return appender;
+        }
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.addAppender(appender);
+        async.setNeverBlock(neverBlock);
+        if (!neverBlock) {
+            async.setDiscardingThreshold(0);
+        }
+        async.start();
+        return async;
+    }
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена метрик на один запрос: счётчик нарушения правила, запись в таймер с перцентилями
+ * p50/p99/p999, как у {@code http.server.requests}, и полный цикл наблюдения, через который
+ * Spring MVC измеряет запрос. Для сравнения — запрос без метрик.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private static final String[] URIS = {"/films", "/films/{id}", "/users", "/users/{id}"};
+
+    private Counter counter;
+    private Timer[] timers;
+    private ObservationRegistry observations;
+
+    @Setup
+    public void setUp() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        counter = registry.counter("filmorate.validation.failures", "rule", "film_name_blank");
+        timers = new Timer[URIS.length];
+        for (int i = 0; i < URIS.length; i++) {
+            timers[i] = Timer.builder("http.server.requests")
+                    .tag("uri", URIS[i])
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(registry);
+        }
+        observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+    }
+
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        blackhole.consume(request());
+    }
+
+    @Benchmark
+    public void counter(Blackhole blackhole) {
+        counter.increment();
+        blackhole.consume(request());
+    }
+
+    @Benchmark
+    public void timer(Blackhole blackhole) {
+        int uri = request();
+        long started = System.nanoTime();
+        blackhole.consume(uri);
+        timers[uri].record(Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    @Benchmark
+    public void observation(Blackhole blackhole) {
+        int uri = request();
+        Observation.createNotStarted("http.server.requests", observations)
+                .lowCardinalityKeyValue("uri", URIS[uri])
+                .lowCardinalityKeyValue("method", "GET")
+                .lowCardinalityKeyValue("status", "200")
+                .observe(() -> blackhole.consume(uri));
+    }
+
+    private static int request() {
+        return ThreadLocalRandom.current().nextInt(URIS.length);
+    }
+}
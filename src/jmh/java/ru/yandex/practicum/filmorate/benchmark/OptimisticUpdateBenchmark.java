@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Условное обновление «прочитать, изменить, записать с ожидаемой версией» из нескольких потоков:
+ * каждый поток со своим фильмом ({@code disjoint}) и все с одним ({@code shared}, с повтором при конфликте).
+ * Число потоков задаётся при запуске, например {@code -t 4}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptimisticUpdateBenchmark {
+    private static final int FILMS = 1024;
+
+    @Param({"objects", "compact"})
+    public String mode;
+
+    private FilmStorage storage;
+    private final AtomicInteger threads = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        storage = mode.equals("compact") ? new CompactFilmStorage() : new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.create(Fixtures.film(i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Own {
+        long id;
+
+        @Setup
+        public void setUp(OptimisticUpdateBenchmark benchmark) {
+            id = benchmark.threads.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public Film disjoint(Own own) {
+        return increment(own.id);
+    }
+
+    @Benchmark
+    public Film shared() {
+        return increment(FILMS);
+    }
+
+    private Film increment(long id) {
+        while (true) {
+            Film current = storage.findById(id).orElseThrow();
+            Film next = Fixtures.film(id);
+            next.setId(id);
+            next.setDuration(current.getDuration() + 1);
+            try {
+                return storage.update(next, current.getVersion()).orElseThrow();
+            } catch (VersionConflictException e) {
+                // повторяем с новой версией
+            }
+        }
+    }
+}
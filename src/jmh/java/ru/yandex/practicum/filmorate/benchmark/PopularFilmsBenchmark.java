@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время {@code GET /films/popular} при росте каталога. Для сравнения — полная сортировка
+ * каталога по числу лайков на каждый запрос.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class PopularFilmsBenchmark {
+    private static final int USERS = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int films;
+
+    @Param({"10", "100"})
+    public int count;
+
+    private FilmService filmService;
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryLikeStorage likeStorage;
+
+    @Setup
+    public void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        likeStorage = new InMemoryLikeStorage();
+        filmService = new FilmService(filmStorage, new InMemoryUserStorage(), likeStorage,
+                new InMemoryFilmSearchIndex(), new InMemoryFilmRangeIndex(),
+                new InMemoryRecommendationIndex(), event -> {
+                });
+        Random random = new Random(42);
+        for (int i = 0; i < films; i++) {
+            long filmId = filmStorage.create(Fixtures.film(i)).getId();
+            int likes = random.nextInt(4);
+            for (int j = 0; j < likes; j++) {
+                likeStorage.addLike(filmId, random.nextInt(USERS));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Film> popular() {
+        return filmService.getPopular(count);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean likeUnlikeContended() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long filmId = random.nextLong(1, films + 1);
+        long userId = USERS + random.nextLong(USERS);
+        likeStorage.addLike(filmId, userId);
+        return likeStorage.removeLike(filmId, userId);
+    }
+
+    @Benchmark
+    public List<Film> fullSortBaseline() {
+        return filmStorage.findAll().stream()
+                .sorted(Comparator.comparingInt((Film film) -> likeStorage.countLikes(film.getId())).reversed())
+                .limit(count)
+                .toList();
+    }
+}
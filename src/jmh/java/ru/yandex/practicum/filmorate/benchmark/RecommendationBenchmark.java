@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рекомендации по общим лайкам на {@code users × likesPerUser} лайках. Популярность фильмов неравномерна:
+ * фильм выбирается как {@code films × r³}, поэтому у первых фильмов десятки тысяч лайков.
+ * <ul>
+ *     <li>{@code recommendFresh} — пользователь только что поставил лайк, и ближайшие ищутся заново;</li>
+ *     <li>{@code recommendCached} — ближайшие уже найдены и поддерживались при новых лайках;</li>
+ *     <li>{@code likeAndUnlike} — цена лайка и его снятия новым пользователем при тысяче запомненных списков
+ *     ближайших.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RecommendationBenchmark {
+    private static final int FILMS = 20_000;
+    private static final int CACHED_USERS = 1_000;
+
+    @Param({"100000"})
+    public int users;
+
+    @Param({"30"})
+    public int likesPerUser;
+
+    private InMemoryRecommendationIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new InMemoryRecommendationIndex();
+        Random random = new Random(42);
+        for (long user = 1; user <= users; user++) {
+            for (int i = 0; i < likesPerUser; i++) {
+                index.addLike(popularFilm(random.nextDouble()), user);
+            }
+        }
+        for (long user = 1; user <= CACHED_USERS; user++) {
+            index.recommend(user, 10);
+        }
+    }
+
+    @Benchmark
+    public List<Long> recommendFresh() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long user = random.nextLong(CACHED_USERS + 1, users + 1);
+        // фильм, которого нет у других, чтобы лайк точно был новым и не менял ничьих ближайших
+        long film = FILMS + user;
+        index.addLike(film, user);
+        List<Long> recommended = index.recommend(user, 10);
+        index.removeLike(film, user);
+        return recommended;
+    }
+
+    @Benchmark
+    public List<Long> recommendCached() {
+        return index.recommend(ThreadLocalRandom.current().nextLong(1, CACHED_USERS + 1), 10);
+    }
+
+    @Benchmark
+    public void likeAndUnlike() {
+        long film = popularFilm(ThreadLocalRandom.current().nextDouble());
+        index.addLike(film, users + 1);
+        index.removeLike(film, users + 1);
+    }
+
+    private static long popularFilm(double r) {
+        return 1 + (long) (FILMS * r * r * r);
+    }
+}
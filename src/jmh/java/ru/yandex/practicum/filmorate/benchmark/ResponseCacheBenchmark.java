@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.controller.EntityVersions;
+import ru.yandex.practicum.filmorate.controller.ResponseCache;
+import ru.yandex.practicum.filmorate.controller.ResponseCacheProperties;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Повторное чтение фильма и страницы из 100 фильмов: сериализация на каждый запрос (как было
+ * до кэша), ответ из кэша и ответ 304 на запрос с актуальным ETag.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ResponseCacheBenchmark {
+    private static final int FILMS = 100_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int PAGES = 1_000;
+
+    private ObjectMapper objectMapper;
+    private InMemoryFilmStorage storage;
+    private ResponseCache cache;
+    private String[] filmEtags;
+    private String[] pageEtags;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Fixtures.objectMapper();
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.create(Fixtures.film(i));
+        }
+        cache = new ResponseCache(objectMapper, new ResponseCacheProperties(), new EntityVersions());
+        filmEtags = new String[FILMS + 1];
+        for (int id = 1; id <= FILMS; id++) {
+            filmEtags[id] = film(id, null).getHeaders().getETag();
+        }
+        pageEtags = new String[PAGES];
+        for (int page = 0; page < PAGES; page++) {
+            pageEtags[page] = page(page, null).getHeaders().getETag();
+        }
+    }
+
+    @Benchmark
+    public byte[] filmSerialized() throws Exception {
+        return objectMapper.writeValueAsBytes(storage.findById(randomFilm()).orElseThrow());
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> filmCached() {
+        return film(randomFilm(), null);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> filmNotModified() {
+        int id = randomFilm();
+        return film(id, filmEtags[id]);
+    }
+
+    @Benchmark
+    public byte[] pageSerialized() throws Exception {
+        return objectMapper.writeValueAsBytes(storage.findPage((long) randomPage() * PAGE_SIZE, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> pageCached() {
+        return page(randomPage(), null);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> pageNotModified() {
+        int page = randomPage();
+        return page(page, pageEtags[page]);
+    }
+
+    private ResponseEntity<byte[]> film(int id, String ifNoneMatch) {
+        return cache.entity(EntitiesChanged.Entity.FILM, id, () -> storage.findById(id).orElseThrow(),
+                Film::getVersion, ifNoneMatch);
+    }
+
+    private ResponseEntity<byte[]> page(int page, String ifNoneMatch) {
+        long after = (long) page * PAGE_SIZE;
+        return cache.page(EntitiesChanged.Entity.FILM, after, PAGE_SIZE,
+                () -> storage.findPage(after, PAGE_SIZE), Film::getId, ifNoneMatch);
+    }
+
+    private static int randomFilm() {
+        return ThreadLocalRandom.current().nextInt(1, FILMS + 1);
+    }
+
+    private static int randomPage() {
+        return ThreadLocalRandom.current().nextInt(PAGES);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответа {@code GET /films} и {@code GET /users} для каталогов разного размера.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Collection<Film> films;
+    private Collection<User> users;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < size; i++) {
+            filmStorage.create(Fixtures.film(i));
+            userStorage.create(Fixtures.user(i));
+        }
+        films = filmStorage.findAll();
+        users = userStorage.findAll();
+        writer = Fixtures.objectMapper().writer();
+    }
+
+    @Benchmark
+    public void serializeFilms() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), films);
+    }
+
+    @Benchmark
+    public void serializeUsers() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), users);
+    }
+}
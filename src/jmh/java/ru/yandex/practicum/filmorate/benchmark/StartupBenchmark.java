@@ -0,0 +1,172 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Время старта приложения в разных вариантах сборки: от запуска процесса до первого успешного
+ * {@code GET /films} и размер резидентной памяти процесса в этот момент. Каждый вариант запускается
+ * {@code runs} раз в отдельном процессе, печатаются медиана и минимум.
+ *
+ * <p>Варианты {@code aot*} нужна сборка {@code mvn -B -Pfast-start -DskipTests package},
+ * варианту {@code native} — {@code mvn -B -Pnative -DskipTests native:compile}; отсутствующие
+ * варианты пропускаются. Запускать из корня проекта, например
+ * {@code mvn -B -Pfast-start,jmh -DskipTests verify -Djmh.main=ru.yandex.practicum.filmorate.benchmark.StartupBenchmark -Djmh.args=5}.
+ *
+ * <p>Аргументы: {@code [runs=5] [вариант...]}, варианты: {@code jar lazy aot aot-cds aot-cds-lazy native}.
+ */
+public final class StartupBenchmark {
+    private static final String JAR = "filmorate-0.0.1-SNAPSHOT.jar";
+    private static final Path TARGET = Path.of("target").toAbsolutePath();
+    private static final Path FAST_START = TARGET.resolve("fast-start");
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Map<String, List<String>> variants = variants();
+        List<String> selected = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+                : new ArrayList<>(variants.keySet());
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        for (String name : selected) {
+            List<String> command = variants.get(name);
+            if (command == null) {
+                throw new IllegalArgumentException("Неизвестный вариант: " + name);
+            }
+            Path missing = missingFile(command);
+            if (missing != null) {
+                System.out.printf("%-13s пропущен: нет %s%n", name, missing);
+                continue;
+            }
+            long[] millis = new long[runs];
+            long[] rss = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                long[] result = start(client, command);
+                millis[run] = result[0];
+                rss[run] = result[1];
+            }
+            Arrays.sort(millis);
+            Arrays.sort(rss);
+            System.out.printf("%-13s до первого запроса: медиана %,d мс, минимум %,d мс; RSS: медиана %,d МБ%n",
+                    name, millis[runs / 2], millis[0], rss[runs / 2] >> 10);
+        }
+    }
+
+    private static Map<String, List<String>> variants() {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String jar = TARGET.resolve(JAR).toString();
+        String extracted = FAST_START.resolve(JAR).toString();
+        String archive = "-XX:SharedArchiveFile=" + FAST_START.resolve("application.jsa");
+        String aot = "-Dspring.aot.enabled=true";
+        String lazy = "-Dspring.profiles.active=fast-start";
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("jar", List.of(java, "-jar", jar));
+        variants.put("lazy", List.of(java, lazy, "-jar", jar));
+        variants.put("aot", List.of(java, aot, "-jar", extracted));
+        variants.put("aot-cds", List.of(java, archive, aot, "-jar", extracted));
+        variants.put("aot-cds-lazy", List.of(java, archive, aot, lazy, "-jar", extracted));
+        variants.put("native", List.of(TARGET.resolve("filmorate").toString()));
+        return variants;
+    }
+
+    /**
+     * Возвращает первый файл из команды, которого нет на диске, или {@code null}.
+     */
+    private static Path missingFile(List<String> command) {
+        for (String part : command) {
+            String file = part.startsWith("-XX:SharedArchiveFile=") ? part.substring(part.indexOf('=') + 1) : part;
+            if (file.startsWith(TARGET.toString()) && !Files.exists(Path.of(file))) {
+                return Path.of(file);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Запускает приложение и ждёт первого успешного ответа. Возвращает время до него в миллисекундах
+     * и RSS процесса в килобайтах.
+     */
+    private static long[] start(HttpClient client, List<String> command) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        Path workDirectory = Files.createTempDirectory("filmorate-startup");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/films"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .directory(workDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Приложение завершилось с кодом " + process.exitValue()
+                            + ": " + String.join(" ", command));
+                }
+                if (System.nanoTime() - started > START_TIMEOUT.toNanos()) {
+                    throw new IllegalStateException("Приложение не ответило за " + START_TIMEOUT);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (ConnectException e) {
+                    // порт ещё не открыт
+                }
+                Thread.sleep(5);
+            }
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            return new long[]{millis, rssKilobytes(process.pid())};
+        } finally {
+            process.destroy();
+            process.waitFor();
+            try (Stream<Path> files = Files.walk(workDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
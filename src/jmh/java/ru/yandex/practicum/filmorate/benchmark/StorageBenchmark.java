@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание и обновление фильмов под конкуренцией, а также прежний способ выдачи id
+ * (максимум по всем ключам + 1) для сравнения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+    private static final int UPDATED_FILMS = 10_000;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private InMemoryFilmStorage storage;
+    private Map<Long, Film> legacyMap;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        legacyMap = new HashMap<>();
+        for (int i = 0; i < Math.max(size, UPDATED_FILMS); i++) {
+            Film film = storage.create(Fixtures.film(i));
+            legacyMap.put(film.getId(), film);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Film createContended() {
+        return storage.create(Fixtures.film(0));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object updateContended() {
+        Film film = Fixtures.film(0);
+        film.setId(ThreadLocalRandom.current().nextLong(1, UPDATED_FILMS + 1));
+        return storage.update(film);
+    }
+
+    @Benchmark
+    public long legacyNextId() {
+        long currentMaxId = legacyMap.keySet()
+                .stream()
+                .mapToLong(id -> id)
+                .max()
+                .orElse(0);
+        return ++currentMaxId;
+    }
+}
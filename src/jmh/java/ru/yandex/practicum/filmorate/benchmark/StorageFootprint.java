@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.CompactFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Занятая куча на фильм в хранилище объектов и в компактном хранилище, отдельно и вместе
+ * с индексами по дате выхода и продолжительности. Размер кучи снимается после полной сборки мусора.
+ *
+ * <p>Поисковый индекс в обоих режимах один и тот же {@link InMemoryFilmSearchIndex}, который держит
+ * слова каждого фильма в куче. Он замеряется отдельной строкой и в цифры хранилища не входит.
+ *
+ * <p>Аргументы: {@code [films=1000000]}.
+ */
+public final class StorageFootprint {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private StorageFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int films = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        measure("objects", films, InMemoryFilmStorage::new, storage -> new InMemoryFilmRangeIndex());
+        measure("compact", films, CompactFilmStorage::new, CompactFilmRangeIndex::new);
+    }
+
+    private static void measure(String mode, int films, Supplier<FilmStorage> storages,
+                                Function<FilmStorage, FilmRangeIndex> indexes) {
+        long before = usedHeap();
+        FilmStorage storage = storages.get();
+        for (int i = 0; i < films; i++) {
+            storage.create(Fixtures.film(i));
+        }
+        long storageBytes = usedHeap() - before;
+
+        FilmRangeIndex index = indexes.apply(storage);
+        for (Film film : storage.findAll()) {
+            index.index(film);
+        }
+        long totalBytes = usedHeap() - before;
+
+        InMemoryFilmSearchIndex searchIndex = new InMemoryFilmSearchIndex();
+        for (Film film : storage.findAll()) {
+            searchIndex.index(film);
+        }
+        long searchBytes = usedHeap() - before - totalBytes;
+
+        System.out.printf("%-8s %,d фильмов: хранилище %,d МБ (%d Б/фильм), с индексами %,d МБ (%d Б/фильм), "
+                        + "поисковый индекс отдельно %,d МБ (%d Б/фильм)%n",
+                mode, storage.size(), storageBytes >> 20, storageBytes / films, totalBytes >> 20, totalBytes / films,
+                searchBytes >> 20, searchBytes / films);
+        // хранилище и индексы должны дожить до замера
+        if (index.findByDuration(0, 0, null, 0).iterator().hasNext() || searchIndex.termCount() == 0) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
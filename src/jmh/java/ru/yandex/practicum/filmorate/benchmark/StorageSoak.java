@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapArena;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapUserStorage;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Длительная нагрузка на хранилища фильмов и пользователей в одном из режимов {@code filmorate.storage.mode}:
+ * несколько потоков без пауз читают случайные записи по id, доля {@code writePercent} операций
+ * заменяет фильм или пользователя новой версией. Печатает пропускную способность и паузы сборщика мусора
+ * за время замера. Каждый режим запускается в отдельной JVM, чтобы куча и статистика GC не смешивались.
+ *
+ * <p>Аргументы: {@code <objects|compact|off-heap> [records=500000] [seconds=60] [threads=4] [writePercent=1]}.
+ */
+public final class StorageSoak {
+    private static final String DESCRIPTION_WORDS = "Длинное описание фильма с сюжетом и актёрами ";
+
+    private StorageSoak() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args[0];
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 60;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int writePercent = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+
+        List<OffHeapArena> arenas = new ArrayList<>();
+        FilmStorage films;
+        UserStorage users;
+        switch (mode) {
+            case "objects" -> {
+                films = new InMemoryFilmStorage();
+                users = new InMemoryUserStorage();
+            }
+            case "compact" -> {
+                films = new CompactFilmStorage();
+                users = new InMemoryUserStorage();
+            }
+            case "off-heap" -> {
+                arenas.add(new OffHeapArena("film-descriptions", 64 << 20, null));
+                arenas.add(new OffHeapArena("user-profiles", 64 << 20, null));
+                films = new CompactFilmStorage(arenas.get(0));
+                users = new OffHeapUserStorage(arenas.get(1));
+            }
+            default -> throw new IllegalArgumentException("Неизвестный режим: " + mode);
+        }
+        for (int i = 0; i < records; i++) {
+            films.create(film(i, 0));
+            users.create(Fixtures.user(i));
+        }
+
+        // прогрев без учёта пауз
+        run(films, users, records, writePercent, threads, 10);
+        List<Long> pauses = Collections.synchronizedList(new ArrayList<>());
+        listenToPauses(pauses);
+        long operations = run(films, users, records, writePercent, threads, seconds);
+
+        List<Long> sorted = new ArrayList<>(pauses);
+        Collections.sort(sorted);
+        long total = sorted.stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%-8s %,d записей, %d потоков: %,d оп/с; паузы GC: %d, всего %d мс, p99 %d мс, max %d мс%n",
+                mode, records, threads, operations / seconds, sorted.size(), total,
+                sorted.isEmpty() ? 0 : sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1),
+                sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1));
+        for (OffHeapArena arena : arenas) {
+            System.out.printf("         вне кучи: выделено %,d МБ, занято записями %,d МБ, свободно %,d МБ%n",
+                    arena.reservedBytes() >> 20, arena.usedBytes() >> 20, arena.freeBytes() >> 20);
+            arena.close();
+        }
+    }
+
+    private static long run(FilmStorage films, UserStorage users, int records, int writePercent,
+                            int threads, long seconds) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        long stopAt = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while ((count & 1023) != 0 || System.nanoTime() < stopAt) {
+                    long id = random.nextLong(1, records + 1);
+                    boolean write = random.nextInt(100) < writePercent;
+                    if (random.nextBoolean()) {
+                        if (write) {
+                            Film film = film(id, random.nextInt());
+                            film.setId(id);
+                            films.update(film);
+                        } else {
+                            films.findById(id).orElseThrow();
+                        }
+                    } else {
+                        if (write) {
+                            User user = Fixtures.user(random.nextLong(records));
+                            user.setId(id);
+                            users.update(user);
+                        } else {
+                            users.findById(id).orElseThrow();
+                        }
+                    }
+                    count++;
+                }
+                operations.add(count);
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum();
+    }
+
+    /**
+     * Фильм с описанием предельной длины в 200 символов; {@code version} меняет его содержимое.
+     */
+    private static Film film(long i, int version) {
+        Film film = Fixtures.film(i);
+        StringBuilder description = new StringBuilder(200).append(version).append(' ');
+        while (description.length() < 200) {
+            description.append(DESCRIPTION_WORDS);
+        }
+        film.setDescription(description.substring(0, 200));
+        return film;
+    }
+
+    private static void listenToPauses(List<Long> pauses) {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    GarbageCollectionNotificationInfo info =
+                            GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                    pauses.add(info.getGcInfo().getDuration());
+                }
+            }, null, null);
+        }
+    }
+}
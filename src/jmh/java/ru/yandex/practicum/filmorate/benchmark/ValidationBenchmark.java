@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    private Film validFilm;
+    private Film invalidFilm;
+    private User validUser;
+    private User invalidUser;
+
+    @Setup
+    public void setUp() {
+        validFilm = Fixtures.film(1);
+        invalidFilm = Fixtures.film(2);
+        invalidFilm.setDuration(-1);
+        validUser = Fixtures.user(1);
+        invalidUser = Fixtures.user(2);
+        invalidUser.setLogin("with space");
+    }
+
+    @Benchmark
+    public Film validateValidFilm() {
+        ValidationException.validateFilm(validFilm);
+        return validFilm;
+    }
+
+    @Benchmark
+    public Object validateInvalidFilm() {
+        try {
+            ValidationException.validateFilm(invalidFilm);
+            return invalidFilm;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public List<String> checkInvalidFilm() {
+        return ValidationException.checkFilm(invalidFilm);
+    }
+
+    @Benchmark
+    public User validateValidUser() {
+        ValidationException.validateUser(validUser);
+        return validUser;
+    }
+
+    @Benchmark
+    public Object validateInvalidUser() {
+        try {
+            ValidationException.validateUser(invalidUser);
+            return invalidUser;
+        } catch (ValidationException e) {
+            return e;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package ru.yandex.practicum.filmorate;
 
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 @SpringBootApplication
 public class FilmorateApplication {
@@ -9,4 +15,13 @@ public class FilmorateApplication {
 		SpringApplication.run(FilmorateApplication.class, args);
 	}
 
+	/**
+	 * При ленивой инициализации хранилища и сервисы всё равно создаются при старте: данные восстанавливаются
+	 * с диска и индексы строятся до первого запроса, а ошибки в их настройке не откладываются до него.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter eagerStoragesAndServices() {
+		return LazyInitializationExcludeFilter.forBeanTypes(FilmStorage.class, UserStorage.class,
+				FilmService.class, UserService.class);
+	}
 }
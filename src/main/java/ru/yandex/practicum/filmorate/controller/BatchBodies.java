@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение тела пакетного запроса. Тело — JSON-массив или NDJSON (по объекту в строке);
+ * элементы разбираются по одному из потока, без промежуточного дерева всего документа.
+ */
+final class BatchBodies {
+    static final int MAX_BATCH_SIZE = 500_000;
+
+    private BatchBodies() {
+    }
+
+    static <T> List<T> read(InputStream body, Class<T> type, ObjectMapper objectMapper) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (MappingIterator<T> iterator = objectMapper.readerFor(type).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                if (items.size() == MAX_BATCH_SIZE) {
+                    throw new ValidationException("Пакет не может содержать больше " + MAX_BATCH_SIZE + " элементов");
+                }
+                items.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException(String.format("Некорректный JSON в элементе %d: %s",
+                    items.size(), e.getOriginalMessage()));
+        }
+        return checkNotEmpty(items);
+    }
+
+    /**
+     * Реактивный вариант {@link #read}: элементы приходят уже разобранными декодером WebFlux,
+     * здесь только ограничивается размер пакета.
+     */
+    static <T> Mono<List<T>> read(Flux<T> body) {
+        return body
+                .onErrorMap(ServerWebInputException.class,
+                        e -> new ValidationException("Некорректный JSON в теле пакета"))
+                .take(MAX_BATCH_SIZE + 1L)
+                .collectList()
+                .map(items -> {
+                    if (items.size() > MAX_BATCH_SIZE) {
+                        throw new ValidationException("Пакет не может содержать больше " + MAX_BATCH_SIZE + " элементов");
+                    }
+                    return checkNotEmpty(items);
+                });
+    }
+
+    static ResponseEntity<BatchResult> response(BatchResult result) {
+        return ResponseEntity.status(result.isApplied() ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(result);
+    }
+
+    private static <T> List<T> checkNotEmpty(List<T> items) {
+        if (items.isEmpty()) {
+            throw new ValidationException("Пакет не может быть пустым");
+        }
+        return items;
+    }
+}
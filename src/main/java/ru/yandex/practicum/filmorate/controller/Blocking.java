@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Вызовы сервисов из реактивных контроллеров. Изменения могут писать в журнал на диске,
+ * поэтому выполняются в пуле для блокирующих задач, а не в потоках event loop.
+ */
+final class Blocking {
+
+    private Blocking() {
+    }
+
+    static <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    static Mono<Void> run(Runnable action) {
+        return Mono.fromRunnable(action).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.service.ChangeEvent;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Передача ленты изменений одному подписчику SSE, общая для MVC и WebFlux. Каждый подписчик читается
+ * своим виртуальным потоком, который завершается, когда отправка не удалась или поток прерван.
+ */
+@Slf4j
+final class ChangeStreams {
+    static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final int BATCH_SIZE = 256;
+
+    private ChangeStreams() {
+    }
+
+    /**
+     * Номер, после которого начинать: {@code since}, иначе заголовок {@code Last-Event-ID} переподключения,
+     * иначе текущий конец ленты — тогда приходят только новые изменения.
+     */
+    static long after(Long since, String lastEventId, ChangeFeed feed) {
+        if (since != null) {
+            if (since < 0) {
+                throw new ValidationException("Параметр since не может быть отрицательным");
+            }
+            return since;
+        }
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                return Math.max(Long.parseLong(lastEventId.trim()), 0);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Заголовок Last-Event-ID должен быть номером события");
+            }
+        }
+        return feed.lastSequence();
+    }
+
+    static Thread start(ChangeFeed feed, long after, Duration heartbeat, Sink sink) {
+        return Thread.ofVirtual().name("events-after-" + after).start(() -> relay(feed, after, heartbeat, sink));
+    }
+
+    private static void relay(ChangeFeed feed, long after, Duration heartbeat, Sink sink) {
+        long cursor = after;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ChangeFeed.Batch batch = feed.read(cursor, BATCH_SIZE);
+                if (batch.lost()) {
+                    sink.lost(batch.events().isEmpty() ? batch.cursor() + 1 : batch.events().getFirst().seq());
+                }
+                for (ChangeEvent event : batch.events()) {
+                    sink.change(event);
+                }
+                cursor = batch.cursor();
+                if (batch.events().isEmpty() && !feed.await(cursor, heartbeat)) {
+                    sink.heartbeat();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик ленты изменений отключился: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+    }
+
+    /**
+     * Отправка событий подписчику. Исключение означает, что подписчик отключился.
+     */
+    interface Sink {
+
+        void change(ChangeEvent event) throws IOException;
+
+        /**
+         * События до {@code next} вытеснены из ленты: подписчику нужно перечитать данные целиком.
+         */
+        void lost(long next) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+}
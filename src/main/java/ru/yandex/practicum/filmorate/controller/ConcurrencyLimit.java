@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивное ограничение числа одновременно выполняемых запросов (AIMD). Ответ медленнее
+ * {@code targetLatencyNanos} уменьшает ограничение на десятую часть: очередь за общими ресурсами уже
+ * растёт, и новые запросы только увеличат задержку всех остальных. Быстрый ответ при занятой хотя бы
+ * наполовину квоте увеличивает ограничение на единицу. Так ограничение держится около числа запросов,
+ * которое сервер выполняет без роста задержки, и лишние запросы отклоняются сразу, а не ждут в очереди.
+ */
+public final class ConcurrencyLimit {
+    private static final double BACKOFF = 0.9;
+
+    private final int min;
+    private final int max;
+    private final long targetLatencyNanos;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public ConcurrencyLimit(int min, int max, long targetLatencyNanos) {
+        this.min = Math.max(1, Math.min(min, max));
+        this.max = max;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.limit = new AtomicInteger(max);
+    }
+
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > limit.get()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Освобождает место, занятое {@link #tryAcquire()}, и поправляет ограничение по времени ответа.
+     */
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        if (latencyNanos > targetLatencyNanos) {
+            limit.updateAndGet(current -> Math.max(min, (int) (current * BACKOFF)));
+        } else if (running * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(max, current + 1));
+        }
+    }
+
+    /**
+     * Освобождает место, занятое {@link #tryAcquire()}, для запроса, который так и не выполнялся:
+     * ограничение не меняется.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
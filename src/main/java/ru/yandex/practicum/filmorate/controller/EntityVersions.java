@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ETag записи и разбор {@code If-Match} для условного обновления. Тег JSON — эпоха и версия записи
+ * в кавычках, у Smile и CBOR к версии добавлен формат: у разных представлений одной версии сильные теги
+ * должны различаться, иначе кэш может подтвердить ответом 304 тело в другом формате.
+ *
+ * <p>Эпоха — случайный идентификатор запуска. Без журнала после перезапуска id и версии начинаются
+ * заново, и тег {@code "1"} описывал бы уже другую запись: клиент получил бы ложный 304 или прошёл
+ * проверку {@code If-Match} со старыми данными. С эпохой теги прошлого запуска ни с чем не совпадают.
+ */
+@Component
+public class EntityVersions {
+    private final String epoch;
+
+    public EntityVersions() {
+        this.epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    public String etag(long version) {
+        return "\"" + epoch + "." + version + "\"";
+    }
+
+    /**
+     * Тег представления в формате {@code mediaType}, например {@code "<эпоха>.3-smile"} или
+     * {@code "<эпоха>.3-cbor"}: к версии добавляется последнее слово подтипа.
+     */
+    public String etag(long version, MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return "\"" + epoch + "." + version + "-" + subtype.substring(subtype.lastIndexOf('-') + 1) + "\"";
+    }
+
+    /**
+     * Ответ в Smile или CBOR — в том из них, что клиент предпочёл в {@code Accept}. Тип содержимого задаётся
+     * явно, чтобы тело и тег гарантированно были в одном формате.
+     */
+    <T> ResponseEntity<T> binary(T body, long version, String accept) {
+        MediaType format = JsonConfig.binaryType(accept);
+        return ResponseEntity.ok().contentType(format).eTag(etag(version, format)).body(body);
+    }
+
+    /**
+     * Ожидаемая версия из {@code If-Match} или {@code null}, если заголовка нет или в нём {@code *}.
+     * Подходит тег любого представления: формат в теге на проверку версии не влияет.
+     * Слабый тег, тег не нашего формата и тег прошлого запуска не совпадают ни с одной версией,
+     * поэтому сразу дают 412.
+     */
+    Long expected(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.contains(",")) {
+            throw new ValidationException("Заголовок If-Match должен содержать один тег");
+        }
+        String prefix = "\"" + epoch + ".";
+        if (tag.length() > prefix.length() + 1 && tag.startsWith(prefix) && tag.endsWith("\"")) {
+            try {
+                String version = tag.substring(prefix.length(), tag.length() - 1);
+                int format = version.indexOf('-');
+                return Long.parseLong(format > 0 ? version.substring(0, format) : version);
+            } catch (NumberFormatException e) {
+                // не версия; ниже ответим конфликтом
+            }
+        }
+        throw new VersionConflictException("Тег " + tag + " не совпадает с версией записи");
+    }
+}
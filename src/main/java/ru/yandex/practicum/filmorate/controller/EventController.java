@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.service.ChangeEvent;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+import ru.yandex.practicum.filmorate.service.ChangeFeedProperties;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Лента изменений фильмов и пользователей в формате Server-Sent Events. Событие {@code change} несёт
+ * номер в поле {@code id}, поэтому браузерный {@code EventSource} сам продолжит с места обрыва;
+ * другие клиенты передают последний полученный номер в {@code ?since=}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class EventController {
+    private final ChangeFeed changeFeed;
+    private final ChangeFeedProperties properties;
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long since,
+                             @RequestHeader(value = ChangeStreams.LAST_EVENT_ID, required = false) String lastEventId) {
+        long after = ChangeStreams.after(since, lastEventId, changeFeed);
+        // без тайм-аута: соединение держится, пока клиент не отключится
+        SseEmitter emitter = new SseEmitter(0L);
+        Thread relay = ChangeStreams.start(changeFeed, after, properties.getHeartbeat(), new ChangeStreams.Sink() {
+            @Override
+            public void change(ChangeEvent event) throws IOException {
+                emitter.send(SseEmitter.event().id(Long.toString(event.seq())).name("change").data(event));
+            }
+
+            @Override
+            public void lost(long next) throws IOException {
+                emitter.send(SseEmitter.event().name("lost").data(Map.of("next", next)));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment(""));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(relay::interrupt);
+        emitter.onError(error -> relay.interrupt());
+        return emitter;
+    }
+}
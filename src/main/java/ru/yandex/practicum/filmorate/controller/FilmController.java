@@ -1,52 +1,146 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.exception.ValidationException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/films")
-@Slf4j
+@RequiredArgsConstructor
 public class FilmController {
-    private final Map<Long, Film> films = new HashMap<>();
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+    private final EntityVersions versions;
 
-    @GetMapping
-    public Collection<Film> findAll() {
-        return films.values();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> findAll(FilmFilter filter,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer limit,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                     String ifNoneMatch) {
+        Pagination.checkPosition(!filter.isEmpty(), after, cursor);
+        if (Pagination.isCachedPage(!filter.isEmpty(), after, limit)) {
+            long afterId = Pagination.after(after);
+            int pageSize = Pagination.limit(limit);
+            return responseCache.page(EntitiesChanged.Entity.FILM, afterId, pageSize,
+                    () -> filmService.findPage(afterId, pageSize), Film::getId, ifNoneMatch);
+        }
+        return ResponseEntity.ok(select(filter, after, cursor, limit));
+    }
+
+    @GetMapping(produces = NdjsonStreams.MEDIA_TYPE)
+    public StreamingResponseBody streamAll(FilmFilter filter,
+                                           @RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit) {
+        Pagination.checkPosition(!filter.isEmpty(), after, cursor);
+        Iterable<Film> films = filter.isEmpty() ? filmService.findAllAfter(Pagination.after(after))
+                : filmService.findFiltered(filter, cursor)::iterator;
+        return NdjsonStreams.of(films, Pagination.streamLimit(limit), objectMapper);
+    }
+
+    /**
+     * Smile и CBOR: те же выборки, что и у {@link #findAll}, но без кэша ответов, в котором хранятся
+     * готовые байты JSON.
+     */
+    @GetMapping(produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public Collection<Film> findAllBinary(FilmFilter filter,
+                                          @RequestParam(required = false) Long after,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        Pagination.checkPosition(!filter.isEmpty(), after, cursor);
+        return select(filter, after, cursor, limit);
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> findById(@PathVariable long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch) {
+        return responseCache.entity(EntitiesChanged.Entity.FILM, id, () -> filmService.findById(id), Film::getVersion,
+                ifNoneMatch);
+    }
+
+    @GetMapping(value = "/{id}", produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public ResponseEntity<Film> findByIdBinary(@PathVariable long id, @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        Film film = filmService.findById(id);
+        return versions.binary(film, film.getVersion(), accept);
+    }
+
+    @GetMapping("/popular")
+    public List<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
+        return filmService.getPopular(count);
     }
 
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return filmService.search(q, Pagination.limit(limit));
+    }
+
+    @Throttled("writes")
     @PostMapping
     public Film create(@RequestBody Film film) {
-        film.setId(getNextId());
-        ValidationException.validateFilm(film);
-        films.put(film.getId(), film);
-        log.info("Добавлен новый фильм: {}", film);
-        return film;
+        return filmService.create(film);
     }
 
+    /**
+     * Пакетная загрузка: элементы без id создаются, с id — обновляются. Пакет применяется целиком
+     * или не применяется вовсе, в том числе при сбое журнала и падении процесса. Изоляции нет:
+     * параллельные запросы могут увидеть пакет применённым частично, пока он записывается в память.
+     */
+    @Throttled("imports")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonStreams.MEDIA_TYPE})
+    public ResponseEntity<BatchResult> importBatch(InputStream body) throws IOException {
+        return BatchBodies.response(filmService.importBatch(BatchBodies.read(body, Film.class, objectMapper)));
+    }
+
+    @Throttled("writes")
     @PutMapping
-    public Film update(@RequestBody Film newFilm) {
-        if (films.containsKey(newFilm.getId())) {
-            ValidationException.validateFilm(newFilm);
-            films.put(newFilm.getId(), newFilm);
-            log.info("Обновлен фильм: {}", newFilm);
-            return newFilm;
-        }
-        log.warn("Попытка обновления несуществующего фильма с id: {}", newFilm.getId());
-        throw new ValidationException(String.format("Фильм с id %d не найден", newFilm.getId()));
+    public ResponseEntity<Film> update(@RequestBody Film newFilm,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Film updated = filmService.update(newFilm, versions.expected(ifMatch));
+        return ResponseEntity.ok().eTag(versions.etag(updated.getVersion())).body(updated);
     }
 
-    private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    @Throttled("writes")
+    @PutMapping("/{id}/like/{userId}")
+    public void addLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.addLike(id, userId);
+    }
+
+    @Throttled("writes")
+    @DeleteMapping("/{id}/like/{userId}")
+    public void removeLike(@PathVariable long id, @PathVariable long userId) {
+        filmService.removeLike(id, userId);
+    }
+
+    /**
+     * Выборка списка {@code GET /films} в любом формате: отфильтрованная после курсора, весь каталог
+     * или страница по id.
+     */
+    private Collection<Film> select(FilmFilter filter, Long after, String cursor, Integer limit) {
+        long maxFilms = Pagination.listLimit(!filter.isEmpty(), after, limit);
+        if (!filter.isEmpty()) {
+            return filmService.findFiltered(filter, cursor).limit(maxFilms).toList();
+        }
+        return maxFilms == Long.MAX_VALUE ? filmService.findAll()
+                : filmService.findPage(Pagination.after(after), (int) maxFilms);
     }
 }
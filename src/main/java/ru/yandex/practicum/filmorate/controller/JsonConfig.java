@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Форматы ответов и запросов: JSON и компактные двоичные Smile и CBOR, которые клиент выбирает заголовками
+ * {@code Accept} и {@code Content-Type}. Двоичные форматы настроены так же, как JSON, и используют те же
+ * сериализаторы моделей.
+ *
+ * <p>Буферы Jackson берутся из общего ограниченного пула. По умолчанию Jackson хранит их в {@code ThreadLocal},
+ * а запросы выполняются в виртуальных потоках, которые живут один запрос, поэтому каждый ответ
+ * выделял бы буферы заново.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(JsonProperties.class)
+public class JsonConfig {
+    static final String SMILE = "application/x-jackson-smile";
+    static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+    private static final MediaType SMILE_TYPE = MediaType.parseMediaType(SMILE);
+
+    /**
+     * Двоичный формат, который клиент предпочёл в {@code Accept}: первый по качеству тип, совпадающий со Smile
+     * или CBOR. Если подходят оба, например при {@code *}{@code /*}, выбирается Smile.
+     */
+    static MediaType binaryType(String accept) {
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.includes(SMILE_TYPE)) {
+                return SMILE_TYPE;
+            }
+            if (type.includes(MediaType.APPLICATION_CBOR)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+        }
+        return SMILE_TYPE;
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer pooledJsonFactory(JsonProperties properties) {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.newBoundedPool(properties.getBufferPoolSize()))
+                .build());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                             JsonProperties properties) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder, properties));
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                           JsonProperties properties) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder, properties));
+    }
+
+    /**
+     * Smile в WebFlux есть среди стандартных кодеков, но со своим {@code ObjectMapper}, поэтому заменяется;
+     * CBOR стандартного кодека на Jackson нет, он добавляется как свой, см. {@link RequestedCborEncoder}.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer binaryCodecs(ObjectProvider<Jackson2ObjectMapperBuilder> builders,
+                                        JsonProperties properties) {
+        ObjectMapper smile = smileMapper(builders.getObject(), properties);
+        ObjectMapper cbor = cborMapper(builders.getObject(), properties);
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile, SMILE_TYPE));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smile, SMILE_TYPE));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cbor, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().register(new RequestedCborEncoder(cbor));
+        };
+    }
+
+    private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder, JsonProperties properties) {
+        return builder.factory(SmileFactory.builder()
+                        .recyclerPool(JsonRecyclerPools.newBoundedPool(properties.getBufferPoolSize()))
+                        .build())
+                .build();
+    }
+
+    private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder, JsonProperties properties) {
+        return builder.factory(CBORFactory.builder()
+                        .recyclerPool(JsonRecyclerPools.newBoundedPool(properties.getBufferPoolSize()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Кодек CBOR для ответов WebFlux. Пишет ответ, только когда клиент явно выбрал CBOR: свои кодеки WebFlux
+     * проверяет раньше стандартных, и без этого ограничения ответы на {@code Accept: *}{@code /*} уходили бы
+     * в CBOR. Стандартный кодек не принимает и {@link Mono}, хотя одно значение пишется так же, как и без него.
+     */
+    private static final class RequestedCborEncoder extends Jackson2CborEncoder {
+
+        RequestedCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+            return mimeType != null && super.canEncode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+}
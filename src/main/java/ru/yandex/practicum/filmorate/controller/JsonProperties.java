@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки сериализации ответов ({@code filmorate.json.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "filmorate.json")
+public class JsonProperties {
+    /**
+     * Сколько наборов буферов Jackson хранится для повторного использования в каждом формате.
+     * Запросы сверх этого числа, идущие одновременно, получают новые буферы.
+     */
+    private int bufferPoolSize = 256;
+}
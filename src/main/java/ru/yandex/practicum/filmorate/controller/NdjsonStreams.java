@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Построчная (NDJSON) выдача коллекций: каждая запись сериализуется сразу в поток ответа,
+ * поэтому объём памяти на запрос не зависит от размера каталога.
+ */
+final class NdjsonStreams {
+    static final String MEDIA_TYPE = "application/x-ndjson";
+
+    private static final int FLUSH_EVERY = 256;
+
+    private NdjsonStreams() {
+    }
+
+    static StreamingResponseBody of(Iterable<?> items, long limit, ObjectMapper objectMapper) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                long written = 0;
+                for (Object item : items) {
+                    if (written == limit) {
+                        break;
+                    }
+                    generator.writeObject(item);
+                    generator.writeRaw('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+    }
+}
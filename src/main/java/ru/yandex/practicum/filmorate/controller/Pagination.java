@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+/**
+ * Разбор параметров постраничной выдачи {@code ?after=<id>&limit=}.
+ */
+final class Pagination {
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private Pagination() {
+    }
+
+    static long after(Long after) {
+        if (after == null) {
+            return 0;
+        }
+        if (after < 0) {
+            throw new ValidationException("Параметр after не может быть отрицательным");
+        }
+        return after;
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * Потоковая выдача не ограничена сверху: без параметра отдаётся весь каталог.
+     */
+    static long streamLimit(Integer limit) {
+        if (limit == null) {
+            return Long.MAX_VALUE;
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Параметр limit должен быть положительным числом");
+        }
+        return limit;
+    }
+
+    /**
+     * Страница по id без фильтра: JSON таких ответов берётся из {@link ResponseCache}.
+     */
+    static boolean isCachedPage(boolean filtered, Long after, Integer limit) {
+        return !filtered && (after != null || limit != null);
+    }
+
+    /**
+     * Сколько записей отдать списком: без параметров и фильтра — весь каталог, иначе не больше {@code limit}.
+     */
+    static long listLimit(boolean filtered, Long after, Integer limit) {
+        return !filtered && after == null && limit == null ? Long.MAX_VALUE : limit(limit);
+    }
+
+    /**
+     * Выдача с фильтром упорядочена по дате выхода или продолжительности, а не по id, поэтому
+     * продолжается по курсору {@code cursor=<значение>,<id>}, а не по {@code after}.
+     */
+    static void checkPosition(boolean filtered, Long after, String cursor) {
+        if (filtered && after != null) {
+            throw new ValidationException("С фильтром выдача продолжается параметром cursor=<значение>,<id>");
+        }
+        if (!filtered && cursor != null) {
+            throw new ValidationException("Параметр cursor применяется только вместе с фильтром");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import ru.yandex.practicum.filmorate.service.ChangeEvent;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+import ru.yandex.practicum.filmorate.service.ChangeFeedProperties;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Та же лента {@code /events}, что и у {@link EventController}, на WebFlux. Поток подписчика
+ * отправляет следующее событие, только когда клиент готов его принять.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveEventController {
+    private final ChangeFeed changeFeed;
+    private final ChangeFeedProperties properties;
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<?>> stream(@RequestParam(required = false) Long since,
+                                           @RequestHeader(value = ChangeStreams.LAST_EVENT_ID, required = false)
+                                           String lastEventId) {
+        long after = ChangeStreams.after(since, lastEventId, changeFeed);
+        return Flux.create(sink -> {
+            Thread relay = ChangeStreams.start(changeFeed, after, properties.getHeartbeat(), new ChangeStreams.Sink() {
+                @Override
+                public void change(ChangeEvent event) throws IOException {
+                    emit(sink, ServerSentEvent.builder(event)
+                            .id(Long.toString(event.seq()))
+                            .event("change")
+                            .build());
+                }
+
+                @Override
+                public void lost(long next) throws IOException {
+                    emit(sink, ServerSentEvent.builder(Map.of("next", next)).event("lost").build());
+                }
+
+                @Override
+                public void heartbeat() throws IOException {
+                    emit(sink, ServerSentEvent.builder().comment("").build());
+                }
+
+                @Override
+                public void close() {
+                    sink.complete();
+                }
+            });
+            sink.onDispose(relay::interrupt);
+        });
+    }
+
+    private static void emit(FluxSink<ServerSentEvent<?>> sink, ServerSentEvent<?> event) throws IOException {
+        while (sink.requestedFromDownstream() == 0) {
+            if (sink.isCancelled()) {
+                throw new IOException("Подписка отменена");
+            }
+            LockSupport.parkNanos(1_000_000);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException();
+            }
+        }
+        sink.next(event);
+    }
+}
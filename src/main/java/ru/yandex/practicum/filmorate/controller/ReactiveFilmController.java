@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+
+/**
+ * Тот же API {@code /films}, что и у {@link FilmController}, на WebFlux. Списки отдаются как
+ * {@link Flux} поверх представлений хранилища: следующий фильм читается, только когда клиент
+ * готов его принять.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/films")
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+    private final FilmService filmService;
+    private final ResponseCache responseCache;
+    private final EntityVersions versions;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> findAll(FilmFilter filter,
+                                           @RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch) {
+        Pagination.checkPosition(!filter.isEmpty(), after, cursor);
+        if (Pagination.isCachedPage(!filter.isEmpty(), after, limit)) {
+            long afterId = Pagination.after(after);
+            int pageSize = Pagination.limit(limit);
+            return Mono.fromCallable(() -> responseCache.page(EntitiesChanged.Entity.FILM, afterId, pageSize,
+                    () -> filmService.findPage(afterId, pageSize), Film::getId, ifNoneMatch));
+        }
+        long maxFilms = Pagination.listLimit(!filter.isEmpty(), after, limit);
+        return Mono.just(ResponseEntity.ok(select(filter, after, cursor, maxFilms)));
+    }
+
+    @GetMapping(produces = NdjsonStreams.MEDIA_TYPE)
+    public Flux<Film> streamAll(FilmFilter filter,
+                                @RequestParam(required = false) Long after,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(required = false) Integer limit) {
+        Pagination.checkPosition(!filter.isEmpty(), after, cursor);
+        return select(filter, after, cursor, Pagination.streamLimit(limit));
+    }
+
+    /**
+     * Smile и CBOR: те же выборки, что и у {@link #findAll}, но без кэша ответов. Список собирается
+     * целиком, потому что кодек CBOR не пишет {@link Flux} потоком.
+     */
+    @GetMapping(produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public Mono<List<Film>> findAllBinary(FilmFilter filter,
+                                          @RequestParam(required = false) Long after,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        Pagination.checkPosition(!filter.isEmpty(), after, cursor);
+        return select(filter, after, cursor, Pagination.listLimit(!filter.isEmpty(), after, limit)).collectList();
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> findById(@PathVariable long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) {
+        return Mono.fromCallable(() -> responseCache.entity(EntitiesChanged.Entity.FILM, id,
+                () -> filmService.findById(id), Film::getVersion, ifNoneMatch));
+    }
+
+    @GetMapping(value = "/{id}", produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public Mono<ResponseEntity<Film>> findByIdBinary(@PathVariable long id,
+                                                  @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        return Mono.fromCallable(() -> filmService.findById(id))
+                .map(film -> versions.binary(film, film.getVersion(), accept));
+    }
+
+    @GetMapping("/popular")
+    public Flux<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
+        return Mono.fromCallable(() -> filmService.getPopular(count)).flatMapIterable(films -> films);
+    }
+
+    @GetMapping("/search")
+    public Flux<Film> search(@RequestParam String q, @RequestParam(required = false) Integer limit) {
+        return Mono.fromCallable(() -> filmService.search(q, Pagination.limit(limit))).flatMapIterable(films -> films);
+    }
+
+    @Throttled("writes")
+    @PostMapping
+    public Mono<Film> create(@RequestBody Film film) {
+        return Blocking.call(() -> filmService.create(film));
+    }
+
+    /**
+     * Пакетная загрузка: элементы без id создаются, с id — обновляются. Пакет применяется целиком
+     * или не применяется вовсе, в том числе при сбое журнала и падении процесса. Изоляции нет:
+     * параллельные запросы могут увидеть пакет применённым частично, пока он записывается в память.
+     */
+    @Throttled("imports")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonStreams.MEDIA_TYPE})
+    public Mono<ResponseEntity<BatchResult>> importBatch(@RequestBody Flux<Film> body) {
+        return BatchBodies.read(body)
+                .flatMap(films -> Blocking.call(() -> filmService.importBatch(films)))
+                .map(BatchBodies::response);
+    }
+
+    @Throttled("writes")
+    @PutMapping
+    public Mono<ResponseEntity<Film>> update(@RequestBody Film newFilm,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                         String ifMatch) {
+        Long expectedVersion = versions.expected(ifMatch);
+        return Blocking.call(() -> filmService.update(newFilm, expectedVersion))
+                .map(updated -> ResponseEntity.ok().eTag(versions.etag(updated.getVersion())).body(updated));
+    }
+
+    @Throttled("writes")
+    @PutMapping("/{id}/like/{userId}")
+    public Mono<Void> addLike(@PathVariable long id, @PathVariable long userId) {
+        return Blocking.run(() -> filmService.addLike(id, userId));
+    }
+
+    @Throttled("writes")
+    @DeleteMapping("/{id}/like/{userId}")
+    public Mono<Void> removeLike(@PathVariable long id, @PathVariable long userId) {
+        return Blocking.run(() -> filmService.removeLike(id, userId));
+    }
+
+    /**
+     * Выборка списка {@code GET /films} в любом формате: отфильтрованная после курсора {@code cursor}
+     * или по id после {@code after}.
+     */
+    private Flux<Film> select(FilmFilter filter, Long after, String cursor, long maxFilms) {
+        if (!filter.isEmpty()) {
+            return Flux.fromStream(filmService.findFiltered(filter, cursor)).take(maxFilms);
+        }
+        return Flux.fromIterable(filmService.findAllAfter(Pagination.after(after))).take(maxFilms);
+    }
+}
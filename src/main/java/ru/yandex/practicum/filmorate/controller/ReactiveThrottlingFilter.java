@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.ThrottledException;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
+
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+
+/**
+ * {@link Throttling} для реактивного режима. Метод контроллера находится тем же
+ * {@link RequestMappingHandlerMapping}, что и у {@code DispatcherHandler}, до чтения тела запроса.
+ * Исключения из фильтра не доходят до {@link ErrorHandler}, поэтому ответ с отказом пишется здесь,
+ * в том же виде.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveThrottlingFilter implements WebFilter {
+    private final Throttling throttling;
+    private final RequestMappingHandlerMapping handlerMapping;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveThrottlingFilter(Throttling throttling,
+                                    @Qualifier("requestMappingHandlerMapping")
+                                    RequestMappingHandlerMapping handlerMapping,
+                                    ObjectMapper objectMapper) {
+        this.throttling = throttling;
+        this.handlerMapping = handlerMapping;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return handlerMapping.getHandler(exchange)
+                .ofType(HandlerMethod.class)
+                .map(handler -> Optional.of(handler.getMethod()))
+                .onErrorResume(e -> Mono.empty())
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(method -> method.isEmpty() ? chain.filter(exchange) : filter(exchange, chain, method.get()));
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain, Method method) {
+        Throttling.Permit permit;
+        try {
+            permit = throttling.acquire(method, client(exchange));
+        } catch (ThrottledException e) {
+            return reject(exchange.getResponse(), e);
+        }
+        return chain.filter(exchange).doFinally(signal -> permit.release());
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, ThrottledException e) {
+        log.debug("Запрос отклонён: {}", e.getMessage());
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new ErrorResponse(e.getMessage()));
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        response.setStatusCode(ErrorHandler.status(e));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private String client(ServerWebExchange exchange) {
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        String remoteAddress = address == null ? "" : address.getHostString();
+        return throttling.client(remoteAddress, exchange.getRequest().getHeaders()::getOrEmpty);
+    }
+}
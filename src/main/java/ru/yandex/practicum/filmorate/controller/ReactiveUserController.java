@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.List;
+
+/**
+ * Тот же API {@code /users}, что и у {@link UserController}, на WebFlux.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final UserService userService;
+    private final FilmService filmService;
+    private final ResponseCache responseCache;
+    private final EntityVersions versions;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> findAll(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch) {
+        if (Pagination.isCachedPage(false, after, limit)) {
+            long afterId = Pagination.after(after);
+            int pageSize = Pagination.limit(limit);
+            return Mono.fromCallable(() -> responseCache.page(EntitiesChanged.Entity.USER, afterId, pageSize,
+                    () -> userService.findPage(afterId, pageSize), User::getId, ifNoneMatch));
+        }
+        return Mono.just(ResponseEntity.ok(select(after, Pagination.listLimit(false, after, limit))));
+    }
+
+    @GetMapping(produces = NdjsonStreams.MEDIA_TYPE)
+    public Flux<User> streamAll(@RequestParam(required = false) Long after,
+                                @RequestParam(required = false) Integer limit) {
+        return select(after, Pagination.streamLimit(limit));
+    }
+
+    /**
+     * Smile и CBOR: те же выборки, что и у {@link #findAll}, но без кэша ответов; список собирается целиком.
+     */
+    @GetMapping(produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public Mono<List<User>> findAllBinary(@RequestParam(required = false) Long after,
+                                          @RequestParam(required = false) Integer limit) {
+        return select(after, Pagination.listLimit(false, after, limit)).collectList();
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> findById(@PathVariable long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                 String ifNoneMatch) {
+        return Mono.fromCallable(() -> responseCache.entity(EntitiesChanged.Entity.USER, id,
+                () -> userService.findById(id), User::getVersion, ifNoneMatch));
+    }
+
+    @GetMapping(value = "/{id}", produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public Mono<ResponseEntity<User>> findByIdBinary(@PathVariable long id,
+                                                  @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        return Mono.fromCallable(() -> userService.findById(id))
+                .map(user -> versions.binary(user, user.getVersion(), accept));
+    }
+
+    @Throttled("writes")
+    @PostMapping
+    public Mono<User> create(@RequestBody User user) {
+        return Blocking.call(() -> userService.create(user));
+    }
+
+    /**
+     * Пакетная загрузка: элементы без id создаются, с id — обновляются. Пакет применяется целиком
+     * или не применяется вовсе, в том числе при сбое журнала и падении процесса. Изоляции нет:
+     * параллельные запросы могут увидеть пакет применённым частично, пока он записывается в память.
+     */
+    @Throttled("imports")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonStreams.MEDIA_TYPE})
+    public Mono<ResponseEntity<BatchResult>> importBatch(@RequestBody Flux<User> body) {
+        return BatchBodies.read(body)
+                .flatMap(users -> Blocking.call(() -> userService.importBatch(users)))
+                .map(BatchBodies::response);
+    }
+
+    @Throttled("writes")
+    @PutMapping
+    public Mono<ResponseEntity<User>> update(@RequestBody User newUser,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                         String ifMatch) {
+        Long expectedVersion = versions.expected(ifMatch);
+        return Blocking.call(() -> userService.update(newUser, expectedVersion))
+                .map(updated -> ResponseEntity.ok().eTag(versions.etag(updated.getVersion())).body(updated));
+    }
+
+    @Throttled("writes")
+    @PutMapping("/{id}/friends/{friendId}")
+    public Mono<Void> addFriend(@PathVariable long id, @PathVariable long friendId) {
+        return Blocking.run(() -> userService.addFriend(id, friendId));
+    }
+
+    @Throttled("writes")
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public Mono<Void> removeFriend(@PathVariable long id, @PathVariable long friendId) {
+        return Blocking.run(() -> userService.removeFriend(id, friendId));
+    }
+
+    @GetMapping("/{id}/friends")
+    public Flux<User> getFriends(@PathVariable long id) {
+        return Mono.fromCallable(() -> userService.getFriends(id)).flatMapIterable(users -> users);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public Flux<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        return Mono.fromCallable(() -> userService.getCommonFriends(id, otherId)).flatMapIterable(users -> users);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public Flux<Film> getRecommendations(@PathVariable long id, @RequestParam(defaultValue = "10") int count) {
+        return Mono.fromCallable(() -> filmService.getRecommendations(id, count)).flatMapIterable(films -> films);
+    }
+
+    /**
+     * Выборка списка {@code GET /users} в любом формате: по id после {@code after}.
+     */
+    private Flux<User> select(Long after, long maxUsers) {
+        return Flux.fromIterable(userService.findAllAfter(Pagination.after(after))).take(maxUsers);
+    }
+}
@@ -0,0 +1,233 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Кэш сериализованных ответов для чтения отдельной записи и страницы {@code ?after=&limit=}.
+ *
+ * <p>Ответ хранится готовым массивом байт вместе с ETag, поэтому повторное чтение не сериализует
+ * сущности заново, а запрос с совпавшим {@code If-None-Match} получает 304 без тела. ETag записи —
+ * её версия, тот же тег принимает {@code If-Match} при обновлении; ETag страницы — хэш её байт. Записи удаляются по событиям {@link EntitiesChanged}: обновление удаляет ответ
+ * по этой записи и страницы, в диапазон id которых она попадает; создание удаляет только
+ * неполные страницы, потому что новые id больше всех существующих.
+ *
+ * <p>Объём кэша ограничен байтами ответов отдельно для записей и страниц каждого типа. Когда он
+ * исчерпан, Caffeine вытесняет ответы, которые реже и давнее запрашивали (W-TinyLFU). Страницы
+ * кэшируются только для размеров из {@code filmorate.cache.page-sizes}: ответы с другим {@code limit}
+ * строятся заново, чтобы клиент не мог занять кэш ключами произвольного размера.
+ *
+ * <p>Чтобы ответ, собранный до изменения, не попал в кэш после его очистки, у каждого типа
+ * есть счётчик изменений: ответ сохраняется, только если счётчик не менялся, пока он строился.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+    private final ObjectMapper objectMapper;
+    private final ResponseCacheProperties properties;
+    private final EntityVersions versions;
+    private final Map<EntitiesChanged.Entity, Section> sections = new EnumMap<>(EntitiesChanged.Entity.class);
+
+    public ResponseCache(ObjectMapper objectMapper, ResponseCacheProperties properties, EntityVersions versions) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.versions = versions;
+        for (EntitiesChanged.Entity entity : EntitiesChanged.Entity.values()) {
+            sections.put(entity, new Section(properties));
+        }
+    }
+
+    /**
+     * Ответ с одной записью. {@code loader} вызывается только при промахе и может бросить
+     * исключение, например если записи нет; такие ответы не кэшируются.
+     */
+    public <T> ResponseEntity<byte[]> entity(EntitiesChanged.Entity entity, long id, Supplier<T> loader,
+                                             ToLongFunction<T> versionOf, String ifNoneMatch) {
+        Section section = sections.get(entity);
+        Cached cached = section.entities.getIfPresent(id);
+        if (cached == null) {
+            long version = section.version.get();
+            T value = loader.get();
+            Cached loaded = new Cached(serialize(value), versions.etag(versionOf.applyAsLong(value)));
+            section.entities.asMap().compute(id, (key, current) -> section.version.get() == version ? loaded : current);
+            cached = loaded;
+        }
+        return cached.toResponse(ifNoneMatch);
+    }
+
+    /**
+     * Страница из не более чем {@code limit} записей с id больше {@code after}. Страница нестандартного
+     * размера не кэшируется, но тоже получает ETag и отвечает 304 на совпавший {@code If-None-Match}.
+     */
+    public <T> ResponseEntity<byte[]> page(EntitiesChanged.Entity entity, long after, int limit,
+                                           Supplier<Collection<T>> loader, ToLongFunction<T> idOf,
+                                           String ifNoneMatch) {
+        Section section = sections.get(entity);
+        boolean cacheable = properties.getPageSizes().contains(limit);
+        PageKey key = new PageKey(after, limit);
+        CachedPage page = cacheable ? section.pages.getIfPresent(key) : null;
+        if (page == null) {
+            long version = section.version.get();
+            Collection<T> items = loader.get();
+            long lastId = after;
+            for (T item : items) {
+                lastId = idOf.applyAsLong(item);
+            }
+            byte[] body = serialize(items);
+            CachedPage loaded = new CachedPage(new Cached(body, etag(body)), after, lastId, items.size() == limit);
+            if (cacheable) {
+                section.pages.asMap().compute(key, (k, current) -> section.version.get() == version ? loaded : current);
+            }
+            page = loaded;
+        }
+        return page.response().toResponse(ifNoneMatch);
+    }
+
+    @EventListener
+    public void onChange(EntitiesChanged event) {
+        Section section = sections.get(event.entity());
+        section.version.incrementAndGet();
+        if (event.change() == EntitiesChanged.Change.CREATED) {
+            section.pages.asMap().values().removeIf(page -> !page.complete());
+            return;
+        }
+        long[] ids = event.ids().stream().mapToLong(Long::longValue).sorted().toArray();
+        section.entities.invalidateAll(event.ids());
+        section.pages.asMap().values().removeIf(page -> page.containsAny(ids));
+    }
+
+    /**
+     * Сколько байт ответов сейчас в кэше по всем типам, с учётом накладных расходов на запись.
+     */
+    public long cachedBytes() {
+        long bytes = 0;
+        for (Section section : sections.values()) {
+            bytes += weight(section.entities) + weight(section.pages);
+        }
+        return bytes;
+    }
+
+    private static long weight(Cache<?, ?> cache) {
+        cache.cleanUp();
+        return cache.policy().eviction().orElseThrow().weightedSize().orElse(0);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Кэши одного типа. Вытеснение выполняется в потоке, который добавил ответ, поэтому объём
+     * не превышает предела даже кратковременно.
+     */
+    private static final class Section {
+        private final AtomicLong version = new AtomicLong();
+        private final Cache<Long, Cached> entities;
+        private final Cache<PageKey, CachedPage> pages;
+
+        Section(ResponseCacheProperties properties) {
+            entities = Caffeine.newBuilder()
+                    .maximumWeight(properties.getEntityBytes().toBytes())
+                    .<Long, Cached>weigher((id, cached) -> cached.weight())
+                    .executor(Runnable::run)
+                    .build();
+            pages = Caffeine.newBuilder()
+                    .maximumWeight(properties.getPageBytes().toBytes())
+                    .<PageKey, CachedPage>weigher((key, page) -> page.response().weight())
+                    .executor(Runnable::run)
+                    .build();
+        }
+    }
+
+    private record PageKey(long after, int limit) {
+    }
+
+    /**
+     * Страница содержит все записи с id в диапазоне {@code (after, lastId]}; неполная страница —
+     * ещё и все записи, которые появятся после {@code lastId}.
+     */
+    private record CachedPage(Cached response, long after, long lastId, boolean complete) {
+
+        boolean containsAny(long[] sortedIds) {
+            int index = Arrays.binarySearch(sortedIds, after + 1);
+            int first = index >= 0 ? index : -index - 1;
+            return first < sortedIds.length && (!complete || sortedIds[first] <= lastId);
+        }
+    }
+
+    private record Cached(byte[] body, String etag) {
+        /**
+         * Примерный размер записи кэша помимо тела: объекты записи, ключа и тега.
+         */
+        private static final int OVERHEAD_BYTES = 128;
+
+        int weight() {
+            return body.length + OVERHEAD_BYTES;
+        }
+
+        ResponseEntity<byte[]> toResponse(String ifNoneMatch) {
+            if (matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(CacheControl.noCache())
+                        .build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+
+        private boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Настройки кэша готовых ответов ({@code filmorate.cache.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "filmorate.cache")
+public class ResponseCacheProperties {
+    /**
+     * Сколько памяти занимают ответы по отдельным фильмам или пользователям для каждого типа.
+     * Сверх этого объёма вытесняются ответы, которые реже и давнее запрашивали.
+     */
+    private DataSize entityBytes = DataSize.ofMegabytes(64);
+    /**
+     * Сколько памяти занимают страницы списка для каждого типа.
+     */
+    private DataSize pageBytes = DataSize.ofMegabytes(32);
+    /**
+     * Размеры страниц ({@code limit}), которые кэшируются; должны включать размер по умолчанию.
+     */
+    private List<Integer> pageSizes = List.of(10, 20, 50, Pagination.DEFAULT_LIMIT);
+}
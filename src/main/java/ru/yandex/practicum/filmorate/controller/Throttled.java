@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ограничивает частоту и параллельность вызовов метода контроллера. Значение — имя группы настроек
+ * {@code filmorate.throttling.limits.<группа>.*}, см. {@link ThrottlingProperties}. Частота считается
+ * отдельно для каждого клиента и метода, параллельность — одна на группу, поэтому методы одной группы
+ * делят её между собой.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Throttled {
+    String value();
+}
@@ -0,0 +1,212 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ThrottledException;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Ограничения для методов контроллеров с {@link Throttled}: общая для обоих веб-стеков часть, которую
+ * вызывают {@link ThrottlingInterceptor} и {@link ReactiveThrottlingFilter}.
+ *
+ * <p>Сначала проверяется параллельность группы ({@link ConcurrencyLimit}, при превышении — 503), затем
+ * частота запросов клиента к методу ({@link TokenBucket}, при превышении — 429). Отклонённый запрос не
+ * читает тело и не доходит до сервисов, поэтому массовая запись не отнимает потоки и блокировки у чтения.
+ */
+@Component
+@EnableConfigurationProperties(ThrottlingProperties.class)
+public class Throttling implements MeterBinder {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Permit NO_LIMIT = () -> {
+    };
+
+    private final ThrottlingProperties properties;
+    private final Map<String, Group> groups = new HashMap<>();
+    private final Map<Method, Optional<Endpoint>> endpoints = new ConcurrentHashMap<>();
+
+    public Throttling(ThrottlingProperties properties) {
+        this.properties = properties;
+        properties.getLimits().forEach((name, limit) -> groups.put(name, new Group(name, limit)));
+    }
+
+    /**
+     * Пропускает запрос клиента {@code client} к методу {@code handler} или бросает {@link ThrottledException}.
+     * Полученное разрешение нужно вернуть через {@link Permit#release()}, когда ответ отправлен.
+     */
+    public Permit acquire(Method handler, String client) {
+        if (!properties.isEnabled()) {
+            return NO_LIMIT;
+        }
+        Optional<Endpoint> endpoint = endpoints.computeIfAbsent(handler, this::endpoint);
+        return endpoint.isEmpty() ? NO_LIMIT : endpoint.get().acquire(client, System.nanoTime());
+    }
+
+    /**
+     * Ключ клиента для ограничения частоты. Это адрес соединения, если он не входит в
+     * {@code filmorate.throttling.trusted-proxies}. Запрос от доверенного прокси относится к последнему адресу
+     * заголовка {@code filmorate.throttling.client-header}, который сам не доверенный прокси: адреса левее него
+     * мог подставить клиент. Если в заголовке только доверенные прокси, берётся первый из них.
+     *
+     * @param headers значения заголовка запроса по имени, пустой список — заголовка нет
+     */
+    public String client(String remoteAddress, Function<String, List<String>> headers) {
+        if (!properties.getTrustedProxies().contains(remoteAddress)) {
+            return remoteAddress;
+        }
+        String client = remoteAddress;
+        List<String> values = headers.apply(properties.getClientHeader());
+        for (int i = values.size() - 1; i >= 0; i--) {
+            String[] addresses = values.get(i).split(",");
+            for (int j = addresses.length - 1; j >= 0; j--) {
+                String address = addresses[j].strip();
+                if (address.isEmpty()) {
+                    continue;
+                }
+                if (!properties.getTrustedProxies().contains(address)) {
+                    return address;
+                }
+                client = address;
+            }
+        }
+        return client;
+    }
+
+    private Optional<Endpoint> endpoint(Method handler) {
+        Throttled throttled = handler.getAnnotation(Throttled.class);
+        if (throttled == null) {
+            return Optional.empty();
+        }
+        Group group = groups.get(throttled.value());
+        if (group == null) {
+            throw new IllegalStateException("Не заданы настройки filmorate.throttling.limits." + throttled.value()
+                    + " для " + handler.getDeclaringClass().getSimpleName() + "." + handler.getName());
+        }
+        return Optional.of(new Endpoint(group));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Group group : groups.values()) {
+            FunctionCounter.builder("filmorate.throttling.rejected", group.rateLimited, AtomicLong::get)
+                    .tag("group", group.name)
+                    .tag("reason", "rate")
+                    .description("Запросы, отклонённые ограничением")
+                    .register(registry);
+            FunctionCounter.builder("filmorate.throttling.rejected", group.overloaded, AtomicLong::get)
+                    .tag("group", group.name)
+                    .tag("reason", "concurrency")
+                    .description("Запросы, отклонённые ограничением")
+                    .register(registry);
+            if (group.concurrency != null) {
+                Gauge.builder("filmorate.throttling.concurrency.limit", group.concurrency, ConcurrencyLimit::limit)
+                        .tag("group", group.name)
+                        .description("Текущее ограничение числа одновременных запросов")
+                        .register(registry);
+            }
+        }
+    }
+
+    /**
+     * Разрешение на выполнение запроса.
+     */
+    @FunctionalInterface
+    public interface Permit {
+        void release();
+    }
+
+    private static final class Group {
+        private final String name;
+        private final ThrottlingProperties.Limit limit;
+        private final ConcurrencyLimit concurrency;
+        private final AtomicLong rateLimited = new AtomicLong();
+        private final AtomicLong overloaded = new AtomicLong();
+
+        Group(String name, ThrottlingProperties.Limit limit) {
+            this.name = name;
+            this.limit = limit;
+            this.concurrency = limit.getMaxConcurrency() > 0 ? new ConcurrencyLimit(limit.getMinConcurrency(),
+                    limit.getMaxConcurrency(), limit.getTargetLatency().toNanos()) : null;
+        }
+    }
+
+    private final class Endpoint {
+        private final Group group;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        /**
+         * Общая корзина клиентов, которым не хватило места в {@link #buckets}.
+         */
+        private final TokenBucket overflow;
+        private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+        Endpoint(Group group) {
+            this.group = group;
+            this.overflow = new TokenBucket(group.limit.getRate(), group.limit.getBurst(), System.nanoTime());
+        }
+
+        /**
+         * Параллельность проверяется раньше частоты: запрос, отклонённый из-за перегрузки, не расходует
+         * разрешения клиента, иначе перегрузка позже превращалась бы в 429.
+         */
+        Permit acquire(String client, long now) {
+            ConcurrencyLimit concurrency = group.concurrency;
+            if (concurrency != null && !concurrency.tryAcquire()) {
+                group.overloaded.incrementAndGet();
+                throw new ThrottledException("Сервер перегружен, повторите позже", true, 1);
+            }
+            if (group.limit.getRate() > 0) {
+                long wait = bucket(client, now).tryAcquire(now);
+                if (wait > 0) {
+                    if (concurrency != null) {
+                        concurrency.cancel();
+                    }
+                    group.rateLimited.incrementAndGet();
+                    throw new ThrottledException("Слишком много запросов, повторите позже", false,
+                            TimeUnit.NANOSECONDS.toSeconds(wait) + 1);
+                }
+            }
+            return concurrency == null ? NO_LIMIT : () -> concurrency.release(System.nanoTime() - now);
+        }
+
+        private TokenBucket bucket(String client, long now) {
+            TokenBucket bucket = buckets.get(client);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= properties.getMaxClients()) {
+                sweep(now);
+                // новые клиенты сверх предела делят одну корзину, пока место не освободится: карта
+                // не растёт больше maxClients (плюс одновременные вставки), а поток запросов с разных
+                // адресов ограничивается как один клиент
+                if (buckets.size() >= properties.getMaxClients()) {
+                    return overflow;
+                }
+            }
+            return buckets.computeIfAbsent(client,
+                    key -> new TokenBucket(group.limit.getRate(), group.limit.getBurst(), now));
+        }
+
+        /**
+         * Забывает клиентов с полной корзиной: для них новая корзина ничем не отличается от старой.
+         * Выполняется не чаще раза в секунду, чтобы поток новых клиентов не обходил всю карту на каждом запросе.
+         */
+        private void sweep(long now) {
+            long next = nextSweep.get();
+            if (now - next >= 0 && nextSweep.compareAndSet(next, now + SWEEP_INTERVAL_NANOS)) {
+                buckets.values().removeIf(bucket -> bucket.isFull(now));
+            }
+        }
+    }
+}
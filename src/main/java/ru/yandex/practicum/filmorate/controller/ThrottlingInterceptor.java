@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Collections;
+
+/**
+ * {@link Throttling} для режима servlet. Отказ бросается из {@link #preHandle} как
+ * {@link ru.yandex.practicum.filmorate.exception.ThrottledException}, и ответ формирует {@link ErrorHandler};
+ * клиент определяется {@link Throttling#client}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class ThrottlingInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+    private static final String PERMIT = ThrottlingInterceptor.class.getName() + ".permit";
+
+    private final Throttling throttling;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            request.setAttribute(PERMIT, throttling.acquire(method.getMethod(),
+                    throttling.client(request.getRemoteAddr(), name -> Collections.list(request.getHeaders(name)))));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Throttling.Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.release();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Настройки ограничения запросов ({@code filmorate.throttling.*}) для методов с {@link Throttled}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "filmorate.throttling")
+public class ThrottlingProperties {
+    /**
+     * При {@code false} запросы не ограничиваются. По умолчанию выключено: включение меняет поведение API
+     * для существующих клиентов, особенно если все они ходят с одного адреса.
+     */
+    private boolean enabled;
+    /**
+     * Сколько клиентов каждого метода помнит ограничитель частоты. Сверх этого числа клиенты,
+     * которые давно не обращались, забываются, а новые клиенты, которым не хватило места, делят
+     * одну общую корзину.
+     */
+    private int maxClients = 100_000;
+    /**
+     * Адреса прокси, которым разрешено сообщать адрес клиента в {@link #clientHeader}. От остальных
+     * соединений заголовок не учитывается, и клиентом считается адрес соединения.
+     */
+    private Set<String> trustedProxies = new HashSet<>();
+    /**
+     * Заголовок, в который доверенные прокси дописывают адрес клиента.
+     */
+    private String clientHeader = "X-Forwarded-For";
+    /**
+     * Группы ограничений по именам из {@link Throttled}.
+     */
+    private Map<String, Limit> limits = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /**
+         * Сколько запросов в секунду разрешено одному клиенту; 0 — без ограничения частоты.
+         */
+        private double rate;
+        /**
+         * Сколько запросов подряд клиент может сделать после паузы, не дожидаясь новых разрешений.
+         */
+        private int burst = 1;
+        /**
+         * Верхняя граница числа одновременно выполняемых запросов группы; 0 — без ограничения.
+         */
+        private int maxConcurrency;
+        /**
+         * Нижняя граница, до которой ограничение параллельности снижается при медленных ответах.
+         */
+        private int minConcurrency = 1;
+        /**
+         * Время ответа, при превышении которого ограничение параллельности снижается.
+         */
+        private Duration targetLatency = Duration.ofMillis(50);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина разрешений без блокировок: {@code rate} разрешений в секунду, не больше {@code burst} подряд.
+ * Вместо числа разрешений хранится одно время — момент, когда корзина снова станет полной, и каждый запрос
+ * сдвигает его на {@code 1 / rate} секунды. Запрос разрешён, если это время уходит в будущее не дальше,
+ * чем на {@code burst - 1} интервалов; поэтому состояние меняется одним {@code compareAndSet}.
+ */
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double rate, int burst, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000 / rate));
+        this.toleranceNanos = (Math.max(1, burst) - 1) * intervalNanos;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Берёт разрешение. Возвращает 0, если оно выдано, иначе — через сколько наносекунд появится следующее.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long from = Math.max(current, nowNanos);
+            long wait = from - toleranceNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, from + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Корзина полна, и её можно забыть: новая дала бы тот же результат.
+     */
+    boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+}
@@ -1,51 +1,139 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.exception.ValidationException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/users")
-@Slf4j
+@RequiredArgsConstructor
 public class UserController {
-    private final Map<Long, User> users = new HashMap<>();
+    private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache responseCache;
+    private final EntityVersions versions;
 
-    @GetMapping
-    public Collection<User> findAll() {
-        return users.values();
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> findAll(@RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) Integer limit,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                     String ifNoneMatch) {
+        if (Pagination.isCachedPage(false, after, limit)) {
+            long afterId = Pagination.after(after);
+            int pageSize = Pagination.limit(limit);
+            return responseCache.page(EntitiesChanged.Entity.USER, afterId, pageSize,
+                    () -> userService.findPage(afterId, pageSize), User::getId, ifNoneMatch);
+        }
+        return ResponseEntity.ok(select(after, limit));
+    }
+
+    @GetMapping(produces = NdjsonStreams.MEDIA_TYPE)
+    public StreamingResponseBody streamAll(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit) {
+        return NdjsonStreams.of(userService.findAllAfter(Pagination.after(after)),
+                Pagination.streamLimit(limit), objectMapper);
     }
 
+    /**
+     * Smile и CBOR: те же выборки, что и у {@link #findAll}, но без кэша ответов, в котором хранятся
+     * готовые байты JSON.
+     */
+    @GetMapping(produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public Collection<User> findAllBinary(@RequestParam(required = false) Long after,
+                                          @RequestParam(required = false) Integer limit) {
+        return select(after, limit);
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> findById(@PathVariable long id,
+                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch) {
+        return responseCache.entity(EntitiesChanged.Entity.USER, id, () -> userService.findById(id), User::getVersion,
+                ifNoneMatch);
+    }
+
+    @GetMapping(value = "/{id}", produces = {JsonConfig.SMILE, JsonConfig.CBOR})
+    public ResponseEntity<User> findByIdBinary(@PathVariable long id, @RequestHeader(HttpHeaders.ACCEPT) String accept) {
+        User user = userService.findById(id);
+        return versions.binary(user, user.getVersion(), accept);
+    }
+
+    @Throttled("writes")
     @PostMapping
     public User create(@RequestBody User user) {
-        user.setId(getNextId());
-        ValidationException.validateUser(user);
-        users.put(user.getId(), user);
-        log.info("Добавлен новый пользователь: {}", user);
-        return user;
+        return userService.create(user);
+    }
+
+    /**
+     * Пакетная загрузка: элементы без id создаются, с id — обновляются. Пакет применяется целиком
+     * или не применяется вовсе, в том числе при сбое журнала и падении процесса. Изоляции нет:
+     * параллельные запросы могут увидеть пакет применённым частично, пока он записывается в память.
+     */
+    @Throttled("imports")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NdjsonStreams.MEDIA_TYPE})
+    public ResponseEntity<BatchResult> importBatch(InputStream body) throws IOException {
+        return BatchBodies.response(userService.importBatch(BatchBodies.read(body, User.class, objectMapper)));
     }
 
+    @Throttled("writes")
     @PutMapping
-    public User update(@RequestBody User newUser) {
-        if (users.containsKey(newUser.getId())) {
-            ValidationException.validateUser(newUser);
-            users.put(newUser.getId(), newUser);
-            return newUser;
-        }
-        log.warn("Попытка обновления несуществующего пользователя с id: {}", newUser.getId());
-        throw new ValidationException("Пользователь с id " + newUser.getId() + " не найден");
+    public ResponseEntity<User> update(@RequestBody User newUser,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        User updated = userService.update(newUser, versions.expected(ifMatch));
+        return ResponseEntity.ok().eTag(versions.etag(updated.getVersion())).body(updated);
+    }
+
+    @Throttled("writes")
+    @PutMapping("/{id}/friends/{friendId}")
+    public void addFriend(@PathVariable long id, @PathVariable long friendId) {
+        userService.addFriend(id, friendId);
+    }
+
+    @Throttled("writes")
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public void removeFriend(@PathVariable long id, @PathVariable long friendId) {
+        userService.removeFriend(id, friendId);
+    }
+
+    @GetMapping("/{id}/friends")
+    public List<User> getFriends(@PathVariable long id) {
+        return userService.getFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public List<User> getCommonFriends(@PathVariable long id, @PathVariable long otherId) {
+        return userService.getCommonFriends(id, otherId);
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable long id, @RequestParam(defaultValue = "10") int count) {
+        return filmService.getRecommendations(id, count);
     }
 
-    private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    /**
+     * Выборка списка {@code GET /users} в любом формате: весь каталог или страница по id.
+     */
+    private Collection<User> select(Long after, Integer limit) {
+        long maxUsers = Pagination.listLimit(false, after, limit);
+        return maxUsers == Long.MAX_VALUE ? userService.findAll()
+                : userService.findPage(Pagination.after(after), (int) maxUsers);
     }
 }
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import lombok.Getter;
+
+/**
+ * Запрос отклонён до выполнения: клиент превысил допустимую частоту запросов ({@code overloaded = false})
+ * или сервер уже выполняет столько запросов этого вида, сколько выдерживает без роста задержки
+ * ({@code overloaded = true}). Как и {@link ValidationException}, не собирает стек вызовов: при наплыве
+ * запросов таких исключений много.
+ */
+@Getter
+public class ThrottledException extends RuntimeException {
+    private final boolean overloaded;
+    /**
+     * Через сколько секунд клиенту стоит повторить запрос.
+     */
+    private final long retryAfterSeconds;
+
+    public ThrottledException(String message, boolean overloaded, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.overloaded = overloaded;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
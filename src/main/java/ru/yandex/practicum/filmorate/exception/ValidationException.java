@@ -1,75 +1,143 @@
 package ru.yandex.practicum.filmorate.exception;
 
+import lombok.Getter;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ошибка валидации входных данных. Исключение не собирает стек вызовов: оно описывает
+ * ошибку клиента, а не место в коде, и при пачках неверных запросов стек был бы самой
+ * дорогой частью обработки.
+ *
+ * <p>Проверки {@code checkFilm}/{@code checkUser} за один проход собирают все нарушения и
+ * ничего не выделяют для корректных данных. {@code validateFilm}/{@code validateUser}
+ * бросают исключение, если нарушения есть; сообщение исключения — первое из них.
+ * Каждое нарушение учитывается в метриках по своему {@link ValidationRule}.
+ */
+@Getter
 public class ValidationException extends RuntimeException {
-    static DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final LocalDate FIRST_FILM_DATE = LocalDate.of(1895, 12, 28);
+
+    private static volatile Today today = Today.compute();
+
+    private final List<String> errors;
 
     public ValidationException(String message) {
-        super(message);
+        this(List.of(message));
+    }
+
+    public ValidationException(List<String> errors) {
+        super(errors.getFirst(), null, false, false);
+        this.errors = List.copyOf(errors);
     }
 
     public static void validateFilm(Film film) {
+        List<String> errors = checkFilm(film);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+    }
+
+    public static void validateUser(User user) {
+        List<String> errors = checkUser(user);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+        fillDefaults(user);
+    }
+
+    /**
+     * Дополняет корректного пользователя значениями по умолчанию: пустое имя заменяется логином.
+     */
+    public static void fillDefaults(User user) {
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+        }
+    }
+
+    public static List<String> checkFilm(Film film) {
+        List<String> errors = List.of();
 
         if (film.getName() == null || film.getName().isBlank()) {
-            throw new ValidationException("Название фильма не может быть пустым");
+            errors = add(errors, ValidationRule.FILM_NAME_BLANK);
         }
 
         if (film.getDescription() != null && film.getDescription().length() > 200) {
-            throw new ValidationException("Максимальная длина описания — 200 символов");
+            errors = add(errors, ValidationRule.FILM_DESCRIPTION_TOO_LONG);
         }
 
         if (film.getReleaseDate() == null) {
-            throw new ValidationException("Дата релиза обязательна");
-        }
-
-        if (LocalDate.parse(film.getReleaseDate(), dateTimeFormatter).isBefore(LocalDate.of(1895, 12, 28))) {
-            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
+            errors = add(errors, ValidationRule.FILM_RELEASE_DATE_MISSING);
+        } else if (film.getReleaseDate().isBefore(FIRST_FILM_DATE)) {
+            errors = add(errors, ValidationRule.FILM_RELEASE_DATE_TOO_EARLY);
         }
 
         if (film.getDuration() == null || film.getDuration() <= 0) {
-            throw new ValidationException("Продолжительность фильма должна быть положительным числом");
+            errors = add(errors, ValidationRule.FILM_DURATION_NOT_POSITIVE);
         }
+        return errors;
     }
 
-    public static void validateUser(User user) {
+    public static List<String> checkUser(User user) {
+        List<String> errors = List.of();
 
         if (user.getEmail() == null || user.getEmail().isBlank()) {
-            throw new ValidationException("Электронная почта не может быть пустой");
-        }
-
-        if (user.getEmail() != null && !user.getEmail().contains("@")) {
-            throw new ValidationException("Электронная почта должна содержать символ @");
+            errors = add(errors, ValidationRule.USER_EMAIL_BLANK);
+        } else if (!user.getEmail().contains("@")) {
+            errors = add(errors, ValidationRule.USER_EMAIL_INVALID);
         }
 
         if (user.getLogin() == null || user.getLogin().isBlank()) {
-            throw new ValidationException("Логин не может быть пустым");
+            errors = add(errors, ValidationRule.USER_LOGIN_BLANK);
+        } else if (user.getLogin().contains(" ")) {
+            errors = add(errors, ValidationRule.USER_LOGIN_WHITESPACE);
         }
 
-        if (user.getLogin() != null && user.getLogin().contains(" ")) {
-            throw new ValidationException("Логин не может содержать пробелы");
+        if (user.getBirthday() != null && user.getBirthday().isAfter(today())) {
+            errors = add(errors, ValidationRule.USER_BIRTHDAY_IN_FUTURE);
         }
+        return errors;
+    }
 
-        if (user.getBirthday() != null && LocalDate.parse(user.getBirthday(), dateTimeFormatter).isAfter(LocalDate.now())) {
-            throw new ValidationException("Дата рождения не может быть в будущем");
+    public static void validateId(Long id) {
+        if (id == null) {
+            throw new ValidationException(ValidationRule.ID_MISSING.violated());
         }
 
-        if (user.getName() == null || user.getName().isBlank()) {
-            user.setName(user.getLogin());
+        if (id <= 0) {
+            throw new ValidationException(ValidationRule.ID_NOT_POSITIVE.violated());
         }
     }
 
-    public static void validateId(Long id) {
-        if (id == null) {
-            throw new ValidationException("ID не может быть пустым");
+    private static List<String> add(List<String> errors, ValidationRule rule) {
+        List<String> result = errors.isEmpty() ? new ArrayList<>(4) : errors;
+        result.add(rule.violated());
+        return result;
+    }
+
+    /**
+     * Текущая дата пересчитывается раз в сутки, а не при каждой проверке пользователя.
+     */
+    private static LocalDate today() {
+        Today current = today;
+        if (System.currentTimeMillis() >= current.validUntilMillis()) {
+            current = Today.compute();
+            today = current;
         }
+        return current.date();
+    }
 
-        if (id <= 0) {
-            throw new ValidationException("ID должен быть положительным числом");
+    private record Today(LocalDate date, long validUntilMillis) {
+
+        static Today compute() {
+            ZoneId zone = ZoneId.systemDefault();
+            LocalDate date = LocalDate.now(zone);
+            return new Today(date, date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
         }
     }
 }
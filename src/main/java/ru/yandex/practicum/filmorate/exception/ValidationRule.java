@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.Locale;
+
+/**
+ * Правила проверки фильмов и пользователей. Каждое нарушение учитывается в счётчике
+ * {@code filmorate.validation.failures} с тегом {@code rule} — именем правила в нижнем регистре.
+ * Счётчики создаются один раз в глобальном реестре, к которому Spring Boot подключает свой.
+ */
+public enum ValidationRule {
+    FILM_NAME_BLANK("Название фильма не может быть пустым"),
+    FILM_DESCRIPTION_TOO_LONG("Максимальная длина описания — 200 символов"),
+    FILM_RELEASE_DATE_MISSING("Дата релиза обязательна"),
+    FILM_RELEASE_DATE_TOO_EARLY("Дата релиза не может быть раньше 28 декабря 1895 года"),
+    FILM_DURATION_NOT_POSITIVE("Продолжительность фильма должна быть положительным числом"),
+    USER_EMAIL_BLANK("Электронная почта не может быть пустой"),
+    USER_EMAIL_INVALID("Электронная почта должна содержать символ @"),
+    USER_LOGIN_BLANK("Логин не может быть пустым"),
+    USER_LOGIN_WHITESPACE("Логин не может содержать пробелы"),
+    USER_BIRTHDAY_IN_FUTURE("Дата рождения не может быть в будущем"),
+    ID_MISSING("ID не может быть пустым"),
+    ID_NOT_POSITIVE("ID должен быть положительным числом");
+
+    private final String message;
+    private final Counter failures;
+
+    ValidationRule(String message) {
+        this.message = message;
+        this.failures = Counter.builder("filmorate.validation.failures")
+                .tag("rule", name().toLowerCase(Locale.ROOT))
+                .description("Нарушения правил проверки")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Учитывает нарушение правила и возвращает его сообщение.
+     */
+    String violated() {
+        failures.increment();
+        return message;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Отчёт о пакетной загрузке. Пакет применяется целиком или не применяется совсем:
+ * {@code applied = false}, если хотя бы один элемент не прошёл проверку.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchResult {
+    private final boolean applied;
+    private final int created;
+    private final int updated;
+    private final List<Item> items;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        /**
+         * Элемент корректен, но пакет отклонён из-за ошибок в других элементах.
+         */
+        VALID,
+        INVALID,
+        NOT_FOUND
+    }
+
+    @Getter
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class Item {
+        private final int index;
+        private final Long id;
+        private final Status status;
+        private final List<String> errors;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ErrorResponse {
+    private final String error;
+    private final List<String> errors;
+
+    public ErrorResponse(String error) {
+        this(error, List.of());
+    }
+}
@@ -1,20 +1,30 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDate;
+
 /**
- * Film.
+ * Film. В JSON и бинарные форматы переводится через {@link FilmJson}.
  */
 @Getter
 @Setter
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonSerialize(using = FilmJson.Serializer.class)
+@JsonDeserialize(using = FilmJson.Deserializer.class)
 public class Film {
     Long id;
+    /**
+     * Номер версии, который хранилище увеличивает при каждом обновлении; служит ETag фильма.
+     */
+    Long version;
     String name;
     String description;
-    String releaseDate;
+    LocalDate releaseDate;
     Integer duration;
 }
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE;
+
+/**
+ * Фильтр каталога по диапазонам даты выхода и продолжительности. Границы включаются,
+ * {@code null} означает отсутствие ограничения. Контроллеры получают его прямо из параметров
+ * запроса с теми же именами.
+ */
+public record FilmFilter(@DateTimeFormat(iso = DATE) LocalDate releasedFrom,
+                         @DateTimeFormat(iso = DATE) LocalDate releasedTo,
+                         Integer minDuration,
+                         Integer maxDuration) {
+
+    public boolean isEmpty() {
+        return releasedFrom == null && releasedTo == null && minDuration == null && maxDuration == null;
+    }
+
+    public boolean hasReleaseDate() {
+        return releasedFrom != null || releasedTo != null;
+    }
+
+    public boolean matches(Film film) {
+        LocalDate releaseDate = film.getReleaseDate();
+        if (hasReleaseDate() && (releaseDate == null
+                || releasedFrom != null && releaseDate.isBefore(releasedFrom)
+                || releasedTo != null && releaseDate.isAfter(releasedTo))) {
+            return false;
+        }
+        Integer duration = film.getDuration();
+        return minDuration == null && maxDuration == null || duration != null
+                && (minDuration == null || duration >= minDuration)
+                && (maxDuration == null || duration <= maxDuration);
+    }
+}
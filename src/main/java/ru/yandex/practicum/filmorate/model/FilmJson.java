@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Сериализация {@link Film} без обхода свойств через рефлексию: поля пишутся и читаются напрямую,
+ * а имена полей закодированы заранее. Результат тот же, что дал бы Jackson по геттерам: все поля
+ * в порядке объявления, {@code null} пишется явно. Работает для любого формата Jackson, в том числе
+ * Smile и CBOR.
+ */
+public final class FilmJson {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString RELEASE_DATE = new SerializedString("releaseDate");
+    private static final SerializableString DURATION = new SerializedString("duration");
+
+    private FilmJson() {
+    }
+
+    public static final class Serializer extends StdSerializer<Film> {
+
+        public Serializer() {
+            super(Film.class);
+        }
+
+        @Override
+        public void serialize(Film film, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(film);
+            JsonFields.writeLong(generator, ID, film.getId());
+            JsonFields.writeLong(generator, VERSION, film.getVersion());
+            JsonFields.writeString(generator, NAME, film.getName());
+            JsonFields.writeString(generator, DESCRIPTION, film.getDescription());
+            JsonFields.writeDate(generator, RELEASE_DATE, film.getReleaseDate());
+            JsonFields.writeInt(generator, DURATION, film.getDuration());
+            generator.writeEndObject();
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<Film> {
+
+        public Deserializer() {
+            super(Film.class);
+        }
+
+        @Override
+        public Film deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            Film film = new Film();
+            for (String field = JsonFields.firstField(parser, context, Film.class); field != null;
+                 field = parser.nextFieldName()) {
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> film.setId(JsonFields.readLong(parser, context));
+                    case "version" -> film.setVersion(JsonFields.readLong(parser, context));
+                    case "name" -> film.setName(JsonFields.readString(parser, context));
+                    case "description" -> film.setDescription(JsonFields.readString(parser, context));
+                    case "releaseDate" -> film.setReleaseDate(JsonFields.readDate(parser, context));
+                    case "duration" -> film.setDuration(JsonFields.readInt(parser, context));
+                    default -> context.handleUnknownProperty(parser, this, Film.class, field);
+                }
+            }
+            return film;
+        }
+    }
+}
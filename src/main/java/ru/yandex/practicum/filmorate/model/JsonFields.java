@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Запись и чтение полей моделей для {@link FilmJson} и {@link UserJson}. Обычные значения обрабатываются
+ * напрямую; всё остальное, например число в строке, передаётся стандартным десериализаторам Jackson,
+ * чтобы приведение типов и ошибки остались такими же, как без своих сериализаторов.
+ */
+final class JsonFields {
+    static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final LocalDateDeserializer DATE_DESERIALIZER = new LocalDateDeserializer(DATE);
+
+    private JsonFields() {
+    }
+
+    static void writeLong(JsonGenerator generator, SerializableString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    static void writeInt(JsonGenerator generator, SerializableString name, Integer value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+
+    /**
+     * Дата в формате {@code yyyy-MM-dd}. Годы из четырёх цифр записываются без {@link DateTimeFormatter},
+     * который собирает строку через {@code StringBuilder}; остальные форматируются им.
+     */
+    static void writeDate(JsonGenerator generator, SerializableString name, LocalDate value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else if (value.getYear() >= 0 && value.getYear() <= 9999) {
+            char[] text = new char[10];
+            putDigits(text, 0, value.getYear(), 4);
+            text[4] = '-';
+            putDigits(text, 5, value.getMonthValue(), 2);
+            text[7] = '-';
+            putDigits(text, 8, value.getDayOfMonth(), 2);
+            generator.writeString(text, 0, text.length);
+        } else {
+            generator.writeString(DATE.format(value));
+        }
+    }
+
+    /**
+     * Возвращает имя первого поля объекта, на начале которого стоит парсер, или {@code null} для пустого объекта.
+     */
+    static String firstField(JsonParser parser, DeserializationContext context, Class<?> type) throws IOException {
+        if (parser.isExpectedStartObjectToken()) {
+            return parser.nextFieldName();
+        }
+        if (parser.currentToken() == JsonToken.FIELD_NAME) {
+            return parser.currentName();
+        }
+        if (parser.currentToken() == JsonToken.END_OBJECT) {
+            return null;
+        }
+        return (String) context.handleUnexpectedToken(type, parser);
+    }
+
+    static Long readLong(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, Long.class);
+        };
+    }
+
+    static Integer readInt(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getIntValue();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, Integer.class);
+        };
+    }
+
+    static String readString(JsonParser parser, DeserializationContext context) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NULL -> null;
+            default -> context.readValue(parser, String.class);
+        };
+    }
+
+    /**
+     * Дата в формате {@code yyyy-MM-dd}, которая читается прямо из буфера парсера без промежуточной строки.
+     * Всё остальное, в том числе несуществующие даты, разбирает стандартный десериализатор с тем же форматом,
+     * который задала бы аннотация {@code @JsonFormat}, чтобы приведение и ошибки остались прежними.
+     */
+    static LocalDate readDate(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() == JsonToken.VALUE_STRING && parser.getTextLength() == 10) {
+            char[] text = parser.getTextCharacters();
+            int at = parser.getTextOffset();
+            int year = digits(text, at, 4);
+            int month = digits(text, at + 5, 2);
+            int day = digits(text, at + 8, 2);
+            if (text[at + 4] == '-' && text[at + 7] == '-' && year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    // например, 30 февраля: разбор и ошибку оставляем стандартному десериализатору
+                }
+            }
+        }
+        return DATE_DESERIALIZER.deserialize(parser, context);
+    }
+
+    private static void putDigits(char[] text, int at, int value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Число из {@code width} цифр, начиная с {@code at}, или -1, если там не только цифры.
+     */
+    private static int digits(char[] text, int at, int width) {
+        int value = 0;
+        for (int i = at; i < at + width; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -1,12 +1,25 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
+import java.time.LocalDate;
+
+/**
+ * Пользователь. В JSON и бинарные форматы переводится через {@link UserJson}.
+ */
 @Data
+@JsonSerialize(using = UserJson.Serializer.class)
+@JsonDeserialize(using = UserJson.Deserializer.class)
 public class User {
     private Long id;
+    /**
+     * Номер версии, который хранилище увеличивает при каждом обновлении; служит ETag пользователя.
+     */
+    private Long version;
     private String email;
     private String login;
     private String name;
-    private String birthday;
+    private LocalDate birthday;
 }
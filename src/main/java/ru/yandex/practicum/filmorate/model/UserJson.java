@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Сериализация {@link User} без обхода свойств через рефлексию: поля пишутся и читаются напрямую,
+ * а имена полей закодированы заранее. Результат тот же, что дал бы Jackson по геттерам: все поля
+ * в порядке объявления, {@code null} пишется явно. Работает для любого формата Jackson, в том числе
+ * Smile и CBOR.
+ */
+public final class UserJson {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString VERSION = new SerializedString("version");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString LOGIN = new SerializedString("login");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString BIRTHDAY = new SerializedString("birthday");
+
+    private UserJson() {
+    }
+
+    public static final class Serializer extends StdSerializer<User> {
+
+        public Serializer() {
+            super(User.class);
+        }
+
+        @Override
+        public void serialize(User user, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(user);
+            JsonFields.writeLong(generator, ID, user.getId());
+            JsonFields.writeLong(generator, VERSION, user.getVersion());
+            JsonFields.writeString(generator, EMAIL, user.getEmail());
+            JsonFields.writeString(generator, LOGIN, user.getLogin());
+            JsonFields.writeString(generator, NAME, user.getName());
+            JsonFields.writeDate(generator, BIRTHDAY, user.getBirthday());
+            generator.writeEndObject();
+        }
+    }
+
+    public static final class Deserializer extends StdDeserializer<User> {
+
+        public Deserializer() {
+            super(User.class);
+        }
+
+        @Override
+        public User deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            User user = new User();
+            for (String field = JsonFields.firstField(parser, context, User.class); field != null;
+                 field = parser.nextFieldName()) {
+                parser.nextToken();
+                switch (field) {
+                    case "id" -> user.setId(JsonFields.readLong(parser, context));
+                    case "version" -> user.setVersion(JsonFields.readLong(parser, context));
+                    case "email" -> user.setEmail(JsonFields.readString(parser, context));
+                    case "login" -> user.setLogin(JsonFields.readString(parser, context));
+                    case "name" -> user.setName(JsonFields.readString(parser, context));
+                    case "birthday" -> user.setBirthday(JsonFields.readDate(parser, context));
+                    default -> context.handleUnknownProperty(parser, this, User.class, field);
+                }
+            }
+            return user;
+        }
+    }
+}
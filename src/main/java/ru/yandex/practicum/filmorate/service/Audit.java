@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Аудит изменений в логгер {@code filmorate.audit}. Событие содержит только тип сущности, действие,
+ * id и имена изменённых полей — сами сущности в лог не попадают. Формат JSON, очередь и политика
+ * переполнения задаются в {@code logback-spring.xml}. Если логгер выключен, события не собираются.
+ */
+final class Audit {
+    private static final Logger log = LoggerFactory.getLogger("filmorate.audit");
+    private static final List<String> FILM_FIELDS = List.of("name", "description", "releaseDate", "duration");
+    private static final List<String> USER_FIELDS = List.of("email", "login", "name", "birthday");
+
+    private Audit() {
+    }
+
+    static boolean enabled() {
+        return log.isInfoEnabled();
+    }
+
+    static void created(EntitiesChanged.Entity entity, long id) {
+        if (!enabled()) {
+            return;
+        }
+        log.atInfo()
+                .setMessage("Создание")
+                .addKeyValue("entity", name(entity))
+                .addKeyValue("action", "created")
+                .addKeyValue("id", id)
+                .log();
+    }
+
+    /**
+     * Без прежнего состояния (фильм не нашёлся до обновления) изменёнными считаются все поля.
+     */
+    static void filmUpdated(Film before, Film after) {
+        if (!enabled()) {
+            return;
+        }
+        List<String> fields = FILM_FIELDS;
+        if (before != null) {
+            fields = new ArrayList<>(FILM_FIELDS.size());
+            changed(fields, "name", before.getName(), after.getName());
+            changed(fields, "description", before.getDescription(), after.getDescription());
+            changed(fields, "releaseDate", before.getReleaseDate(), after.getReleaseDate());
+            changed(fields, "duration", before.getDuration(), after.getDuration());
+        }
+        updated(EntitiesChanged.Entity.FILM, after.getId(), fields);
+    }
+
+    static void userUpdated(User before, User after) {
+        if (!enabled()) {
+            return;
+        }
+        List<String> fields = USER_FIELDS;
+        if (before != null) {
+            fields = new ArrayList<>(USER_FIELDS.size());
+            changed(fields, "email", before.getEmail(), after.getEmail());
+            changed(fields, "login", before.getLogin(), after.getLogin());
+            changed(fields, "name", before.getName(), after.getName());
+            changed(fields, "birthday", before.getBirthday(), after.getBirthday());
+        }
+        updated(EntitiesChanged.Entity.USER, after.getId(), fields);
+    }
+
+    /**
+     * Одно событие на пакет. Созданные записи получают сплошной диапазон id, поэтому
+     * записываются его границы; обновлённые — списком id.
+     */
+    static void imported(EntitiesChanged.Entity entity, List<Long> created, List<Long> updated) {
+        if (!enabled()) {
+            return;
+        }
+        var event = log.atInfo()
+                .setMessage("Пакетная загрузка")
+                .addKeyValue("entity", name(entity))
+                .addKeyValue("action", "imported")
+                .addKeyValue("created", created.size());
+        if (!created.isEmpty()) {
+            event = event.addKeyValue("createdFrom", created.getFirst())
+                    .addKeyValue("createdTo", created.getLast());
+        }
+        event.addKeyValue("updated", List.copyOf(updated)).log();
+    }
+
+    private static void updated(EntitiesChanged.Entity entity, long id, List<String> fields) {
+        log.atInfo()
+                .setMessage("Обновление")
+                .addKeyValue("entity", name(entity))
+                .addKeyValue("action", "updated")
+                .addKeyValue("id", id)
+                .addKeyValue("fields", fields)
+                .log();
+    }
+
+    private static void changed(List<String> fields, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) {
+            fields.add(field);
+        }
+    }
+
+    private static String name(EntitiesChanged.Entity entity) {
+        return entity == EntitiesChanged.Entity.FILM ? "film" : "user";
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.model.BatchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Общая логика пакетной загрузки фильмов и пользователей: элементы без id создаются,
+ * элементы с id обновляют существующие записи.
+ *
+ * <p>Каждый элемент проверяется, сохраняется и индексируется так же, как одиночный запрос, поэтому
+ * внутри процесса пакет почти не быстрее. Выигрыш — в сэкономленных HTTP-запросах и в том, что весь
+ * пакет попадает в журнал одной записью с одним fsync.
+ *
+ * <p>Пакет атомарен по ошибкам: при ошибке проверки, записи в журнал или падении процесса не применяется
+ * ни один элемент. Изоляции нет: пока пакет применяется к памяти, параллельные чтения могут увидеть
+ * часть его элементов.
+ */
+final class Batches {
+
+    private Batches() {
+    }
+
+    interface Operations<T> {
+
+        List<String> check(T item);
+
+        Long idOf(T item);
+
+        boolean exists(long id);
+
+        String notFoundMessage(long id);
+
+        void applyAll(List<T> created, List<T> updated);
+    }
+
+    /**
+     * Проверяет все элементы параллельно и, только если ошибок нет, применяет пакет одним вызовом
+     * хранилища: новые записи получают id одним диапазоном, затем выполняются обновления.
+     */
+    static <T> BatchResult apply(List<T> items, Operations<T> operations) {
+        BatchResult.Status[] statuses = new BatchResult.Status[items.size()];
+        List<List<String>> errors = new ArrayList<>(Collections.nCopies(items.size(), List.<String>of()));
+
+        IntStream.range(0, items.size()).parallel().forEach(i -> {
+            T item = items.get(i);
+            List<String> itemErrors = operations.check(item);
+            Long id = operations.idOf(item);
+            if (!itemErrors.isEmpty()) {
+                statuses[i] = BatchResult.Status.INVALID;
+                errors.set(i, itemErrors);
+            } else if (id != null && !operations.exists(id)) {
+                statuses[i] = BatchResult.Status.NOT_FOUND;
+                errors.set(i, List.of(operations.notFoundMessage(id)));
+            } else {
+                statuses[i] = BatchResult.Status.VALID;
+            }
+        });
+
+        if (!Arrays.stream(statuses).allMatch(status -> status == BatchResult.Status.VALID)) {
+            return new BatchResult(false, 0, 0, report(items, operations, statuses, errors));
+        }
+
+        List<T> created = new ArrayList<>();
+        List<T> updated = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            T item = items.get(i);
+            if (operations.idOf(item) == null) {
+                created.add(item);
+                statuses[i] = BatchResult.Status.CREATED;
+            } else {
+                updated.add(item);
+                statuses[i] = BatchResult.Status.UPDATED;
+            }
+        }
+        operations.applyAll(created, updated);
+        return new BatchResult(true, created.size(), updated.size(),
+                report(items, operations, statuses, errors));
+    }
+
+    private static <T> List<BatchResult.Item> report(List<T> items, Operations<T> operations,
+                                                     BatchResult.Status[] statuses, List<List<String>> errors) {
+        List<BatchResult.Item> report = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            report.add(new BatchResult.Item(i, operations.idOf(items.get(i)), statuses[i], errors.get(i)));
+        }
+        return report;
+    }
+}
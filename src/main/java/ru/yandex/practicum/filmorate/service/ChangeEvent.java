@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.service;
+
+/**
+ * Запись ленты изменений: одна созданная или обновлённая запись под своим номером.
+ * Номера выдаются подряд с 1 и после перезапуска приложения начинаются заново.
+ */
+public record ChangeEvent(long seq, EntitiesChanged.Entity entity, EntitiesChanged.Change change, long id) {
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Лента изменений фильмов и пользователей по событиям {@link EntitiesChanged}. Каждая изменённая запись
+ * получает следующий номер и кладётся в кольцевой буфер, откуда её читают подписчики, каждый со своей позиции.
+ *
+ * <p>Запись в ленту не берёт блокировок: писатель занимает номера одним {@code getAndAdd} и публикует
+ * событие в ячейку буфера. Подписчики не замедляют писателей: они читают буфер сами, а писатель
+ * лишь будит тех, кто ждёт новых событий. Отставший больше чем на ёмкость буфера подписчик теряет
+ * вытесненные события и узнаёт об этом по {@link Batch#lost()}.
+ */
+@Component
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeed {
+    private final AtomicReferenceArray<ChangeEvent> ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    public ChangeFeed(ChangeFeedProperties properties) {
+        int capacity = Integer.highestOneBit(Math.max(properties.getCapacity() - 1, 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @EventListener
+    public void onChange(EntitiesChanged event) {
+        List<Long> ids = event.ids();
+        long first = claimed.getAndAdd(ids.size()) + 1;
+        for (int i = 0; i < ids.size(); i++) {
+            long seq = first + i;
+            ring.setRelease(index(seq), new ChangeEvent(seq, event.entity(), event.change(), ids.get(i)));
+        }
+        for (Thread waiter; (waiter = waiters.poll()) != null; ) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Номер последнего события, для которого занято место; само событие может ещё публиковаться.
+     */
+    public long lastSequence() {
+        return claimed.get();
+    }
+
+    /**
+     * Читает по порядку не более {@code max} событий с номерами больше {@code after}. Если следующие
+     * за {@code after} события уже вытеснены или {@code after} больше последнего номера (лента начата
+     * заново после перезапуска), чтение идёт с самого старого сохранённого события и {@code lost} истинно.
+     */
+    public Batch read(long after, int max) {
+        List<ChangeEvent> events = new ArrayList<>(Math.min(max, 256));
+        long last = claimed.get();
+        long seq = after + 1;
+        boolean lost = false;
+        if (seq < oldest(last) || after > last) {
+            seq = oldest(last);
+            lost = true;
+        }
+        while (seq <= last && events.size() < max) {
+            ChangeEvent event = ring.getAcquire(index(seq));
+            if (event == null || event.seq() < seq) {
+                // место занято, но писатель ещё не опубликовал событие
+                break;
+            }
+            if (event.seq() > seq) {
+                // ячейку перезаписали, пока мы читали
+                seq = oldest(claimed.get());
+                lost = true;
+                continue;
+            }
+            events.add(event);
+            seq++;
+        }
+        return new Batch(events, lost, seq - 1);
+    }
+
+    /**
+     * Ждёт события с номером больше {@code after} не дольше {@code timeout}.
+     *
+     * @return {@code true}, если такое событие уже есть
+     */
+    public boolean await(long after, Duration timeout) throws InterruptedException {
+        if (published(after + 1)) {
+            return true;
+        }
+        Thread current = Thread.currentThread();
+        // встаём в очередь до повторной проверки, чтобы не пропустить побудку от писателя
+        waiters.add(current);
+        try {
+            if (!published(after + 1)) {
+                LockSupport.parkNanos(this, timeout.toNanos());
+            }
+        } finally {
+            waiters.remove(current);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return published(after + 1);
+    }
+
+    private boolean published(long seq) {
+        ChangeEvent event = ring.getAcquire(index(seq));
+        return event != null && event.seq() >= seq;
+    }
+
+    private long oldest(long last) {
+        return Math.max(1, last - mask);
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+
+    /**
+     * Прочитанные события, признак того, что часть событий перед ними потеряна, и номер,
+     * с которого продолжать чтение.
+     */
+    public record Batch(List<ChangeEvent> events, boolean lost, long cursor) {
+    }
+}
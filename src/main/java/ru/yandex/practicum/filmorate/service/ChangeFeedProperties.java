@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки ленты изменений ({@code filmorate.events.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "filmorate.events")
+public class ChangeFeedProperties {
+    /**
+     * Сколько последних событий хранится для отстающих подписчиков; округляется вверх до степени двойки.
+     */
+    private int capacity = 65_536;
+    /**
+     * Как часто подписчику без новых событий отправляется пустой комментарий, чтобы соединение не закрыли.
+     */
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.List;
+
+/**
+ * Событие о созданных или обновлённых фильмах либо пользователях. Сервисы публикуют его
+ * синхронно, после того как изменение видно в хранилище; пакетная загрузка публикует одно
+ * событие на все созданные и одно на все обновлённые записи.
+ */
+public record EntitiesChanged(Entity entity, Change change, List<Long> ids) {
+
+    public enum Entity {
+        FILM,
+        USER
+    }
+
+    public enum Change {
+        CREATED,
+        UPDATED
+    }
+}
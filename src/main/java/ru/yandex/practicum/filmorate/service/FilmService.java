@@ -0,0 +1,303 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.storage.FilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.RecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class FilmService {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final FilmSearchIndex searchIndex;
+    private final FilmRangeIndex rangeIndex;
+    private final RecommendationIndex recommendationIndex;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Строит индексы по фильмам и лайкам, которые уже есть в хранилище, например восстановленным с диска.
+     */
+    @PostConstruct
+    public void buildIndexes() {
+        filmStorage.findAll().forEach(this::index);
+        likeStorage.forEachLike(recommendationIndex::addLike);
+    }
+
+    public Collection<Film> findAll() {
+        return filmStorage.findAll();
+    }
+
+    public Collection<Film> findAllAfter(long afterId) {
+        return filmStorage.findAllAfter(afterId);
+    }
+
+    public Collection<Film> findPage(long afterId, int limit) {
+        return filmStorage.findPage(afterId, limit);
+    }
+
+    public Film findById(long id) {
+        return filmStorage.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Фильм с id %d не найден", id)));
+    }
+
+    public Film create(Film film) {
+        ValidationException.validateFilm(film);
+        filmStorage.create(film);
+        index(film);
+        publish(EntitiesChanged.Change.CREATED, List.of(film.getId()));
+        Audit.created(EntitiesChanged.Entity.FILM, film.getId());
+        return film;
+    }
+
+    public Film update(Film newFilm) {
+        return update(newFilm, null);
+    }
+
+    /**
+     * Обновляет фильм, только если его текущая версия равна {@code expectedVersion};
+     * при {@code null} версия не проверяется.
+     */
+    public Film update(Film newFilm, Long expectedVersion) {
+        ValidationException.validateFilm(newFilm);
+        Film previous = Audit.enabled() && newFilm.getId() != null
+                ? filmStorage.findById(newFilm.getId()).orElse(null)
+                : null;
+        Optional<Film> stored = expectedVersion == null
+                ? filmStorage.update(newFilm)
+                : filmStorage.update(newFilm, expectedVersion);
+        return stored
+                .map(film -> {
+                    index(film);
+                    publish(EntitiesChanged.Change.UPDATED, List.of(film.getId()));
+                    Audit.filmUpdated(previous, film);
+                    return film;
+                })
+                .orElseThrow(() -> {
+                    log.warn("Попытка обновления несуществующего фильма с id: {}", newFilm.getId());
+                    return new NotFoundException(String.format("Фильм с id %d не найден", newFilm.getId()));
+                });
+    }
+
+    public BatchResult importBatch(List<Film> films) {
+        List<Long> created = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        BatchResult result = Batches.apply(films, new Batches.Operations<>() {
+            @Override
+            public List<String> check(Film film) {
+                return ValidationException.checkFilm(film);
+            }
+
+            @Override
+            public Long idOf(Film film) {
+                return film.getId();
+            }
+
+            @Override
+            public boolean exists(long id) {
+                return filmStorage.findById(id).isPresent();
+            }
+
+            @Override
+            public String notFoundMessage(long id) {
+                return String.format("Фильм с id %d не найден", id);
+            }
+
+            @Override
+            public void applyAll(List<Film> newFilms, List<Film> changedFilms) {
+                filmStorage.importAll(newFilms, changedFilms);
+                for (Film film : newFilms) {
+                    index(film);
+                    created.add(film.getId());
+                }
+                for (Film film : changedFilms) {
+                    index(film);
+                    updated.add(film.getId());
+                }
+            }
+        });
+        if (result.isApplied()) {
+            publish(EntitiesChanged.Change.CREATED, created);
+            publish(EntitiesChanged.Change.UPDATED, updated);
+            Audit.imported(EntitiesChanged.Entity.FILM, created, updated);
+            log.info("Пакетная загрузка фильмов: создано {}, обновлено {}", result.getCreated(), result.getUpdated());
+        } else {
+            log.warn("Пакетная загрузка фильмов отклонена: {} элементов", films.size());
+        }
+        return result;
+    }
+
+    public List<Film> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        List<Film> films = new ArrayList<>();
+        for (long filmId : searchIndex.search(query, limit)) {
+            filmStorage.findById(filmId).ifPresent(films::add);
+        }
+        return films;
+    }
+
+    public Stream<Film> findFiltered(FilmFilter filter) {
+        return findFiltered(filter, null);
+    }
+
+    /**
+     * Фильмы, подходящие под фильтр, в порядке индексируемого поля: даты выхода, если она есть
+     * в фильтре, иначе продолжительности, при равных значениях — id. Диапазон читается из индекса
+     * лениво, остальные условия проверяются по самому фильму.
+     *
+     * <p>Выдача продолжается после курсора {@code <значение>,<id>} — ключа последнего фильма предыдущей
+     * страницы, например {@code 2003-05-15,42} или {@code 138,42}; {@code null} — с начала. Курсор
+     * хранит само значение, а не только id, поэтому если фильм-курсор с тех пор изменил дату или
+     * продолжительность, следующая страница не пропускает и не повторяет строки.
+     */
+    public Stream<Film> findFiltered(FilmFilter filter, String cursor) {
+        if (filter.releasedFrom() != null && filter.releasedTo() != null
+                && filter.releasedFrom().isAfter(filter.releasedTo())) {
+            throw new ValidationException("Начало диапазона дат не может быть позже конца");
+        }
+        if (filter.minDuration() != null && filter.maxDuration() != null
+                && filter.minDuration() > filter.maxDuration()) {
+            throw new ValidationException("Минимальная продолжительность не может быть больше максимальной");
+        }
+        Cursor after = Cursor.parse(cursor);
+        Iterable<Film> films = filter.hasReleaseDate()
+                ? rangeIndex.findByReleaseDate(filter.releasedFrom(), filter.releasedTo(),
+                        after == null ? null : after.value(LocalDate::parse), after == null ? 0 : after.id())
+                : rangeIndex.findByDuration(filter.minDuration(), filter.maxDuration(),
+                        after == null ? null : after.value(Integer::valueOf), after == null ? 0 : after.id());
+        return StreamSupport.stream(films.spliterator(), false).filter(filter::matches);
+    }
+
+    public void addLike(long filmId, long userId) {
+        checkFilmAndUser(filmId, userId);
+        if (likeStorage.addLike(filmId, userId)) {
+            recommendationIndex.addLike(filmId, userId);
+            log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
+        }
+    }
+
+    public void removeLike(long filmId, long userId) {
+        checkFilmAndUser(filmId, userId);
+        if (likeStorage.removeLike(filmId, userId)) {
+            recommendationIndex.removeLike(filmId, userId);
+            log.info("Пользователь {} убрал лайк с фильма {}", userId, filmId);
+        }
+    }
+
+    /**
+     * Самые популярные фильмы. Если фильмов с лайками меньше {@code count}, список дополняется
+     * фильмами без лайков в порядке id. Их не больше {@code count}, поэтому пропусков при
+     * дополнении тоже не больше {@code count}.
+     */
+    public List<Film> getPopular(int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество фильмов должно быть положительным числом");
+        }
+        List<Film> popular = new ArrayList<>(Math.min(count, filmStorage.size()));
+        for (long filmId : likeStorage.findTopFilmIds(count)) {
+            filmStorage.findById(filmId).ifPresent(popular::add);
+        }
+        if (popular.size() < count) {
+            for (Film film : filmStorage.findAll()) {
+                if (popular.size() == count) {
+                    break;
+                }
+                if (likeStorage.countLikes(film.getId()) == 0) {
+                    popular.add(film);
+                }
+            }
+        }
+        return popular;
+    }
+
+    /**
+     * Фильмы, которые лайкнули пользователи с похожими лайками, а сам пользователь ещё не лайкал.
+     * Пользователь без лайков получает пустой список.
+     */
+    public List<Film> getRecommendations(long userId, int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество фильмов должно быть положительным числом");
+        }
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException(String.format("Пользователь с id %d не найден", userId));
+        }
+        List<Film> films = new ArrayList<>();
+        for (long filmId : recommendationIndex.recommend(userId, count)) {
+            filmStorage.findById(filmId).ifPresent(films::add);
+        }
+        return films;
+    }
+
+    private void publish(EntitiesChanged.Change change, List<Long> ids) {
+        if (!ids.isEmpty()) {
+            events.publishEvent(new EntitiesChanged(EntitiesChanged.Entity.FILM, change, ids));
+        }
+    }
+
+    private void index(Film film) {
+        searchIndex.index(film);
+        rangeIndex.index(film);
+    }
+
+    private void checkFilmAndUser(long filmId, long userId) {
+        findById(filmId);
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new NotFoundException(String.format("Пользователь с id %d не найден", userId));
+        }
+    }
+
+    /**
+     * Курсор выдачи с фильтром: значение индексируемого поля в виде строки и id.
+     */
+    private record Cursor(String text, String value, long id) {
+
+        static Cursor parse(String text) {
+            if (text == null) {
+                return null;
+            }
+            int separator = text.lastIndexOf(',');
+            try {
+                return new Cursor(text, text.substring(0, separator), Long.parseLong(text.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw invalid(text);
+            }
+        }
+
+        <T> T value(Function<String, T> parser) {
+            try {
+                return parser.apply(value);
+            } catch (RuntimeException e) {
+                throw invalid(text);
+            }
+        }
+
+        private static ValidationException invalid(String text) {
+            return new ValidationException("Курсор должен иметь вид <значение>,<id>: " + text);
+        }
+    }
+}
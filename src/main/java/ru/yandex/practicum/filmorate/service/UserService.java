@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserService {
+    private final UserStorage userStorage;
+    private final FriendStorage friendStorage;
+    private final ApplicationEventPublisher events;
+
+    public Collection<User> findAll() {
+        return userStorage.findAll();
+    }
+
+    public Collection<User> findAllAfter(long afterId) {
+        return userStorage.findAllAfter(afterId);
+    }
+
+    public Collection<User> findPage(long afterId, int limit) {
+        return userStorage.findPage(afterId, limit);
+    }
+
+    public User findById(long id) {
+        return userStorage.findById(id)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id " + id + " не найден"));
+    }
+
+    public User create(User user) {
+        ValidationException.validateUser(user);
+        userStorage.create(user);
+        publish(EntitiesChanged.Change.CREATED, List.of(user.getId()));
+        Audit.created(EntitiesChanged.Entity.USER, user.getId());
+        return user;
+    }
+
+    public User update(User newUser) {
+        return update(newUser, null);
+    }
+
+    /**
+     * Обновляет пользователя, только если его текущая версия равна {@code expectedVersion};
+     * при {@code null} версия не проверяется.
+     */
+    public User update(User newUser, Long expectedVersion) {
+        ValidationException.validateUser(newUser);
+        User previous = Audit.enabled() && newUser.getId() != null
+                ? userStorage.findById(newUser.getId()).orElse(null)
+                : null;
+        Optional<User> stored = expectedVersion == null
+                ? userStorage.update(newUser)
+                : userStorage.update(newUser, expectedVersion);
+        return stored
+                .map(user -> {
+                    publish(EntitiesChanged.Change.UPDATED, List.of(user.getId()));
+                    Audit.userUpdated(previous, user);
+                    return user;
+                })
+                .orElseThrow(() -> {
+                    log.warn("Попытка обновления несуществующего пользователя с id: {}", newUser.getId());
+                    return new NotFoundException("Пользователь с id " + newUser.getId() + " не найден");
+                });
+    }
+
+    public BatchResult importBatch(List<User> users) {
+        List<Long> created = new ArrayList<>();
+        List<Long> updated = new ArrayList<>();
+        BatchResult result = Batches.apply(users, new Batches.Operations<>() {
+            @Override
+            public List<String> check(User user) {
+                return ValidationException.checkUser(user);
+            }
+
+            @Override
+            public Long idOf(User user) {
+                return user.getId();
+            }
+
+            @Override
+            public boolean exists(long id) {
+                return userStorage.findById(id).isPresent();
+            }
+
+            @Override
+            public String notFoundMessage(long id) {
+                return "Пользователь с id " + id + " не найден";
+            }
+
+            @Override
+            public void applyAll(List<User> newUsers, List<User> changedUsers) {
+                newUsers.forEach(ValidationException::fillDefaults);
+                changedUsers.forEach(ValidationException::fillDefaults);
+                userStorage.importAll(newUsers, changedUsers);
+                newUsers.forEach(user -> created.add(user.getId()));
+                changedUsers.forEach(user -> updated.add(user.getId()));
+            }
+        });
+        if (result.isApplied()) {
+            publish(EntitiesChanged.Change.CREATED, created);
+            publish(EntitiesChanged.Change.UPDATED, updated);
+            Audit.imported(EntitiesChanged.Entity.USER, created, updated);
+            log.info("Пакетная загрузка пользователей: создано {}, обновлено {}",
+                    result.getCreated(), result.getUpdated());
+        } else {
+            log.warn("Пакетная загрузка пользователей отклонена: {} элементов", users.size());
+        }
+        return result;
+    }
+
+    public void addFriend(long userId, long friendId) {
+        checkFriendPair(userId, friendId);
+        friendStorage.addFriend(userId, friendId);
+        log.info("Пользователи {} и {} теперь друзья", userId, friendId);
+    }
+
+    public void removeFriend(long userId, long friendId) {
+        checkFriendPair(userId, friendId);
+        friendStorage.removeFriend(userId, friendId);
+        log.info("Пользователи {} и {} больше не друзья", userId, friendId);
+    }
+
+    public List<User> getFriends(long userId) {
+        findById(userId);
+        return toUsers(friendStorage.findFriendIds(userId));
+    }
+
+    public List<User> getCommonFriends(long userId, long otherId) {
+        findById(userId);
+        findById(otherId);
+        return toUsers(friendStorage.findCommonFriendIds(userId, otherId));
+    }
+
+    private void publish(EntitiesChanged.Change change, List<Long> ids) {
+        if (!ids.isEmpty()) {
+            events.publishEvent(new EntitiesChanged(EntitiesChanged.Entity.USER, change, ids));
+        }
+    }
+
+    private void checkFriendPair(long userId, long friendId) {
+        if (userId == friendId) {
+            throw new ValidationException("Пользователь не может добавить в друзья самого себя");
+        }
+        findById(userId);
+        findById(friendId);
+    }
+
+    private List<User> toUsers(long[] ids) {
+        List<User> users = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            userStorage.findById(id).ifPresent(users::add);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,167 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индексы по дате выхода и продолжительности для {@link CompactFilmStorage}.
+ *
+ * <p>В отличие от {@link InMemoryFilmRangeIndex} индекс не держит объекты {@link Film}: ключ —
+ * значение и id, упакованные в одно {@code long}, а фильмы диапазона читаются из хранилища
+ * по id при обходе. Проиндексированные значения, нужные для переноса фильма при обновлении,
+ * лежат в столбцах {@code int}, как в самом хранилище, рядом со столбцом версий: более старая
+ * версия фильма, пришедшая после новой, не переносит его обратно.
+ */
+@Component
+@ConditionalOnExpression("'${filmorate.storage.mode:objects}' != 'objects'")
+public class CompactFilmRangeIndex implements FilmRangeIndex {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final FilmStorage films;
+    private final NavigableSet<Long> releaseDates = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Long> durations = new ConcurrentSkipListSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int[][] indexedReleaseDays = new int[0][];
+    private int[][] indexedDurations = new int[0][];
+    private long[][] indexedVersions = new long[0][];
+
+    public CompactFilmRangeIndex(@Qualifier("filmMemory") FilmStorage films) {
+        this.films = films;
+    }
+
+    @Override
+    public void index(Film film) {
+        long id = film.getId();
+        int releaseDay = film.getReleaseDate() == null ? NONE : (int) film.getReleaseDate().toEpochDay();
+        int duration = film.getDuration() == null ? NONE : film.getDuration();
+        long version = film.getVersion() == null ? 0 : film.getVersion();
+
+        lock.lock();
+        try {
+            int chunk = (int) ((id - 1) >>> CHUNK_BITS);
+            int slot = (int) ((id - 1) & (CHUNK_SIZE - 1));
+            if (chunk >= indexedReleaseDays.length) {
+                int length = Math.max(chunk + 1, indexedReleaseDays.length * 2);
+                indexedReleaseDays = Arrays.copyOf(indexedReleaseDays, length);
+                indexedDurations = Arrays.copyOf(indexedDurations, length);
+                indexedVersions = Arrays.copyOf(indexedVersions, length);
+            }
+            if (indexedReleaseDays[chunk] == null) {
+                indexedReleaseDays[chunk] = newColumn();
+                indexedDurations[chunk] = newColumn();
+                indexedVersions[chunk] = new long[CHUNK_SIZE];
+            }
+            if (indexedVersions[chunk][slot] > version) {
+                return;
+            }
+            move(releaseDates, indexedReleaseDays[chunk][slot], releaseDay, id);
+            move(durations, indexedDurations[chunk][slot], duration, id);
+            indexedReleaseDays[chunk][slot] = releaseDay;
+            indexedDurations[chunk][slot] = duration;
+            indexedVersions[chunk][slot] = version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterable<Film> findByReleaseDate(LocalDate from, LocalDate to, LocalDate afterDate, long afterId) {
+        return range(releaseDates,
+                from == null ? Long.MIN_VALUE : from.toEpochDay(),
+                to == null ? Long.MAX_VALUE : to.toEpochDay(),
+                afterDate == null ? null : cursor(afterDate.toEpochDay(), afterId));
+    }
+
+    @Override
+    public Iterable<Film> findByDuration(Integer min, Integer max, Integer afterDuration, long afterId) {
+        return range(durations,
+                min == null ? Long.MIN_VALUE : min,
+                max == null ? Long.MAX_VALUE : max,
+                afterDuration == null ? null : cursor(afterDuration, afterId));
+    }
+
+    private Iterable<Film> range(NavigableSet<Long> index, long from, long to, Long after) {
+        // значения в индексе — int, поэтому границы за их пределами сводятся к крайним int
+        long lower = Math.max(from, Integer.MIN_VALUE + 1L);
+        long upper = Math.min(to, Integer.MAX_VALUE);
+        if (lower > upper) {
+            return List.of();
+        }
+        long lowerKey = key((int) lower, 0);
+        long upperKey = key((int) upper, 0xFFFFFFFFL);
+        boolean afterCursor = after != null && after >= lowerKey;
+        if (afterCursor && after >= upperKey) {
+            return List.of();
+        }
+        NavigableSet<Long> keys = index.subSet(afterCursor ? after : lowerKey, !afterCursor, upperKey, true);
+        return () -> new Iterator<>() {
+            private final Iterator<Long> ids = keys.iterator();
+            private Film next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && ids.hasNext()) {
+                    next = films.findById(ids.next() & 0xFFFFFFFFL).orElse(null);
+                }
+                return next != null;
+            }
+
+            @Override
+            public Film next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Film film = next;
+                next = null;
+                return film;
+            }
+        };
+    }
+
+    /**
+     * Ключ курсора из запроса; значение и id за пределами своих 32 бит сводятся к крайним,
+     * как и границы диапазона.
+     */
+    private static long cursor(long value, long id) {
+        return key((int) Math.max(Integer.MIN_VALUE + 1L, Math.min(value, Integer.MAX_VALUE)),
+                Math.max(0, Math.min(id, 0xFFFFFFFFL)));
+    }
+
+    private static void move(NavigableSet<Long> index, int previous, int value, long id) {
+        if (previous == value) {
+            return;
+        }
+        if (previous != NONE) {
+            index.remove(key(previous, id));
+        }
+        if (value != NONE) {
+            index.add(key(value, id));
+        }
+    }
+
+    /**
+     * Значение в старших 32 битах, id в младших: порядок ключей совпадает с порядком (значение, id).
+     */
+    private static long key(int value, long id) {
+        return ((long) value << 32) | id;
+    }
+
+    private static int[] newColumn() {
+        int[] column = new int[CHUNK_SIZE];
+        Arrays.fill(column, NONE);
+        return column;
+    }
+}
@@ -0,0 +1,437 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapArena;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Компактное хранилище фильмов в памяти, включается при {@code filmorate.storage.mode=compact}.
+ *
+ * <p>Фильмы лежат по столбцам: дата выхода — номер дня в {@code int}, продолжительность — {@code int},
+ * название и описание — байты UTF-8 без обёртки {@link String}. Id выдаются подряд, поэтому строка
+ * фильма находится по id без карты: столбцы разбиты на блоки по {@value #CHUNK_SIZE} строк и растут
+ * без копирования данных. Объекты {@link Film} создаются только при чтении и хранилищем не удерживаются.
+ *
+ * <p>Описания, самая объёмная часть фильма, могут лежать вне кучи в {@link OffHeapArena}: тогда в столбце
+ * остаётся только ссылка на запись. Так хранилище собирается в режиме {@code off-heap}.
+ *
+ * <p>Строка меняется под блокировкой записи своей полосы: строка id относится к полосе
+ * {@code id % }{@value #LOCK_STRIPES}, поэтому обновления разных фильмов, в том числе соседних по id,
+ * обычно не ждут друг друга. Выдача id и рост столбцов идут под отдельной блокировкой, которую
+ * обновления существующих строк не берут. Чтение оптимистичное: если во время чтения строку
+ * изменили, оно повторяется под блокировкой чтения её полосы.
+ */
+@Component("filmMemory")
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "mode", havingValue = "compact")
+public class CompactFilmStorage implements FilmStorage {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int NONE = Integer.MIN_VALUE;
+    private static final int LOCK_STRIPES = 256;
+    /**
+     * Общие значения для отсутствующего и пустого текста; отличаются ссылкой, а не содержимым.
+     */
+    private static final byte[] NULL_TEXT = new byte[0];
+    private static final byte[] EMPTY_TEXT = new byte[0];
+    private static final long NULL_REF = -1;
+    private static final long EMPTY_REF = -2;
+
+    private final OffHeapArena descriptionArena;
+    private final StampedLock[] rowLocks = new StampedLock[LOCK_STRIPES];
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile long lastId;
+    private volatile int size;
+
+    public CompactFilmStorage() {
+        this(null);
+    }
+
+    /**
+     * @param descriptionArena область для описаний или {@code null}, чтобы хранить их в куче
+     */
+    public CompactFilmStorage(OffHeapArena descriptionArena) {
+        this.descriptionArena = descriptionArena;
+        Arrays.setAll(rowLocks, i -> new StampedLock());
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return new Films(0) {
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<Film> findAllAfter(long afterId) {
+        return new Films(afterId);
+    }
+
+    @Override
+    public Collection<Film> findPage(long afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Film> films = new Films(afterId).iterator();
+        while (page.size() < limit && films.hasNext()) {
+            page.add(films.next());
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return Optional.ofNullable(read(id));
+    }
+
+    @Override
+    public Film create(Film film) {
+        growLock.lock();
+        try {
+            film.setId(lastId + 1);
+            film.setVersion(1L);
+            write(film);
+            lastId = film.getId();
+            size++;
+            return film;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        growLock.lock();
+        try {
+            long id = lastId;
+            for (Film film : newFilms) {
+                film.setId(++id);
+                film.setVersion(1L);
+                write(film);
+            }
+            lastId = id;
+            size += newFilms.size();
+            return newFilms;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    @Override
+    public void importAll(List<Film> newFilms, List<Film> changedFilms) {
+        createAll(newFilms);
+        changedFilms.forEach(this::update);
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        return replace(film, null);
+    }
+
+    @Override
+    public Optional<Film> update(Film film, long expectedVersion) {
+        return replace(film, expectedVersion);
+    }
+
+    @Override
+    public void restore(Film film) {
+        growLock.lock();
+        try {
+            boolean added = !exists(film.getId());
+            if (film.getVersion() == null) {
+                film.setVersion(1L);
+            }
+            write(film);
+            if (added) {
+                size++;
+            }
+            lastId = Math.max(lastId, film.getId());
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long lastId() {
+        return lastId;
+    }
+
+    /**
+     * Версия проверяется и увеличивается под той же блокировкой полосы, что и замена строки.
+     * Строки не удаляются, поэтому существующей строке блокировка роста не нужна.
+     */
+    private Optional<Film> replace(Film film, Long expectedVersion) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        long id = film.getId();
+        StampedLock lock = rowLock(id);
+        long stamp = lock.writeLock();
+        try {
+            if (!exists(id)) {
+                return Optional.empty();
+            }
+            Chunk chunk = chunks[chunkOf(id)];
+            long version = chunk.versions[slotOf(id)];
+            if (expectedVersion != null && version != expectedVersion) {
+                throw new VersionConflictException(String.format(
+                        "Фильм с id %d уже изменён: версия %d, ожидалась %d", id, version, expectedVersion));
+            }
+            film.setVersion(version + 1);
+            chunk.set(slotOf(id), film);
+            return Optional.of(film);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private Film read(long id) {
+        if (id < 1 || id > lastId) {
+            return null;
+        }
+        StampedLock lock = rowLock(id);
+        long stamp = lock.tryOptimisticRead();
+        Film film;
+        try {
+            film = materialize(id);
+        } catch (RuntimeException e) {
+            // несогласованная ссылка на описание вне кучи; повторяем под блокировкой
+            film = null;
+            stamp = 0;
+        }
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                film = materialize(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return film;
+    }
+
+    private Film materialize(long id) {
+        Chunk[] current = chunks;
+        int chunk = chunkOf(id);
+        if (chunk >= current.length || current[chunk] == null) {
+            return null;
+        }
+        return current[chunk].film(id, slotOf(id));
+    }
+
+    private boolean exists(long id) {
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            return false;
+        }
+        Chunk[] current = chunks;
+        int chunk = chunkOf(id);
+        return chunk < current.length && current[chunk] != null && current[chunk].names[slotOf(id)] != null;
+    }
+
+    /**
+     * Записывает строку, при необходимости добавляя блок. Вызывается под {@link #growLock}.
+     */
+    private void write(Film film) {
+        long id = film.getId();
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Id фильма вне допустимого диапазона: " + id);
+        }
+        int chunk = chunkOf(id);
+        Chunk[] current = chunks;
+        if (chunk >= current.length) {
+            current = Arrays.copyOf(current, Math.max(chunk + 1, current.length * 2));
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new Chunk();
+        }
+        chunks = current;
+        StampedLock lock = rowLock(id);
+        long stamp = lock.writeLock();
+        try {
+            current[chunk].set(slotOf(id), film);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private StampedLock rowLock(long id) {
+        return rowLocks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private static int chunkOf(long id) {
+        return (int) ((id - 1) >>> CHUNK_BITS);
+    }
+
+    private static int slotOf(long id) {
+        return (int) ((id - 1) & (CHUNK_SIZE - 1));
+    }
+
+    private static byte[] encode(String text, byte[] stored) {
+        if (text == null) {
+            return NULL_TEXT;
+        }
+        if (text.isEmpty()) {
+            return EMPTY_TEXT;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        // при обновлении неизменённый текст остаётся прежним массивом
+        return stored != null && Arrays.equals(stored, bytes) ? stored : bytes;
+    }
+
+    private static String decode(byte[] bytes) {
+        if (bytes == NULL_TEXT) {
+            return null;
+        }
+        return bytes == EMPTY_TEXT ? "" : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Блок строк. Заполненность строки определяется по столбцу названий: у записанной строки
+     * там всегда есть массив, хотя бы {@link #NULL_TEXT}. Описания лежат либо в {@link #descriptions},
+     * либо, при области вне кучи, ссылками в {@link #descriptionRefs}.
+     */
+    private final class Chunk {
+        final long[] versions = new long[CHUNK_SIZE];
+        final int[] releaseDays = new int[CHUNK_SIZE];
+        final int[] durations = new int[CHUNK_SIZE];
+        final byte[][] names = new byte[CHUNK_SIZE][];
+        final byte[][] descriptions = descriptionArena == null ? new byte[CHUNK_SIZE][] : null;
+        final long[] descriptionRefs = descriptionArena == null ? null : new long[CHUNK_SIZE];
+
+        void set(int slot, Film film) {
+            versions[slot] = film.getVersion();
+            releaseDays[slot] = film.getReleaseDate() == null ? NONE : (int) film.getReleaseDate().toEpochDay();
+            durations[slot] = film.getDuration() == null ? NONE : film.getDuration();
+            if (descriptionArena == null) {
+                descriptions[slot] = encode(film.getDescription(), descriptions[slot]);
+            } else {
+                descriptionRefs[slot] = store(film.getDescription(), names[slot] == null ? NULL_REF : descriptionRefs[slot]);
+            }
+            names[slot] = encode(film.getName(), names[slot]);
+        }
+
+        /**
+         * Записывает описание в область. Неизменённое описание сохраняет прежнюю ссылку,
+         * слот заменённого область отдаёт следующим записям.
+         */
+        private long store(String text, long stored) {
+            byte[] bytes = text == null || text.isEmpty() ? null : text.getBytes(StandardCharsets.UTF_8);
+            if (bytes != null && stored >= 0 && descriptionArena.matches(stored, bytes)) {
+                return stored;
+            }
+            long ref = bytes == null ? (text == null ? NULL_REF : EMPTY_REF) : descriptionArena.append(bytes);
+            if (stored >= 0) {
+                descriptionArena.release(stored);
+            }
+            return ref;
+        }
+
+        String description(int slot) {
+            if (descriptionArena == null) {
+                return decode(descriptions[slot]);
+            }
+            long ref = descriptionRefs[slot];
+            if (ref == NULL_REF) {
+                return null;
+            }
+            return ref == EMPTY_REF ? "" : new String(descriptionArena.read(ref), StandardCharsets.UTF_8);
+        }
+
+        Film film(long id, int slot) {
+            byte[] name = names[slot];
+            if (name == null) {
+                return null;
+            }
+            Film film = new Film();
+            film.setId(id);
+            film.setVersion(versions[slot]);
+            film.setName(decode(name));
+            film.setDescription(description(slot));
+            int releaseDay = releaseDays[slot];
+            film.setReleaseDate(releaseDay == NONE ? null : LocalDate.ofEpochDay(releaseDay));
+            int duration = durations[slot];
+            film.setDuration(duration == NONE ? null : duration);
+            return film;
+        }
+    }
+
+    /**
+     * Представление фильмов с id больше {@code afterId} в порядке id. Как и представления
+     * {@code ConcurrentSkipListMap}, видит изменения, сделанные во время обхода.
+     */
+    private class Films extends AbstractCollection<Film> {
+        private final long afterId;
+
+        Films(long afterId) {
+            this.afterId = Math.max(afterId, 0);
+        }
+
+        @Override
+        public Iterator<Film> iterator() {
+            return new Iterator<>() {
+                private long id = afterId;
+                private Film next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && id < lastId) {
+                        next = read(++id);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public Film next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Film film = next;
+                    next = null;
+                    return film;
+                }
+            };
+        }
+
+        /**
+         * Считает записи обходом. Потоки и пакетная выдача используют {@link #spliterator()},
+         * которому размер заранее не нужен.
+         */
+        @Override
+        public int size() {
+            int count = 0;
+            for (Iterator<Film> films = iterator(); films.hasNext(); films.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public Spliterator<Film> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(),
+                    Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+    }
+}
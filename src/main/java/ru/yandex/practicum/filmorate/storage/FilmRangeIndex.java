@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+
+public interface FilmRangeIndex {
+
+    /**
+     * Добавляет фильм в индексы или переносит его, если индексируемые поля изменились.
+     * Более ранняя версия фильма, чем уже проиндексированная, игнорируется.
+     */
+    void index(Film film);
+
+    /**
+     * Возвращает представление фильмов с датой выхода в диапазоне {@code [from, to]}
+     * в порядке возрастания даты, при равной дате — id. Граница {@code null} означает
+     * отсутствие ограничения. Выдача начинается сразу после ключа ({@code afterDate}, {@code afterId}) —
+     * позиции последнего фильма предыдущей страницы на момент её выдачи, а не его текущей позиции;
+     * {@code afterDate == null} — с начала диапазона.
+     */
+    Iterable<Film> findByReleaseDate(LocalDate from, LocalDate to, LocalDate afterDate, long afterId);
+
+    /**
+     * Возвращает представление фильмов с продолжительностью в диапазоне {@code [min, max]}
+     * в порядке возрастания продолжительности, при равной продолжительности — id.
+     * Граница {@code null} означает отсутствие ограничения, ключ ({@code afterDuration}, {@code afterId}) —
+     * как в {@link #findByReleaseDate}.
+     */
+    Iterable<Film> findByDuration(Integer min, Integer max, Integer afterDuration, long afterId);
+}
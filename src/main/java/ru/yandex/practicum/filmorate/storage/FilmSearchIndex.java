@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+
+public interface FilmSearchIndex {
+
+    /**
+     * Добавляет фильм в индекс или заменяет ранее проиндексированную версию;
+     * более ранняя версия, чем уже проиндексированная, игнорируется.
+     */
+    void index(Film film);
+
+    /**
+     * Возвращает id не более {@code limit} фильмов, в названии или описании которых есть все слова
+     * запроса, от наиболее релевантных к менее релевантным, при равной релевантности — по возрастанию id.
+     * Последнее слово запроса ищется по префиксу.
+     */
+    List<Long> search(String query, int limit);
+}
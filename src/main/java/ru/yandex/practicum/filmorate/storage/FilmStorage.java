@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface FilmStorage {
+
+    /**
+     * Возвращает представление всех записей в порядке возрастания id без копирования.
+     */
+    Collection<Film> findAll();
+
+    /**
+     * Возвращает представление записей с id строго больше {@code afterId} без копирования.
+     */
+    Collection<Film> findAllAfter(long afterId);
+
+    /**
+     * Возвращает не более {@code limit} записей с id строго больше {@code afterId}.
+     */
+    Collection<Film> findPage(long afterId, int limit);
+
+    Optional<Film> findById(long id);
+
+    /**
+     * Присваивает фильму новый id и версию 1, затем сохраняет его.
+     */
+    Film create(Film film);
+
+    /**
+     * Присваивает фильмам сплошной диапазон новых id и версию 1, затем сохраняет их.
+     */
+    List<Film> createAll(List<Film> newFilms);
+
+    /**
+     * Пакетная загрузка: создаёт {@code newFilms}, как {@link #createAll}, и обновляет {@code changedFilms},
+     * как {@link #update(Film)}. Фильмы из {@code changedFilms} должны существовать.
+     * Если изменение не удалось сохранить, не применяется ни один элемент пакета.
+     */
+    void importAll(List<Film> newFilms, List<Film> changedFilms);
+
+    /**
+     * Заменяет существующий фильм и присваивает ему следующую версию.
+     * Возвращает пустой Optional, если фильма с таким id нет.
+     */
+    Optional<Film> update(Film film);
+
+    /**
+     * Как {@link #update(Film)}, но заменяет фильм, только если его текущая версия равна
+     * {@code expectedVersion}. Проверка и замена выполняются атомарно.
+     *
+     * @throws VersionConflictException если фильм уже изменён
+     */
+    Optional<Film> update(Film film, long expectedVersion);
+
+    /**
+     * Кладёт фильм с уже известным id, например при восстановлении с диска.
+     * Счётчик id сдвигается так, чтобы новые записи не получили занятый id. Версия сохраняется;
+     * у записей, сохранённых до появления версий, она считается первой.
+     */
+    void restore(Film film);
+
+    int size();
+
+    /**
+     * Последний выданный id; растёт с каждым созданием и не уменьшается.
+     */
+    long lastId();
+}
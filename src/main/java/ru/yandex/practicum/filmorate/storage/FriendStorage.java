@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Дружба взаимна: добавление и удаление меняют списки друзей обоих пользователей.
+ */
+public interface FriendStorage {
+
+    void addFriend(long userId, long friendId);
+
+    void removeFriend(long userId, long friendId);
+
+    /**
+     * Возвращает id друзей по возрастанию.
+     */
+    long[] findFriendIds(long userId);
+
+    /**
+     * Возвращает id общих друзей по возрастанию.
+     */
+    long[] findCommonFriendIds(long userId, long otherId);
+
+    /**
+     * Передаёт каждую дружбу один раз, меньший id первым, например для снимка на диске.
+     * Изменения во время обхода могут как попасть в него, так и нет.
+     */
+    void forEachFriendship(LongPairConsumer action);
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Отсортированные индексы по дате выхода и продолжительности фильмов в памяти.
+ *
+ * <p>Каждый индекс — skip-list от ключа (значение, id) к самому фильму, поэтому диапазон
+ * находится за O(log n), а его k фильмов читаются по порядку без копирования и без обращений
+ * к хранилищу. Для каждого фильма хранятся проиндексированные значения, чтобы при обновлении
+ * убрать из индексов старые ключи, и версия: индекс обновляется после записи в хранилище, и при
+ * параллельных обновлениях одного фильма более старая версия может прийти последней.
+ */
+@Component
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "mode", havingValue = "objects", matchIfMissing = true)
+public class InMemoryFilmRangeIndex implements FilmRangeIndex {
+    private final NavigableMap<Key, Film> releaseDates = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Key, Film> durations = new ConcurrentSkipListMap<>();
+    private final Map<Long, Indexed> documents = new ConcurrentHashMap<>();
+
+    @Override
+    public void index(Film film) {
+        Long releaseDay = film.getReleaseDate() == null ? null : film.getReleaseDate().toEpochDay();
+        Long duration = film.getDuration() == null ? null : film.getDuration().longValue();
+        long version = film.getVersion() == null ? 0 : film.getVersion();
+
+        documents.compute(film.getId(), (id, previous) -> {
+            if (previous != null && previous.version() > version) {
+                return previous;
+            }
+            if (previous != null) {
+                remove(releaseDates, previous.releaseDay(), id);
+                remove(durations, previous.duration(), id);
+            }
+            add(releaseDates, releaseDay, film);
+            add(durations, duration, film);
+            return new Indexed(version, releaseDay, duration);
+        });
+    }
+
+    @Override
+    public Iterable<Film> findByReleaseDate(LocalDate from, LocalDate to, LocalDate afterDate, long afterId) {
+        return range(releaseDates,
+                from == null ? Long.MIN_VALUE : from.toEpochDay(),
+                to == null ? Long.MAX_VALUE : to.toEpochDay(),
+                afterDate == null ? null : new Key(afterDate.toEpochDay(), afterId));
+    }
+
+    @Override
+    public Iterable<Film> findByDuration(Integer min, Integer max, Integer afterDuration, long afterId) {
+        return range(durations,
+                min == null ? Long.MIN_VALUE : min,
+                max == null ? Long.MAX_VALUE : max,
+                afterDuration == null ? null : new Key(afterDuration, afterId));
+    }
+
+    private static Iterable<Film> range(NavigableMap<Key, Film> index, long from, long to, Key after) {
+        if (from > to) {
+            return List.of();
+        }
+        Key lower = new Key(from, Long.MIN_VALUE);
+        Key upper = new Key(to, Long.MAX_VALUE);
+        boolean afterCursor = after != null && after.compareTo(lower) >= 0;
+        if (afterCursor && after.compareTo(upper) >= 0) {
+            return List.of();
+        }
+        return index.subMap(afterCursor ? after : lower, !afterCursor, upper, true).values();
+    }
+
+    private static void add(NavigableMap<Key, Film> index, Long value, Film film) {
+        if (value != null) {
+            index.put(new Key(value, film.getId()), film);
+        }
+    }
+
+    private static void remove(NavigableMap<Key, Film> index, Long value, long id) {
+        if (value != null) {
+            index.remove(new Key(value, id));
+        }
+    }
+
+    private record Key(long value, long id) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+    }
+
+    private record Indexed(long version, Long releaseDay, Long duration) {
+    }
+}
@@ -0,0 +1,560 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Инвертированный индекс по названию и описанию фильмов в памяти.
+ *
+ * <p>Слова приводятся к нижнему регистру, «ё» заменяется на «е», поэтому кириллица и латиница
+ * ищутся без учёта регистра. Словарь отсортирован, так что префикс последнего слова запроса
+ * раскрывается диапазоном словаря, а не перебором. Вес совпадения в названии выше, чем в описании;
+ * результаты ранжируются по сумме весов.
+ *
+ * <p>Список фильмов по слову — неизменяемый снимок: по каждому весу отсортированный массив
+ * {@code long[]} id, без упаковки в {@code Long} и узлов на каждый фильм. Кандидаты перебираются
+ * по самому редкому слову запроса от большего веса к меньшему, лучшие собираются в ограниченную кучу. Перебор
+ * останавливается, когда даже наибольший возможный вес оставшихся кандидатов — их вес по этому слову
+ * плюс наибольшие веса остальных слов — не выше последнего места в куче. Поэтому результат точный
+ * и не зависит от порядка хэш-таблиц, а частые слова не требуют обхода всех фильмов.
+ */
+@Component
+public class InMemoryFilmSearchIndex implements FilmSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    /**
+     * Сколько слов словаря подставляется вместо префикса: берутся слова с наибольшим числом фильмов.
+     * Фильмы, в которых есть только более редкие слова с этим префиксом, в выдачу по префиксу не попадают.
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    /**
+     * Префиксы до этой длины покрывают большую часть словаря, поэтому их раскрытия запоминаются.
+     */
+    private static final int MAX_CACHED_PREFIX_LENGTH = 3;
+
+    /**
+     * Результаты по убыванию веса, при равном весе — по возрастанию id.
+     */
+    private static final Comparator<long[]> RESULT_ORDER = Comparator
+            .<long[]>comparingLong(result -> -result[0])
+            .thenComparingLong(result -> result[1]);
+
+    /**
+     * Списки фильмов по словам. Каждое изменение заменяет список новым снимком внутри {@code compute}
+     * по своему слову, поэтому изменения одного слова не пересекаются, а читатели видят список целиком.
+     */
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+    /**
+     * Отсортированные слова словаря для раскрытия префиксов; меняется вместе с {@link #postings}.
+     */
+    private final NavigableSet<String> dictionary = new ConcurrentSkipListSet<>();
+    /**
+     * Запомненные раскрытия коротких префиксов. Раскрытие забывается, когда слово с этим префиксом
+     * появляется в словаре или уходит из него и когда число фильмов у слова переходит через степень
+     * двойки, так что выбор самых частых слов отстаёт от точного не больше чем вдвое.
+     */
+    private final Map<String, String[]> expansions = new ConcurrentHashMap<>();
+    private final Map<Long, Indexed> documents = new ConcurrentHashMap<>();
+
+    @Override
+    public void index(Film film) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, film.getName(), NAME_WEIGHT);
+        addTerms(terms, film.getDescription(), DESCRIPTION_WEIGHT);
+        long version = film.getVersion() == null ? 0 : film.getVersion();
+
+        documents.compute(film.getId(), (id, previous) -> {
+            // индекс обновляется после записи в хранилище, и при параллельных обновлениях
+            // более старая версия фильма может прийти последней
+            if (previous != null && previous.version() > version) {
+                return previous;
+            }
+            if (previous != null) {
+                for (int i = 0; i < previous.terms().length; i++) {
+                    Integer weight = terms.get(previous.terms()[i]);
+                    if (weight == null || weight != previous.weights()[i]) {
+                        remove(previous.terms()[i], id, previous.weights()[i]);
+                    }
+                }
+            }
+            String[] indexedTerms = new String[terms.size()];
+            int[] weights = new int[terms.size()];
+            int next = 0;
+            for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+                int weight = entry.getValue();
+                int kept = previous == null ? -1 : previous.indexOf(entry.getKey());
+                // слово хранится тем же объектом, что и ключ словаря, а не своей копией в каждом фильме
+                indexedTerms[next] = kept >= 0 && previous.weights()[kept] == weight
+                        ? previous.terms()[kept]
+                        : add(entry.getKey(), id, weight);
+                weights[next++] = weight;
+            }
+            return new Indexed(version, indexedTerms, weights);
+        });
+    }
+
+    @Override
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<TermMatch> matches = new ArrayList<>(terms.size());
+        for (int i = 0; i < terms.size(); i++) {
+            boolean prefix = i == terms.size() - 1 && terms.get(i).length() >= MIN_PREFIX_LENGTH;
+            TermMatch match = prefix ? prefixMatch(terms.get(i)) : exactMatch(terms.get(i));
+            if (match.size() == 0) {
+                return List.of();
+            }
+            matches.add(match);
+        }
+        // кандидатов перебираем по самому редкому слову, остальные только проверяем
+        matches.sort(Comparator.comparingLong(TermMatch::size));
+        TermMatch driver = matches.getFirst();
+        long othersMax = 0;
+        for (int i = 1; i < matches.size(); i++) {
+            othersMax += matches.get(i).maxWeight();
+        }
+
+        PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1, RESULT_ORDER.reversed());
+        LongHashSet seen = driver.postings().size() > 1 ? new LongHashSet() : null;
+        for (Bucket bucket : driver.buckets()) {
+            long bound = bucket.weight() + othersMax;
+            if (top.size() == limit && top.peek()[0] > bound) {
+                break;
+            }
+            // внутри группы id растут, поэтому остальные слова проверяются курсорами, которые идут только вперёд
+            Cursor driverWeights = seen != null ? driver.cursor() : null;
+            List<Cursor> others = new ArrayList<>(matches.size() - 1);
+            for (int i = 1; i < matches.size(); i++) {
+                others.add(matches.get(i).cursor());
+            }
+            candidates:
+            for (int j = 0; j < bucket.size(); j++) {
+                long filmId = bucket.ids()[j];
+                // фильмы внутри веса идут по возрастанию id, поэтому при равенстве с худшим
+                // результатом дальше в этом весе подходящих нет
+                if (top.size() == limit && top.peek()[0] == bound && filmId > top.peek()[1]) {
+                    break;
+                }
+                if (seen != null && !seen.add(filmId)) {
+                    continue;
+                }
+                // фильм может быть в нескольких списках префикса, вес берётся лучший из них
+                long score = seen != null ? driverWeights.weight(filmId) : bucket.weight();
+                for (Cursor other : others) {
+                    int weight = other.weight(filmId);
+                    if (weight == 0) {
+                        continue candidates;
+                    }
+                    score += weight;
+                }
+                top.add(new long[]{score, filmId});
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<long[]> ranked = new ArrayList<>(top);
+        ranked.sort(RESULT_ORDER);
+        return ranked.stream().map(result -> result[1]).toList();
+    }
+
+    /**
+     * Число слов в словаре; слова, которых не осталось ни в одном фильме, из словаря удаляются.
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Добавляет фильм в список слова и возвращает слово в том виде, в каком оно лежит в словаре.
+     */
+    private String add(String term, long id, int weight) {
+        return postings.compute(term, (t, posting) -> {
+            if (posting == null) {
+                dictionary.add(t);
+                forgetExpansions(t);
+                return Posting.of(t, id, weight);
+            }
+            Posting next = posting.with(id, weight);
+            if (next.size() > posting.size() && Integer.bitCount(next.size()) == 1) {
+                forgetExpansions(t);
+            }
+            return next;
+        }).term();
+    }
+
+    private void remove(String term, long id, int weight) {
+        postings.computeIfPresent(term, (t, posting) -> {
+            Posting next = posting.without(id, weight);
+            if (next == null) {
+                dictionary.remove(t);
+                forgetExpansions(t);
+            } else if (next.size() < posting.size() && Integer.bitCount(posting.size()) == 1) {
+                forgetExpansions(t);
+            }
+            return next;
+        });
+    }
+
+    /**
+     * Забывает раскрытия коротких префиксов слова. Вызывается после изменения словаря: раскрытие,
+     * которое считается в это время, держит блокировку своей ячейки, поэтому удаление дождётся его
+     * и старый выбор слов не останется в кэше.
+     */
+    private void forgetExpansions(String term) {
+        for (int length = MIN_PREFIX_LENGTH; length <= MAX_CACHED_PREFIX_LENGTH && length < term.length(); length++) {
+            expansions.remove(term.substring(0, length));
+        }
+    }
+
+    private TermMatch exactMatch(String term) {
+        Posting posting = postings.get(term);
+        return new TermMatch(posting == null ? List.of() : List.of(posting), posting);
+    }
+
+    /**
+     * Раскрывает префикс в точное слово и слова с этим началом, в которых больше всего фильмов.
+     */
+    private TermMatch prefixMatch(String prefix) {
+        Posting exact = postings.get(prefix);
+        String[] terms = prefix.length() <= MAX_CACHED_PREFIX_LENGTH
+                ? expansions.computeIfAbsent(prefix, this::largestExpansions)
+                : largestExpansions(prefix);
+        List<Posting> lists = new ArrayList<>(terms.length + 1);
+        if (exact != null) {
+            lists.add(exact);
+        }
+        for (String term : terms) {
+            Posting posting = postings.get(term);
+            if (posting != null) {
+                lists.add(posting);
+            }
+        }
+        return new TermMatch(lists, exact);
+    }
+
+    /**
+     * {@value #MAX_PREFIX_EXPANSIONS} слов, которые начинаются с префикса и длиннее его, с наибольшим
+     * числом фильмов; при равенстве выбирается слово, которое раньше по алфавиту.
+     */
+    private String[] largestExpansions(String prefix) {
+        PriorityQueue<Posting> largest = new PriorityQueue<>(MAX_PREFIX_EXPANSIONS + 1,
+                Comparator.comparingInt(Posting::size)
+                        .thenComparing(Posting::term, Comparator.reverseOrder()));
+        for (String term : dictionary.subSet(prefix, false, prefix + Character.MAX_VALUE, false)) {
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            largest.add(posting);
+            if (largest.size() > MAX_PREFIX_EXPANSIONS) {
+                largest.poll();
+            }
+        }
+        return largest.stream().map(Posting::term).toArray(String[]::new);
+    }
+
+    /**
+     * Неизменяемый снимок фильмов одного слова: группы по весу от большего к меньшему, в каждой
+     * отсортированный массив id. Фильм с id больше последнего дописывается в свободный хвост массива
+     * группы без копирования: старые снимки за свою длину не читают. Остальные изменения копируют
+     * массив группы, поэтому частое слово дорого обновлять в середине, но не дописывать новые фильмы.
+     */
+    private static final class Posting {
+        private final String term;
+        private final Bucket[] buckets;
+        private final int size;
+
+        private Posting(String term, Bucket[] buckets, int size) {
+            this.term = term;
+            this.buckets = buckets;
+            this.size = size;
+        }
+
+        static Posting of(String term, long id, int weight) {
+            return new Posting(term, new Bucket[]{new Bucket(weight, new long[]{id}, 1)}, 1);
+        }
+
+        Posting with(long id, int weight) {
+            int previous = weight(id);
+            if (previous == weight) {
+                return this;
+            }
+            Posting base = previous == 0 ? this : without(id, previous);
+            if (base == null) {
+                return of(term, id, weight);
+            }
+            return base.insert(id, weight);
+        }
+
+        /**
+         * Возвращает снимок без фильма или {@code null}, если список опустел.
+         */
+        Posting without(long id, int weight) {
+            int index = bucketIndex(weight);
+            if (index < 0) {
+                return this;
+            }
+            Bucket bucket = buckets[index].without(id);
+            if (bucket == buckets[index]) {
+                return this;
+            }
+            if (size == 1) {
+                return null;
+            }
+            Bucket[] next;
+            if (bucket.size() == 0) {
+                next = new Bucket[buckets.length - 1];
+                System.arraycopy(buckets, 0, next, 0, index);
+                System.arraycopy(buckets, index + 1, next, index, next.length - index);
+            } else {
+                next = buckets.clone();
+                next[index] = bucket;
+            }
+            return new Posting(term, next, size - 1);
+        }
+
+        private Posting insert(long id, int weight) {
+            int index = bucketIndex(weight);
+            Bucket[] next;
+            if (index >= 0) {
+                next = buckets.clone();
+                next[index] = buckets[index].with(id);
+            } else {
+                int at = -index - 1;
+                next = new Bucket[buckets.length + 1];
+                System.arraycopy(buckets, 0, next, 0, at);
+                next[at] = new Bucket(weight, new long[]{id}, 1);
+                System.arraycopy(buckets, at, next, at + 1, buckets.length - at);
+            }
+            return new Posting(term, next, size + 1);
+        }
+
+        /**
+         * Номер группы с весом или {@code -(место вставки) - 1}; групп обычно несколько, поэтому перебор.
+         */
+        private int bucketIndex(int weight) {
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i].weight() == weight) {
+                    return i;
+                }
+                if (buckets[i].weight() < weight) {
+                    return -i - 1;
+                }
+            }
+            return -buckets.length - 1;
+        }
+
+        String term() {
+            return term;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * Вес фильма по слову или 0, если фильма в списке нет.
+         */
+        int weight(long id) {
+            for (Bucket bucket : buckets) {
+                if (bucket.contains(id)) {
+                    return bucket.weight();
+                }
+            }
+            return 0;
+        }
+
+        int maxWeight() {
+            return buckets[0].weight();
+        }
+
+        Bucket[] buckets() {
+            return buckets;
+        }
+    }
+
+    /**
+     * Фильмы с одним весом по слову: первые {@code size} элементов {@code ids} по возрастанию.
+     */
+    private record Bucket(int weight, long[] ids, int size) {
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        Bucket with(long id) {
+            if (ids[size - 1] < id) {
+                long[] target = size < ids.length ? ids : Arrays.copyOf(ids, grow(size));
+                target[size] = id;
+                return new Bucket(weight, target, size + 1);
+            }
+            int at = -Arrays.binarySearch(ids, 0, size, id) - 1;
+            long[] target = new long[grow(size)];
+            System.arraycopy(ids, 0, target, 0, at);
+            target[at] = id;
+            System.arraycopy(ids, at, target, at + 1, size - at);
+            return new Bucket(weight, target, size + 1);
+        }
+
+        Bucket without(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return this;
+            }
+            long[] target = new long[size - 1];
+            System.arraycopy(ids, 0, target, 0, at);
+            System.arraycopy(ids, at + 1, target, at, size - at - 1);
+            return new Bucket(weight, target, size - 1);
+        }
+
+        private static int grow(int size) {
+            return size + (size >> 1) + 1;
+        }
+    }
+
+    /**
+     * Списки фильмов, подходящих под одно слово запроса. Для префикса это списки слов словаря
+     * с таким началом; неполное слово весит вдвое меньше точного совпадения.
+     */
+    private record TermMatch(List<Posting> postings, Posting exact) {
+
+        long size() {
+            long size = 0;
+            for (Posting posting : postings) {
+                size += posting.size();
+            }
+            return size;
+        }
+
+        Cursor cursor() {
+            List<Bucket> buckets = new ArrayList<>();
+            for (Posting posting : postings) {
+                for (Bucket bucket : posting.buckets()) {
+                    buckets.add(new Bucket(weight(posting, bucket.weight()), bucket.ids(), bucket.size()));
+                }
+            }
+            return new Cursor(buckets.toArray(Bucket[]::new), new int[buckets.size()]);
+        }
+
+        int maxWeight() {
+            int best = 0;
+            for (Posting posting : postings) {
+                best = Math.max(best, weight(posting, posting.maxWeight()));
+            }
+            return best;
+        }
+
+        /**
+         * Группы фильмов всех списков от большего веса к меньшему.
+         */
+        List<Bucket> buckets() {
+            List<Bucket> buckets = new ArrayList<>();
+            for (Posting posting : postings) {
+                for (Bucket bucket : posting.buckets()) {
+                    buckets.add(new Bucket(weight(posting, bucket.weight()), bucket.ids(), bucket.size()));
+                }
+            }
+            buckets.sort(Comparator.comparingInt(Bucket::weight).reversed());
+            return buckets;
+        }
+
+        int weight(Posting posting, int weight) {
+            return posting == exact ? weight : Math.max(1, weight / 2);
+        }
+    }
+
+    /**
+     * Вес фильмов по одному слову запроса для id, которые идут по возрастанию. В каждой группе
+     * помнится позиция прошлого поиска, и следующий id ищется от неё скачками 1, 2, 4…, а затем
+     * двоичным поиском. Соседние кандидаты обычно близки, поэтому проверка почти не уходит
+     * в случайные места больших массивов.
+     */
+    private record Cursor(Bucket[] buckets, int[] positions) {
+
+        int weight(long id) {
+            int best = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                Bucket bucket = buckets[i];
+                int at = seek(bucket, positions[i], id);
+                positions[i] = at;
+                if (at < bucket.size() && bucket.ids()[at] == id) {
+                    best = Math.max(best, bucket.weight());
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Первая позиция не раньше {@code from}, где id не меньше искомого.
+         */
+        private static int seek(Bucket bucket, int from, long id) {
+            long[] ids = bucket.ids();
+            int bound = from;
+            int step = 1;
+            while (bound < bucket.size() && ids[bound] < id) {
+                from = bound + 1;
+                bound += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(ids, from, Math.min(bound, bucket.size()), id);
+            return at >= 0 ? at : -at - 1;
+        }
+    }
+
+    /**
+     * Слова фильма и их веса; слова — те же объекты, что и ключи словаря.
+     */
+    private record Indexed(long version, String[] terms, int[] weights) {
+
+        int indexOf(String term) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].equals(term)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Integer::sum);
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(fold(c));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static char fold(char c) {
+        char lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище фильмов в памяти. Id выдаются атомарным счётчиком, поэтому создание и обновление
+ * безопасны при одновременных запросах. Записи упорядочены по id, что позволяет
+ * отдавать страницы по курсору без сортировки всей коллекции.
+ */
+@Component("filmMemory")
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "mode", havingValue = "objects", matchIfMissing = true)
+public class InMemoryFilmStorage implements FilmStorage {
+    private final NavigableMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    // size() у ConcurrentSkipListMap обходит всю карту, поэтому счётчик ведём отдельно
+    private final AtomicInteger size = new AtomicInteger();
+
+    @Override
+    public Collection<Film> findAll() {
+        return films.values();
+    }
+
+    @Override
+    public Collection<Film> findAllAfter(long afterId) {
+        return films.tailMap(afterId, false).values();
+    }
+
+    @Override
+    public Collection<Film> findPage(long afterId, int limit) {
+        return findAllAfter(afterId).stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public Film create(Film film) {
+        film.setId(idSequence.incrementAndGet());
+        film.setVersion(1L);
+        films.put(film.getId(), film);
+        size.incrementAndGet();
+        return film;
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        long id = idSequence.getAndAdd(newFilms.size());
+        for (Film film : newFilms) {
+            film.setId(++id);
+            film.setVersion(1L);
+            films.put(film.getId(), film);
+        }
+        size.addAndGet(newFilms.size());
+        return newFilms;
+    }
+
+    @Override
+    public void importAll(List<Film> newFilms, List<Film> changedFilms) {
+        createAll(newFilms);
+        changedFilms.forEach(this::update);
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        return replace(film, null);
+    }
+
+    @Override
+    public Optional<Film> update(Film film, long expectedVersion) {
+        return replace(film, expectedVersion);
+    }
+
+    @Override
+    public void restore(Film film) {
+        if (film.getVersion() == null) {
+            film.setVersion(1L);
+        }
+        if (films.put(film.getId(), film) == null) {
+            size.incrementAndGet();
+        }
+        idSequence.accumulateAndGet(film.getId(), Math::max);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public long lastId() {
+        return idSequence.get();
+    }
+
+    /**
+     * Заменяет запись сравнением с обменом, без блокировок: обновления разных id не мешают друг другу,
+     * а при гонке за один id проигравший перечитывает текущую версию и повторяет попытку.
+     */
+    private Optional<Film> replace(Film film, Long expectedVersion) {
+        if (film.getId() == null) {
+            return Optional.empty();
+        }
+        while (true) {
+            Film current = films.get(film.getId());
+            if (current == null) {
+                return Optional.empty();
+            }
+            long version = current.getVersion();
+            if (expectedVersion != null && version != expectedVersion) {
+                throw new VersionConflictException(String.format(
+                        "Фильм с id %d уже изменён: версия %d, ожидалась %d",
+                        film.getId(), version, expectedVersion));
+            }
+            film.setVersion(version + 1);
+            if (films.replace(film.getId(), current, film)) {
+                return Optional.of(film);
+            }
+        }
+    }
+}
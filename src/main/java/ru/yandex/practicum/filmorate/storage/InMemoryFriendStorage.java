@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Граф дружбы в памяти. Друзья каждого пользователя хранятся в {@link SortedLongSet},
+ * поэтому ребро занимает 8 байт с каждой стороны, а общие друзья ищутся слиянием двух массивов.
+ *
+ * <p>Обе стороны ребра меняются под блокировками обоих пользователей: иначе встречные добавление
+ * и удаление одной пары могли бы перемежаться и оставить дружбу только с одной стороны. Чтение
+ * не блокируется и между двумя изменениями может увидеть ребро только с одной стороны.
+ */
+@Component("friendMemory")
+public class InMemoryFriendStorage implements FriendStorage {
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<Long, SortedLongSet> friends = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        locks.run(userId, friendId, () -> {
+            friends.compute(userId, (id, set) -> (set == null ? SortedLongSet.EMPTY : set).with(friendId));
+            friends.compute(friendId, (id, set) -> (set == null ? SortedLongSet.EMPTY : set).with(userId));
+        });
+    }
+
+    @Override
+    public void removeFriend(long userId, long friendId) {
+        locks.run(userId, friendId, () -> {
+            friends.computeIfPresent(userId, (id, set) -> emptyToNull(set.without(friendId)));
+            friends.computeIfPresent(friendId, (id, set) -> emptyToNull(set.without(userId)));
+        });
+    }
+
+    @Override
+    public long[] findFriendIds(long userId) {
+        return friendsOf(userId).toArray();
+    }
+
+    @Override
+    public long[] findCommonFriendIds(long userId, long otherId) {
+        return friendsOf(userId).intersect(friendsOf(otherId));
+    }
+
+    @Override
+    public void forEachFriendship(LongPairConsumer action) {
+        friends.forEach((userId, set) -> set.forEach(friendId -> {
+            if (userId < friendId) {
+                action.accept(userId, friendId);
+            }
+        }));
+    }
+
+    private SortedLongSet friendsOf(long userId) {
+        return friends.getOrDefault(userId, SortedLongSet.EMPTY);
+    }
+
+    private static SortedLongSet emptyToNull(SortedLongSet set) {
+        return set.isEmpty() ? null : set;
+    }
+}
@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Лайки в памяти. Пользователи, лайкнувшие фильм, хранятся в {@link LongHashSet} без упаковки
+ * в {@code Long}, а набор меняется под одной из {@value #LOCK_STRIPES} блокировок по id фильма:
+ * лайки разных фильмов обычно не ждут друг друга, а число блокировок не растёт с каталогом.
+ * Под блокировкой только проверка набора и счётчик; рейтинг популярных фильмов правится после неё,
+ * поэтому лайки одного фильма не ждут перестановки в skip-list. Выборка первых N стоит O(N) без
+ * сортировки всего каталога.
+ */
+@Component("likeMemory")
+public class InMemoryLikeStorage implements LikeStorage {
+    private static final int LOCK_STRIPES = 256;
+
+    private final Map<Long, FilmLikes> likes = new ConcurrentHashMap<>();
+    private final NavigableSet<Rank> ranking = new ConcurrentSkipListSet<>();
+    /**
+     * Роли перевёрнуты: перестановки разных фильмов идут параллельно под общей блокировкой чтения,
+     * а выборка первых N берёт исключительную. Обход skip-list слабо согласован и мог бы проскочить
+     * фильм между удалением старой записи и новой; под исключительной блокировкой перестановок
+     * в середине нет.
+     */
+    private final StampedLock rankingLock = new StampedLock();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        FilmLikes filmLikes = likes.computeIfAbsent(filmId, id -> new FilmLikes());
+        ReentrantLock lock = locks.lockFor(filmId);
+        lock.lock();
+        try {
+            if (!filmLikes.users.add(userId)) {
+                return false;
+            }
+            filmLikes.count = filmLikes.users.size();
+        } finally {
+            lock.unlock();
+        }
+        rerank(filmId, filmLikes);
+        return true;
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        FilmLikes filmLikes = likes.get(filmId);
+        if (filmLikes == null) {
+            return false;
+        }
+        ReentrantLock lock = locks.lockFor(filmId);
+        lock.lock();
+        try {
+            if (!filmLikes.users.remove(userId)) {
+                return false;
+            }
+            filmLikes.count = filmLikes.users.size();
+        } finally {
+            lock.unlock();
+        }
+        rerank(filmId, filmLikes);
+        return true;
+    }
+
+    @Override
+    public int countLikes(long filmId) {
+        FilmLikes filmLikes = likes.get(filmId);
+        return filmLikes == null ? 0 : filmLikes.count;
+    }
+
+    @Override
+    public List<Long> findTopFilmIds(int count) {
+        long stamp = rankingLock.writeLock();
+        try {
+            return ranking.stream()
+                    .map(Rank::filmId)
+                    .limit(count)
+                    .toList();
+        } finally {
+            rankingLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Лайки фильма копируются под его блокировкой и передаются после неё, чтобы медленный получатель
+     * не задерживал лайки.
+     */
+    @Override
+    public void forEachLike(LongPairConsumer action) {
+        likes.forEach((filmId, filmLikes) -> {
+            long[] users;
+            ReentrantLock lock = locks.lockFor(filmId);
+            lock.lock();
+            try {
+                users = filmLikes.users.toArray();
+            } finally {
+                lock.unlock();
+            }
+            for (long userId : users) {
+                action.accept(filmId, userId);
+            }
+        });
+    }
+
+    /**
+     * Переносит фильм в рейтинге на текущее число лайков. Переставляет один поток за раз: остальные
+     * только отмечают, что счётчик изменился, и не ждут, а переставляющий повторяет проход, пока
+     * отметки не кончатся. Поэтому рейтинг всегда догоняет последнее значение счётчика, и в нём
+     * не остаётся записи со старым числом лайков.
+     */
+    private void rerank(long filmId, FilmLikes filmLikes) {
+        if (filmLikes.pendingRanks.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            int count = filmLikes.count;
+            if (count != filmLikes.rankedCount) {
+                long stamp = rankingLock.readLock();
+                try {
+                    // новая запись добавляется раньше, чем удаляется старая: рейтинг ни на миг не остаётся без фильма
+                    if (count > 0) {
+                        ranking.add(new Rank(count, filmId));
+                    }
+                    if (filmLikes.rankedCount > 0) {
+                        ranking.remove(new Rank(filmLikes.rankedCount, filmId));
+                    }
+                } finally {
+                    rankingLock.unlockRead(stamp);
+                }
+                filmLikes.rankedCount = count;
+            }
+        } while (filmLikes.pendingRanks.decrementAndGet() != 0);
+    }
+
+    private static final class FilmLikes {
+        private final LongHashSet users = new LongHashSet();
+        /**
+         * Пишется под блокировкой фильма, читается без неё.
+         */
+        private volatile int count;
+        private final AtomicInteger pendingRanks = new AtomicInteger();
+        /**
+         * Число лайков, с которым фильм стоит в рейтинге; меняет только поток, переставляющий фильм.
+         */
+        private int rankedCount;
+    }
+
+    private record Rank(int likes, long filmId) implements Comparable<Rank> {
+
+        @Override
+        public int compareTo(Rank other) {
+            int byLikes = Integer.compare(other.likes, likes);
+            return byLikes != 0 ? byLikes : Long.compare(filmId, other.filmId);
+        }
+    }
+}
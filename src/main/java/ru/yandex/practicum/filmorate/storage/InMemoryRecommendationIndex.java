@@ -0,0 +1,359 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Рекомендации по общим лайкам в памяти. Лайки хранятся дважды без упаковки в {@code Long}: фильмы
+ * каждого пользователя — в {@link SortedLongSet}, пользователи каждого фильма — в растущем массиве.
+ *
+ * <p>Чтобы найти ближайших пользователей, обходятся лайкнувшие каждый фильм пользователя и для каждого
+ * из них считается число общих лайков; работа пропорциональна популярности этих фильмов, а не числу
+ * всех пользователей. Если записей для обхода много, фильмы делятся между задачами fork-join.
+ *
+ * <p>Найденные {@value #NEIGHBOURS} ближайших пользователей запоминаются и поддерживаются при новых лайках:
+ * лайк меняет число общих лайков только у пар с его автором, поэтому достаточно поправить запись автора
+ * в списках тех, кто лайкнул тот же фильм. Список самого автора и списки, из которых автор выбыл
+ * при снятии лайка, пересчитываются при следующем запросе.
+ */
+@Component
+public class InMemoryRecommendationIndex implements RecommendationIndex {
+    static final int NEIGHBOURS = 20;
+    /**
+     * Сколько записей о лайках обходит одна задача при параллельном подсчёте.
+     */
+    private static final int POSTINGS_PER_TASK = 1 << 14;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<Long, SortedLongSet> filmsByUser = new HashMap<>();
+    private final Map<Long, Likers> likersByFilm = new HashMap<>();
+    private final Map<Long, Neighbours> neighbours = new ConcurrentHashMap<>();
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        long stamp = lock.writeLock();
+        try {
+            SortedLongSet films = filmsByUser.getOrDefault(userId, SortedLongSet.EMPTY);
+            if (films.contains(filmId)) {
+                return;
+            }
+            SortedLongSet liked = films.with(filmId);
+            filmsByUser.put(userId, liked);
+            Likers likers = likersByFilm.computeIfAbsent(filmId, id -> new Likers());
+            neighbours.remove(userId);
+            if (!neighbours.isEmpty()) {
+                likers.forEach(other -> neighbours.computeIfPresent(other, (id, near) ->
+                        near.raised(userId, () -> liked.intersectionSize(filmsByUser.get(other)))));
+            }
+            likers.add(userId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void removeLike(long filmId, long userId) {
+        long stamp = lock.writeLock();
+        try {
+            SortedLongSet films = filmsByUser.get(userId);
+            if (films == null || !films.contains(filmId)) {
+                return;
+            }
+            SortedLongSet rest = films.without(filmId);
+            if (rest.isEmpty()) {
+                filmsByUser.remove(userId);
+            } else {
+                filmsByUser.put(userId, rest);
+            }
+            Likers likers = likersByFilm.get(filmId);
+            likers.remove(userId);
+            if (likers.size == 0) {
+                likersByFilm.remove(filmId);
+            }
+            neighbours.remove(userId);
+            if (!neighbours.isEmpty()) {
+                likers.forEach(other -> {
+                    Neighbours near = neighbours.get(other);
+                    if (near != null && near.indexOf(userId) >= 0) {
+                        neighbours.remove(other);
+                    }
+                });
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Long> recommend(long userId, int count) {
+        long stamp = lock.readLock();
+        try {
+            SortedLongSet liked = filmsByUser.get(userId);
+            if (liked == null) {
+                return List.of();
+            }
+            Neighbours near = neighbours.get(userId);
+            if (near == null) {
+                near = findNeighbours(userId, liked);
+                neighbours.put(userId, near);
+            }
+            Counts weights = new Counts(64);
+            for (int i = 0; i < near.ids.length; i++) {
+                int overlap = near.overlaps[i];
+                filmsByUser.get(near.ids[i]).forEach(filmId -> {
+                    if (!liked.contains(filmId)) {
+                        weights.add(filmId, overlap);
+                    }
+                });
+            }
+            Counts.Top top = weights.top(count);
+            List<Long> filmIds = new ArrayList<>(top.keys.length);
+            for (long filmId : top.keys) {
+                filmIds.add(filmId);
+            }
+            return filmIds;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Neighbours findNeighbours(long userId, SortedLongSet liked) {
+        Counts overlaps = new CountOverlaps(userId, liked.toArray(), 0, liked.size()).invoke();
+        Counts.Top top = overlaps.top(NEIGHBOURS);
+        return new Neighbours(top.keys, top.values);
+    }
+
+    /**
+     * Считает общие лайки с пользователем по фильмам {@code films[from, to)}. Вызывается под блокировкой
+     * чтения, поэтому задачи читают индекс без своих блокировок.
+     */
+    private final class CountOverlaps extends RecursiveTask<Counts> {
+        private final long userId;
+        private final long[] films;
+        private final int from;
+        private final int to;
+
+        CountOverlaps(long userId, long[] films, int from, int to) {
+            this.userId = userId;
+            this.films = films;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            long postings = 0;
+            for (int i = from; i < to; i++) {
+                postings += likersByFilm.get(films[i]).size;
+            }
+            if (to - from == 1 || postings <= POSTINGS_PER_TASK) {
+                Counts counts = new Counts((int) Math.min(postings, 1 << 16));
+                for (int i = from; i < to; i++) {
+                    likersByFilm.get(films[i]).forEach(other -> {
+                        if (other != userId) {
+                            counts.add(other, 1);
+                        }
+                    });
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountOverlaps left = new CountOverlaps(userId, films, from, middle);
+            left.fork();
+            Counts right = new CountOverlaps(userId, films, middle, to).compute();
+            return Counts.merge(left.join(), right);
+        }
+    }
+
+    /**
+     * Пользователи, лайкнувшие фильм, в порядке добавления; снятый лайк замещается последним.
+     */
+    private static final class Likers {
+        private long[] users = new long[4];
+        private int size;
+
+        void add(long userId) {
+            if (size == users.length) {
+                users = Arrays.copyOf(users, size * 2);
+            }
+            users[size++] = userId;
+        }
+
+        void remove(long userId) {
+            for (int i = 0; i < size; i++) {
+                if (users[i] == userId) {
+                    users[i] = users[--size];
+                    return;
+                }
+            }
+        }
+
+        void forEach(LongConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(users[i]);
+            }
+        }
+    }
+
+    /**
+     * Ближайшие пользователи от большего числа общих лайков к меньшему, при равенстве — по возрастанию id.
+     * Не изменяется: поправка создаёт новый список.
+     */
+    private record Neighbours(long[] ids, int[] overlaps) {
+
+        int indexOf(long userId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == userId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Список после того, как у пользователя {@code userId} стало на один общий лайк больше.
+         * Если его не было в списке, число общих лайков берётся из {@code overlap}.
+         */
+        Neighbours raised(long userId, IntSupplier overlap) {
+            int index = indexOf(userId);
+            int value;
+            long[] restIds;
+            int[] restOverlaps;
+            if (index >= 0) {
+                value = overlaps[index] + 1;
+                restIds = new long[ids.length - 1];
+                restOverlaps = new int[ids.length - 1];
+                System.arraycopy(ids, 0, restIds, 0, index);
+                System.arraycopy(ids, index + 1, restIds, index, ids.length - index - 1);
+                System.arraycopy(overlaps, 0, restOverlaps, 0, index);
+                System.arraycopy(overlaps, index + 1, restOverlaps, index, ids.length - index - 1);
+            } else {
+                value = overlap.getAsInt();
+                int last = ids.length - 1;
+                if (ids.length == NEIGHBOURS && !Counts.before(value, userId, overlaps[last], ids[last])) {
+                    return this;
+                }
+                restIds = ids.length == NEIGHBOURS ? Arrays.copyOf(ids, last) : ids;
+                restOverlaps = ids.length == NEIGHBOURS ? Arrays.copyOf(overlaps, last) : overlaps;
+            }
+            int at = 0;
+            while (at < restIds.length && Counts.before(restOverlaps[at], restIds[at], value, userId)) {
+                at++;
+            }
+            long[] newIds = new long[restIds.length + 1];
+            int[] newOverlaps = new int[restIds.length + 1];
+            System.arraycopy(restIds, 0, newIds, 0, at);
+            System.arraycopy(restOverlaps, 0, newOverlaps, 0, at);
+            newIds[at] = userId;
+            newOverlaps[at] = value;
+            System.arraycopy(restIds, at, newIds, at + 1, restIds.length - at);
+            System.arraycopy(restOverlaps, at, newOverlaps, at + 1, restIds.length - at);
+            return new Neighbours(newIds, newOverlaps);
+        }
+    }
+
+    /**
+     * Счётчики по id с открытой адресацией: {@code long} ключи и {@code int} значения без упаковки.
+     * Id начинаются с 1, поэтому 0 обозначает свободную ячейку.
+     */
+    private static final class Counts {
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        Counts(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+        void add(long key, int delta) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    values[slot] = delta;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] += delta;
+        }
+
+        static Counts merge(Counts left, Counts right) {
+            Counts into = left.size >= right.size ? left : right;
+            Counts from = into == left ? right : left;
+            for (int i = 0; i < from.keys.length; i++) {
+                if (from.keys[i] != 0) {
+                    into.add(from.keys[i], from.values[i]);
+                }
+            }
+            return into;
+        }
+
+        /**
+         * Не более {@code limit} ключей с наибольшими значениями, при равных значениях — по возрастанию ключа.
+         */
+        Top top(int limit) {
+            long[] topKeys = new long[Math.min(limit, size)];
+            int[] topValues = new int[topKeys.length];
+            int taken = 0;
+            for (int i = 0; i < keys.length && topKeys.length > 0; i++) {
+                long key = keys[i];
+                int value = values[i];
+                if (key == 0 || taken == topKeys.length
+                        && !before(value, key, topValues[taken - 1], topKeys[taken - 1])) {
+                    continue;
+                }
+                int at = taken < topKeys.length ? taken++ : taken - 1;
+                while (at > 0 && before(value, key, topValues[at - 1], topKeys[at - 1])) {
+                    topKeys[at] = topKeys[at - 1];
+                    topValues[at] = topValues[at - 1];
+                    at--;
+                }
+                topKeys[at] = key;
+                topValues[at] = value;
+            }
+            return new Top(topKeys, topValues);
+        }
+
+        static boolean before(int value, long key, int otherValue, long otherKey) {
+            return value > otherValue || value == otherValue && key < otherKey;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int mix(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        record Top(long[] keys, int[] values) {
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Хранилище пользователей в памяти. Id выдаются атомарным счётчиком, поэтому создание и обновление
+ * безопасны при одновременных запросах. Записи упорядочены по id, что позволяет
+ * отдавать страницы по курсору без сортировки всей коллекции.
+ */
+@Component("userMemory")
+@ConditionalOnExpression("'${filmorate.storage.mode:objects}' != 'off-heap'")
+public class InMemoryUserStorage implements UserStorage {
+    private final NavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    // size() у ConcurrentSkipListMap обходит всю карту, поэтому счётчик ведём отдельно
+    private final AtomicInteger size = new AtomicInteger();
+
+    @Override
+    public Collection<User> findAll() {
+        return users.values();
+    }
+
+    @Override
+    public Collection<User> findAllAfter(long afterId) {
+        return users.tailMap(afterId, false).values();
+    }
+
+    @Override
+    public Collection<User> findPage(long afterId, int limit) {
+        return findAllAfter(afterId).stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public User create(User user) {
+        user.setId(idSequence.incrementAndGet());
+        user.setVersion(1L);
+        users.put(user.getId(), user);
+        size.incrementAndGet();
+        return user;
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        long id = idSequence.getAndAdd(newUsers.size());
+        for (User user : newUsers) {
+            user.setId(++id);
+            user.setVersion(1L);
+            users.put(user.getId(), user);
+        }
+        size.addAndGet(newUsers.size());
+        return newUsers;
+    }
+
+    @Override
+    public void importAll(List<User> newUsers, List<User> changedUsers) {
+        createAll(newUsers);
+        changedUsers.forEach(this::update);
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        return replace(user, null);
+    }
+
+    @Override
+    public Optional<User> update(User user, long expectedVersion) {
+        return replace(user, expectedVersion);
+    }
+
+    @Override
+    public void restore(User user) {
+        if (user.getVersion() == null) {
+            user.setVersion(1L);
+        }
+        if (users.put(user.getId(), user) == null) {
+            size.incrementAndGet();
+        }
+        idSequence.accumulateAndGet(user.getId(), Math::max);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public long lastId() {
+        return idSequence.get();
+    }
+
+    /**
+     * Заменяет запись сравнением с обменом, без блокировок: обновления разных id не мешают друг другу,
+     * а при гонке за один id проигравший перечитывает текущую версию и повторяет попытку.
+     */
+    private Optional<User> replace(User user, Long expectedVersion) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        while (true) {
+            User current = users.get(user.getId());
+            if (current == null) {
+                return Optional.empty();
+            }
+            long version = current.getVersion();
+            if (expectedVersion != null && version != expectedVersion) {
+                throw new VersionConflictException(String.format(
+                        "Пользователь с id %d уже изменён: версия %d, ожидалась %d",
+                        user.getId(), version, expectedVersion));
+            }
+            user.setVersion(version + 1);
+            if (users.replace(user.getId(), current, user)) {
+                return Optional.of(user);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+public interface LikeStorage {
+
+    /**
+     * Возвращает false, если пользователь уже ставил лайк этому фильму.
+     */
+    boolean addLike(long filmId, long userId);
+
+    /**
+     * Возвращает false, если лайка не было.
+     */
+    boolean removeLike(long filmId, long userId);
+
+    int countLikes(long filmId);
+
+    /**
+     * Возвращает id не более {@code count} фильмов, у которых есть хотя бы один лайк,
+     * от самого популярного к менее популярным. Фильмы с равным числом лайков идут по возрастанию id.
+     */
+    List<Long> findTopFilmIds(int count);
+
+    /**
+     * Передаёт все лайки парами (id фильма, id пользователя), например для снимка на диске.
+     * Лайки, поставленные или снятые во время обхода, могут как попасть в него, так и нет.
+     */
+    void forEachLike(LongPairConsumer action);
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Изменяемое множество {@code long} с открытой адресацией: значения лежат прямо в массиве, без
+ * упаковки в {@code Long} и без узла на каждый элемент. Удаление сдвигает следующие элементы цепочки
+ * назад, поэтому меток удаления нет и поиск не замедляется со временем. Не потокобезопасно:
+ * изменения и чтения выполняются под внешней блокировкой.
+ */
+final class LongHashSet {
+    private static final int INITIAL_CAPACITY = 4;
+    /**
+     * Метка пустой ячейки; само значение 0 хранится отдельным флагом.
+     */
+    private static final long FREE = 0;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean containsFree;
+
+    boolean add(long value) {
+        if (value == FREE) {
+            if (containsFree) {
+                return false;
+            }
+            containsFree = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) * 4L > table.length * 3L) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        for (int i = slot(value, mask); ; i = (i + 1) & mask) {
+            if (table[i] == FREE) {
+                table[i] = value;
+                size++;
+                return true;
+            }
+            if (table[i] == value) {
+                return false;
+            }
+        }
+    }
+
+    boolean remove(long value) {
+        if (value == FREE) {
+            if (!containsFree) {
+                return false;
+            }
+            containsFree = false;
+            size--;
+            return true;
+        }
+        int mask = table.length - 1;
+        int gap = slot(value, mask);
+        while (table[gap] != value) {
+            if (table[gap] == FREE) {
+                return false;
+            }
+            gap = (gap + 1) & mask;
+        }
+        // элемент цепочки переносится в освободившуюся ячейку, если она не раньше его исходной ячейки
+        for (int i = (gap + 1) & mask; table[i] != FREE; i = (i + 1) & mask) {
+            int home = slot(table[i], mask);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                table[gap] = table[i];
+                gap = i;
+            }
+        }
+        table[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        long[] values = new long[size];
+        int next = 0;
+        if (containsFree) {
+            values[next++] = FREE;
+        }
+        for (long value : table) {
+            if (value != FREE) {
+                values[next++] = value;
+            }
+        }
+        return values;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != FREE) {
+                int i = slot(value, mask);
+                while (table[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = value;
+            }
+        }
+    }
+
+    private static int slot(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Получатель пары id без упаковки в {@code Long}, например фильма и поставившего лайк пользователя.
+ */
+@FunctionalInterface
+public interface LongPairConsumer {
+
+    void accept(long first, long second);
+}
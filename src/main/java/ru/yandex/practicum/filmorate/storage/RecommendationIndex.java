@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+
+public interface RecommendationIndex {
+
+    /**
+     * Учитывает лайк; повторный лайк того же фильма ничего не меняет.
+     */
+    void addLike(long filmId, long userId);
+
+    void removeLike(long filmId, long userId);
+
+    /**
+     * Возвращает id не более {@code count} фильмов, которые лайкнули пользователи с наибольшим числом
+     * общих лайков, а сам пользователь — нет. Вес фильма — сумма общих лайков тех, кто его лайкнул;
+     * фильмы идут от большего веса к меньшему, при равном весе — по возрастанию id.
+     */
+    List<Long> recommend(long userId, int count);
+}
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Неизменяемое множество id в отсортированном массиве {@code long[]}: 8 байт на элемент без
+ * упаковки в {@code Long}. Изменение создаёт новый экземпляр, поэтому читать множество можно без
+ * блокировок. Пересечение двух множеств — линейное слияние массивов.
+ */
+public final class SortedLongSet {
+    public static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+
+    private final long[] values;
+
+    private SortedLongSet(long[] values) {
+        this.values = values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public boolean contains(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public SortedLongSet with(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return new SortedLongSet(result);
+    }
+
+    public SortedLongSet without(long value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return this;
+        }
+        if (values.length == 1) {
+            return EMPTY;
+        }
+        long[] result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return new SortedLongSet(result);
+    }
+
+    public long[] toArray() {
+        return values.clone();
+    }
+
+    /**
+     * Обход по возрастанию без копии массива; нужен индексу рекомендаций для перебора лайков.
+     */
+    public void forEach(LongConsumer action) {
+        for (long value : values) {
+            action.accept(value);
+        }
+    }
+
+    public long[] intersect(SortedLongSet other) {
+        long[] result = new long[Math.min(values.length, other.values.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values.length && j < other.values.length) {
+            long left = values[i];
+            long right = other.values[j];
+            if (left < right) {
+                i++;
+            } else if (left > right) {
+                j++;
+            } else {
+                result[size++] = left;
+                i++;
+                j++;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Размер пересечения без его построения: индекс рекомендаций считает им общие лайки двух пользователей.
+     */
+    public int intersectionSize(SortedLongSet other) {
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values.length && j < other.values.length) {
+            long left = values[i];
+            long right = other.values[j];
+            if (left < right) {
+                i++;
+            } else if (left > right) {
+                j++;
+            } else {
+                size++;
+                i++;
+                j++;
+            }
+        }
+        return size;
+    }
+}
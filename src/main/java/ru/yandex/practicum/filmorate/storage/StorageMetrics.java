@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Размеры хранилищ и число выданных id. Значения читаются при каждом снятии метрик,
+ * поэтому на запись в хранилище метрики ничего не добавляют.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.storage.size", filmStorage, FilmStorage::size)
+                .tag("entity", "film")
+                .description("Число записей в хранилище")
+                .register(registry);
+        Gauge.builder("filmorate.storage.size", userStorage, UserStorage::size)
+                .tag("entity", "user")
+                .description("Число записей в хранилище")
+                .register(registry);
+        FunctionCounter.builder("filmorate.storage.ids.allocated", filmStorage, FilmStorage::lastId)
+                .tag("entity", "film")
+                .description("Число выданных id")
+                .register(registry);
+        FunctionCounter.builder("filmorate.storage.ids.allocated", userStorage, UserStorage::lastId)
+                .tag("entity", "user")
+                .description("Число выданных id")
+                .register(registry);
+    }
+}
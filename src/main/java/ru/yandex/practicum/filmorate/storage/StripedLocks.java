@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Фиксированный набор блокировок, между которыми распределяются id: изменения разных id обычно
+ * берут разные блокировки и не ждут друг друга, а память не растёт с числом id. Не {@code synchronized},
+ * чтобы ожидание не закрепляло виртуальный поток за носителем.
+ */
+final class StripedLocks {
+    private final ReentrantLock[] locks;
+
+    /**
+     * @param stripes число блокировок, степень двойки
+     */
+    StripedLocks(int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Число блокировок должно быть степенью двойки: " + stripes);
+        }
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Блокировка, которой защищён {@code id}; для участков, которым нужно вернуть результат.
+     */
+    ReentrantLock lockFor(long id) {
+        return locks[stripe(id)];
+    }
+
+    /**
+     * Выполняет {@code action} под блокировкой {@code id}.
+     */
+    void run(long id, Runnable action) {
+        ReentrantLock lock = locks[stripe(id)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Выполняет {@code action} под блокировками обоих id. Блокировки берутся по возрастанию номера,
+     * поэтому встречные изменения одной пары не взаимоблокируются.
+     */
+    void run(long first, long second, Runnable action) {
+        int a = stripe(first);
+        int b = stripe(second);
+        if (a == b) {
+            run(first, action);
+            return;
+        }
+        ReentrantLock lower = locks[Math.min(a, b)];
+        ReentrantLock upper = locks[Math.max(a, b)];
+        lower.lock();
+        try {
+            upper.lock();
+            try {
+                action.run();
+            } finally {
+                upper.unlock();
+            }
+        } finally {
+            lower.unlock();
+        }
+    }
+
+    private int stripe(long id) {
+        int hash = Long.hashCode(id);
+        return (hash ^ (hash >>> 16)) & (locks.length - 1);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserStorage {
+
+    /**
+     * Возвращает представление всех записей в порядке возрастания id без копирования.
+     */
+    Collection<User> findAll();
+
+    /**
+     * Возвращает представление записей с id строго больше {@code afterId} без копирования.
+     */
+    Collection<User> findAllAfter(long afterId);
+
+    /**
+     * Возвращает не более {@code limit} записей с id строго больше {@code afterId}.
+     */
+    Collection<User> findPage(long afterId, int limit);
+
+    Optional<User> findById(long id);
+
+    /**
+     * Присваивает пользователю новый id и версию 1, затем сохраняет его.
+     */
+    User create(User user);
+
+    /**
+     * Присваивает пользователям сплошной диапазон новых id и версию 1, затем сохраняет их.
+     */
+    List<User> createAll(List<User> newUsers);
+
+    /**
+     * Пакетная загрузка: создаёт {@code newUsers}, как {@link #createAll}, и обновляет {@code changedUsers},
+     * как {@link #update(User)}. Пользователи из {@code changedUsers} должны существовать.
+     * Если изменение не удалось сохранить, не применяется ни один элемент пакета.
+     */
+    void importAll(List<User> newUsers, List<User> changedUsers);
+
+    /**
+     * Заменяет существующего пользователя и присваивает ему следующую версию.
+     * Возвращает пустой Optional, если пользователя с таким id нет.
+     */
+    Optional<User> update(User user);
+
+    /**
+     * Как {@link #update(User)}, но заменяет пользователя, только если его текущая версия равна
+     * {@code expectedVersion}. Проверка и замена выполняются атомарно.
+     *
+     * @throws VersionConflictException если пользователь уже изменён
+     */
+    Optional<User> update(User user, long expectedVersion);
+
+    /**
+     * Кладёт пользователя с уже известным id, например при восстановлении с диска.
+     * Счётчик id сдвигается так, чтобы новые записи не получили занятый id. Версия сохраняется;
+     * у записей, сохранённых до появления версий, она считается первой.
+     */
+    void restore(User user);
+
+    int size();
+
+    /**
+     * Последний выданный id; растёт с каждым созданием и не уменьшается.
+     */
+    long lastId();
+}
@@ -0,0 +1,399 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений одного типа сущностей на локальном диске.
+ *
+ * <p>Каждая запись — полное состояние сущности в JSON, перед которым идут длина и CRC32.
+ * Изменения дописываются в конец активного файла {@code <name>-<n>.log}. Снимок
+ * {@code <name>.snapshot} имеет тот же формат и содержит всё состояние на момент записи;
+ * после его создания покрытые им журналы удаляются. При старте снимок и журналы читаются
+ * через отображённые в память файлы, повреждённый хвост последнего журнала отрезается.
+ *
+ * <p>Пакет из нескольких записей начинается с заголовка, в котором вместо длины стоит минус число
+ * записей, а вместо CRC32 — его инверсия. Пакет читается, только если дописан целиком, поэтому после
+ * сбоя он восстанавливается весь или не восстанавливается вовсе.
+ */
+@Slf4j
+public class EntityJournal<T> implements Closeable {
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final String name;
+    private final Pattern logFilePattern;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final boolean fsync;
+    /**
+     * Не {@code synchronized}: запись на диск под монитором закрепила бы виртуальный поток за носителем.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder contendedWrites = new LongAdder();
+
+    private FileChannel activeLog;
+    private long activeLogNumber;
+    private long recordsSinceSnapshot;
+
+    public EntityJournal(Path directory, String name, Class<T> type, ObjectMapper objectMapper, boolean fsync) {
+        this.directory = directory;
+        this.name = name;
+        this.logFilePattern = Pattern.compile(Pattern.quote(name) + "-(\\d+)\\.log");
+        this.reader = objectMapper.readerFor(type);
+        this.writer = objectMapper.writerFor(type);
+        this.fsync = fsync;
+    }
+
+    /**
+     * Читает снимок и все журналы, передавая записи в порядке их появления, и открывает
+     * журнал на запись. Возвращает число прочитанных записей.
+     */
+    public long replay(Consumer<T> consumer) throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(snapshotTmpFile());
+
+        long records = 0;
+        Path snapshot = snapshotFile();
+        if (Files.exists(snapshot)) {
+            records += replayFile(snapshot, consumer).records();
+        }
+
+        List<Long> logNumbers = logNumbers();
+        for (int i = 0; i < logNumbers.size(); i++) {
+            Path logFile = logFile(logNumbers.get(i));
+            ReplayResult result = replayFile(logFile, consumer);
+            records += result.records();
+            recordsSinceSnapshot += result.records();
+            if (result.validBytes() < Files.size(logFile)) {
+                log.warn("Журнал {} повреждён после {} байт, остаток отброшен", logFile, result.validBytes());
+                if (i == logNumbers.size() - 1) {
+                    try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                        channel.truncate(result.validBytes());
+                    }
+                }
+            }
+        }
+
+        activeLogNumber = logNumbers.isEmpty() ? 1 : logNumbers.getLast();
+        activeLog = openForAppend(logFile(activeLogNumber));
+        return records;
+    }
+
+    /**
+     * Дописывает изменение в журнал и только после успешной записи применяет его к памяти.
+     * {@code prepare} вычисляет итоговое состояние сущности, не меняя память, а {@code apply}
+     * применяет его и возвращает сохранённую сущность. Оба вызова идут под блокировкой журнала,
+     * поэтому порядок записей в журнале совпадает с порядком изменений в памяти.
+     * Если {@code prepare} вернул {@code null}, журнал и память не трогаются. Если запись не удалась,
+     * память остаётся прежней, а недописанная запись отрезается от журнала.
+     */
+    public T record(Supplier<T> prepare, UnaryOperator<T> apply) {
+        acquire();
+        try {
+            T entity = prepare.get();
+            if (entity == null) {
+                return null;
+            }
+            append(List.of(entity));
+            return apply.apply(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Пакетный вариант {@link #record}: все записи дописываются одним пакетом под одной блокировкой
+     * и сбрасываются на диск одним вызовом. При сбое записи не применяется ни одна из них, а после
+     * падения процесса пакет восстанавливается только целиком.
+     */
+    public List<T> recordAll(Supplier<List<T>> prepare, UnaryOperator<List<T>> apply) {
+        acquire();
+        try {
+            List<T> entities = prepare.get();
+            append(entities);
+            return apply.apply(entities);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет снимок состояния и удаляет журналы, которые он покрывает.
+     * Запись в журнал блокируется только на время переключения активного файла.
+     */
+    public void snapshot(Iterable<T> state) throws IOException {
+        long coveredLogNumber;
+        lock.lock();
+        try {
+            if (recordsSinceSnapshot == 0) {
+                return;
+            }
+            coveredLogNumber = activeLogNumber;
+            if (activeLog != null) {
+                activeLog.close();
+            }
+            activeLogNumber++;
+            activeLog = openForAppend(logFile(activeLogNumber));
+            recordsSinceSnapshot = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        Path tmp = snapshotTmpFile();
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (T entity : state) {
+                writeRecord(channel, entity);
+                records++;
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, snapshotFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long number : logNumbers()) {
+            if (number <= coveredLogNumber) {
+                Files.deleteIfExists(logFile(number));
+            }
+        }
+        log.info("Снимок {} сохранён: {} записей", name, records);
+    }
+
+    /**
+     * Сколько записей в журнал ждали, пока блокировку отпустит другой писатель.
+     */
+    public long contendedWrites() {
+        return contendedWrites.sum();
+    }
+
+    /**
+     * Оценка числа потоков, ожидающих блокировку журнала прямо сейчас.
+     */
+    public int queuedWriters() {
+        return lock.getQueueLength();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (activeLog != null) {
+                activeLog.close();
+                activeLog = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        if (!lock.tryLock()) {
+            contendedWrites.increment();
+            lock.lock();
+        }
+    }
+
+    private void append(List<T> entities) {
+        if (activeLog == null) {
+            throw new IllegalStateException("Журнал " + name + " закрыт");
+        }
+        long start = -1;
+        try {
+            start = activeLog.size();
+            if (entities.size() > 1) {
+                writeBatchHeader(activeLog, entities.size());
+            }
+            for (T entity : entities) {
+                writeRecord(activeLog, entity);
+            }
+            if (fsync) {
+                activeLog.force(false);
+            }
+            recordsSinceSnapshot += entities.size();
+        } catch (IOException e) {
+            UncheckedIOException failure = new UncheckedIOException("Не удалось записать изменение в журнал " + name, e);
+            discardTail(start, failure);
+            throw failure;
+        }
+    }
+
+    /**
+     * Отрезает от журнала то, что успело записаться при сбое: иначе следующие записи легли бы
+     * за повреждённой и при чтении были бы отброшены вместе с ней. Если отрезать не удалось,
+     * журнал закрывается, чтобы последующие изменения не подтверждались без записи на диск.
+     */
+    private void discardTail(long start, UncheckedIOException failure) {
+        try {
+            if (start >= 0) {
+                activeLog.truncate(start);
+                return;
+            }
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        log.error("Журнал {} закрыт: не удалось отрезать недописанную запись", name);
+        try {
+            activeLog.close();
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+        activeLog = null;
+    }
+
+    private void writeRecord(FileChannel channel, T entity) throws IOException {
+        byte[] payload = writer.writeValueAsBytes(entity);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeBatchHeader(FileChannel channel, int records) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(-records)
+                .putInt(~-records)
+                .flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Записи пакета копятся в {@code batch} и передаются дальше, только когда пакет прочитан целиком.
+     * Недочитанный пакет считается повреждённым хвостом с позиции своего заголовка.
+     */
+    private ReplayResult replayFile(Path file, Consumer<T> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long records = 0;
+            long batchStart = 0;
+            int batchRemaining = 0;
+            List<T> batch = new ArrayList<>();
+            long windowStart = 0;
+            MappedByteBuffer window = null;
+            CRC32 crc = new CRC32();
+
+            while (position + HEADER_BYTES <= size) {
+                if (window == null || position + HEADER_BYTES > windowStart + window.limit()) {
+                    windowStart = position;
+                    window = map(channel, windowStart, size);
+                }
+                int offset = (int) (position - windowStart);
+                int length = window.getInt(offset);
+                int checksum = window.getInt(offset + Integer.BYTES);
+                if (length < 0 && batchRemaining == 0 && length != Integer.MIN_VALUE && checksum == ~length) {
+                    batchStart = position;
+                    batchRemaining = -length;
+                    position += HEADER_BYTES;
+                    continue;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                if (offset + HEADER_BYTES + length > window.limit()) {
+                    windowStart = position;
+                    window = map(channel, windowStart, size);
+                    offset = 0;
+                }
+
+                ByteBuffer payload = window.slice(offset + HEADER_BYTES, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                T entity = reader.readValue(new ByteBufferBackedInputStream(payload));
+                position += HEADER_BYTES + length;
+                if (batchRemaining == 0) {
+                    consumer.accept(entity);
+                    records++;
+                    continue;
+                }
+                batch.add(entity);
+                if (--batchRemaining == 0) {
+                    batch.forEach(consumer);
+                    records += batch.size();
+                    batch.clear();
+                }
+            }
+            return new ReplayResult(records, batchRemaining > 0 ? batchStart : position);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_BYTES, size - position));
+    }
+
+    /**
+     * Открывает журнал на дозапись. Тесты подменяют канал, чтобы проверить поведение при сбое записи.
+     */
+    protected FileChannel openForAppend(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Long> logNumbers() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = logFilePattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        numbers.sort(Comparator.naturalOrder());
+        return numbers;
+    }
+
+    private Path logFile(long number) {
+        return directory.resolve(name + "-" + number + ".log");
+    }
+
+    private Path snapshotFile() {
+        return directory.resolve(name + ".snapshot");
+    }
+
+    private Path snapshotTmpFile() {
+        return directory.resolve(name + ".snapshot.tmp");
+    }
+
+    private record ReplayResult(long records, long validBytes) {
+    }
+}
@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.io.IOException;
+
+/**
+ * Включает хранение данных на диске при {@code filmorate.persistence.enabled=true}: фильмов,
+ * пользователей, лайков и дружбы. Данные восстанавливаются из снимков и журналов до того, как
+ * приложение начнёт принимать запросы; лайки и дружба — после фильмов и пользователей.
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(PersistenceProperties.class)
+@ConditionalOnProperty(prefix = "filmorate.persistence", name = "enabled", havingValue = "true")
+public class JournalConfig {
+    private final FilmStorage filmMemory;
+    private final UserStorage userMemory;
+    private final LikeStorage likeMemory;
+    private final FriendStorage friendMemory;
+    private final EntityJournal<Film> filmJournal;
+    private final EntityJournal<User> userJournal;
+    private final EntityJournal<Link> likeJournal;
+    private final EntityJournal<Link> friendJournal;
+
+    public JournalConfig(@Qualifier("filmMemory") FilmStorage filmMemory,
+                         @Qualifier("userMemory") UserStorage userMemory,
+                         @Qualifier("likeMemory") LikeStorage likeMemory,
+                         @Qualifier("friendMemory") FriendStorage friendMemory,
+                         ObjectMapper objectMapper, PersistenceProperties properties) throws IOException {
+        this.filmMemory = filmMemory;
+        this.userMemory = userMemory;
+        this.likeMemory = likeMemory;
+        this.friendMemory = friendMemory;
+        this.filmJournal = new EntityJournal<>(properties.getDirectory(), "films", Film.class,
+                objectMapper, properties.isFsync());
+        this.userJournal = new EntityJournal<>(properties.getDirectory(), "users", User.class,
+                objectMapper, properties.isFsync());
+        this.likeJournal = new EntityJournal<>(properties.getDirectory(), "likes", Link.class,
+                objectMapper, properties.isFsync());
+        this.friendJournal = new EntityJournal<>(properties.getDirectory(), "friends", Link.class,
+                objectMapper, properties.isFsync());
+
+        long started = System.nanoTime();
+        long films = filmJournal.replay(filmMemory::restore);
+        long users = userJournal.replay(userMemory::restore);
+        long likes = likeJournal.replay(link -> JournaledLikeStorage.restore(likeMemory, link));
+        long friends = friendJournal.replay(link -> JournaledFriendStorage.restore(friendMemory, link));
+        log.info("Восстановлено записей: фильмы {}, пользователи {}, лайки {}, дружба {} за {} мс",
+                films, users, likes, friends, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Bean
+    @Primary
+    public JournaledFilmStorage journaledFilmStorage() {
+        return new JournaledFilmStorage(filmMemory, filmJournal);
+    }
+
+    @Bean
+    @Primary
+    public JournaledUserStorage journaledUserStorage() {
+        return new JournaledUserStorage(userMemory, userJournal);
+    }
+
+    @Bean
+    @Primary
+    public JournaledLikeStorage journaledLikeStorage() {
+        return new JournaledLikeStorage(likeMemory, likeJournal);
+    }
+
+    @Bean
+    @Primary
+    public JournaledFriendStorage journaledFriendStorage() {
+        return new JournaledFriendStorage(friendMemory, friendJournal);
+    }
+
+    /**
+     * Конкуренция за запись в журналы: в памяти id выдаются без блокировок, поэтому
+     * писатели ждут друг друга только здесь.
+     */
+    @Bean
+    public MeterBinder journalMetrics() {
+        return registry -> {
+            bind(registry, "films", filmJournal);
+            bind(registry, "users", userJournal);
+            bind(registry, "likes", likeJournal);
+            bind(registry, "friends", friendJournal);
+        };
+    }
+
+    private static void bind(MeterRegistry registry, String name, EntityJournal<?> journal) {
+        FunctionCounter.builder("filmorate.journal.writes.contended", journal, EntityJournal::contendedWrites)
+                .tag("journal", name)
+                .description("Записи, ожидавшие блокировку журнала")
+                .register(registry);
+        Gauge.builder("filmorate.journal.writers.waiting", journal, EntityJournal::queuedWriters)
+                .tag("journal", name)
+                .description("Потоки, ожидающие блокировку журнала")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.persistence.snapshot-interval:PT10M}",
+            initialDelayString = "${filmorate.persistence.snapshot-interval:PT10M}")
+    public void snapshot() throws IOException {
+        filmJournal.snapshot(filmMemory.findAll());
+        userJournal.snapshot(userMemory.findAll());
+        likeJournal.snapshot(JournaledLikeStorage.links(likeMemory));
+        friendJournal.snapshot(JournaledFriendStorage.links(friendMemory));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        snapshot();
+        filmJournal.close();
+        userJournal.close();
+        likeJournal.close();
+        friendJournal.close();
+    }
+}
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Хранилище фильмов в памяти, каждое изменение которого записывается в журнал на диске.
+ *
+ * <p>Изменение сначала записывается в журнал и только потом применяется к памяти, поэтому сбой записи
+ * не оставляет в памяти изменений, которых нет на диске. Id и версия вычисляются заранее: под
+ * блокировкой журнала других писателей нет, и хранилище в памяти присвоит ровно те же значения.
+ */
+@RequiredArgsConstructor
+public class JournaledFilmStorage implements FilmStorage {
+    private final FilmStorage memory;
+    private final EntityJournal<Film> journal;
+
+    @Override
+    public Collection<Film> findAll() {
+        return memory.findAll();
+    }
+
+    @Override
+    public Collection<Film> findAllAfter(long afterId) {
+        return memory.findAllAfter(afterId);
+    }
+
+    @Override
+    public Collection<Film> findPage(long afterId, int limit) {
+        return memory.findPage(afterId, limit);
+    }
+
+    @Override
+    public Optional<Film> findById(long id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public Film create(Film film) {
+        return journal.record(() -> {
+            film.setId(memory.lastId() + 1);
+            film.setVersion(1L);
+            return film;
+        }, memory::create);
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        importAll(newFilms, List.of());
+        return newFilms;
+    }
+
+    /**
+     * Весь пакет уходит в журнал одной пакетной записью: после сбоя он восстанавливается целиком
+     * или не восстанавливается вовсе. Если один id обновляется в пакете несколько раз, каждое
+     * обновление получает следующую версию, как при последовательных вызовах {@link #update(Film)}.
+     */
+    @Override
+    public void importAll(List<Film> newFilms, List<Film> changedFilms) {
+        journal.recordAll(() -> {
+            List<Film> records = new ArrayList<>(newFilms.size() + changedFilms.size());
+            long id = memory.lastId();
+            for (Film film : newFilms) {
+                film.setId(++id);
+                film.setVersion(1L);
+                records.add(film);
+            }
+            Map<Long, Long> versions = new HashMap<>();
+            for (Film film : changedFilms) {
+                long version = versions.computeIfAbsent(film.getId(), this::currentVersion) + 1;
+                versions.put(film.getId(), version);
+                film.setVersion(version);
+                records.add(film);
+            }
+            return records;
+        }, records -> {
+            memory.importAll(newFilms, changedFilms);
+            return records;
+        });
+    }
+
+    @Override
+    public Optional<Film> update(Film film) {
+        return Optional.ofNullable(journal.record(() -> nextVersion(film, null),
+                prepared -> memory.update(prepared).orElseThrow()));
+    }
+
+    @Override
+    public Optional<Film> update(Film film, long expectedVersion) {
+        return Optional.ofNullable(journal.record(() -> nextVersion(film, expectedVersion),
+                prepared -> memory.update(prepared, expectedVersion).orElseThrow()));
+    }
+
+    /**
+     * Восстановленные записи уже есть на диске, поэтому в журнал не пишутся.
+     */
+    @Override
+    public void restore(Film film) {
+        memory.restore(film);
+    }
+
+    @Override
+    public int size() {
+        return memory.size();
+    }
+
+    @Override
+    public long lastId() {
+        return memory.lastId();
+    }
+
+    private long currentVersion(long id) {
+        return memory.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Фильм с id %d не найден", id)))
+                .getVersion();
+    }
+
+    /**
+     * Проставляет версию, которую присвоит обновление, или возвращает {@code null}, если записи нет.
+     */
+    private Film nextVersion(Film film, Long expectedVersion) {
+        if (film.getId() == null) {
+            return null;
+        }
+        Optional<Film> current = memory.findById(film.getId());
+        if (current.isEmpty()) {
+            return null;
+        }
+        long version = current.get().getVersion();
+        if (expectedVersion != null && version != expectedVersion) {
+            throw new VersionConflictException(String.format(
+                    "Фильм с id %d уже изменён: версия %d, ожидалась %d",
+                    film.getId(), version, expectedVersion));
+        }
+        film.setVersion(version + 1);
+        return film;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.storage.FriendStorage;
+import ru.yandex.practicum.filmorate.storage.LongPairConsumer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Дружба в памяти, каждое изменение которой сначала записывается в журнал на диске.
+ * Одна запись описывает обе стороны дружбы.
+ */
+@RequiredArgsConstructor
+public class JournaledFriendStorage implements FriendStorage {
+    private final FriendStorage memory;
+    private final EntityJournal<Link> journal;
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        journal.record(() -> new Link(userId, friendId, true), link -> {
+            memory.addFriend(userId, friendId);
+            return link;
+        });
+    }
+
+    @Override
+    public void removeFriend(long userId, long friendId) {
+        journal.record(() -> new Link(userId, friendId, false), link -> {
+            memory.removeFriend(userId, friendId);
+            return link;
+        });
+    }
+
+    @Override
+    public long[] findFriendIds(long userId) {
+        return memory.findFriendIds(userId);
+    }
+
+    @Override
+    public long[] findCommonFriendIds(long userId, long otherId) {
+        return memory.findCommonFriendIds(userId, otherId);
+    }
+
+    @Override
+    public void forEachFriendship(LongPairConsumer action) {
+        memory.forEachFriendship(action);
+    }
+
+    /**
+     * Вся дружба как записи для снимка журнала, по одной на пару.
+     */
+    public static List<Link> links(FriendStorage memory) {
+        List<Link> links = new ArrayList<>();
+        memory.forEachFriendship((userId, friendId) -> links.add(new Link(userId, friendId, true)));
+        return links;
+    }
+
+    /**
+     * Применяет запись журнала к дружбе в памяти при восстановлении.
+     */
+    public static void restore(FriendStorage memory, Link link) {
+        if (link.linked()) {
+            memory.addFriend(link.from(), link.to());
+        } else {
+            memory.removeFriend(link.from(), link.to());
+        }
+    }
+}
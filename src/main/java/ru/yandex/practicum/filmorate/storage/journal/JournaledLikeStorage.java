@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.storage.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.LongPairConsumer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Лайки в памяти, каждое изменение которых сначала записывается в журнал на диске. Лайк, который
+ * уже стоял, тоже попадает в журнал: запись идемпотентна, а проверять наличие лайка до записи
+ * пришлось бы под той же блокировкой журнала.
+ */
+@RequiredArgsConstructor
+public class JournaledLikeStorage implements LikeStorage {
+    private final LikeStorage memory;
+    private final EntityJournal<Link> journal;
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return journal.record(() -> new Link(filmId, userId, true),
+                link -> memory.addLike(filmId, userId) ? link : null) != null;
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return journal.record(() -> new Link(filmId, userId, false),
+                link -> memory.removeLike(filmId, userId) ? link : null) != null;
+    }
+
+    @Override
+    public int countLikes(long filmId) {
+        return memory.countLikes(filmId);
+    }
+
+    @Override
+    public List<Long> findTopFilmIds(int count) {
+        return memory.findTopFilmIds(count);
+    }
+
+    @Override
+    public void forEachLike(LongPairConsumer action) {
+        memory.forEachLike(action);
+    }
+
+    /**
+     * Все лайки как записи для снимка журнала.
+     */
+    public static List<Link> links(LikeStorage memory) {
+        List<Link> links = new ArrayList<>();
+        memory.forEachLike((filmId, userId) -> links.add(new Link(filmId, userId, true)));
+        return links;
+    }
+
+    /**
+     * Применяет запись журнала к лайкам в памяти при восстановлении.
+     */
+    public static void restore(LikeStorage memory, Link link) {
+        if (link.linked()) {
+            memory.addLike(link.from(), link.to());
+        } else {
+            memory.removeLike(link.from(), link.to());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Хранилище пользователей в памяти, каждое изменение которого записывается в журнал на диске.
+ *
+ * <p>Изменение сначала записывается в журнал и только потом применяется к памяти, поэтому сбой записи
+ * не оставляет в памяти изменений, которых нет на диске. Id и версия вычисляются заранее: под
+ * блокировкой журнала других писателей нет, и хранилище в памяти присвоит ровно те же значения.
+ */
+@RequiredArgsConstructor
+public class JournaledUserStorage implements UserStorage {
+    private final UserStorage memory;
+    private final EntityJournal<User> journal;
+
+    @Override
+    public Collection<User> findAll() {
+        return memory.findAll();
+    }
+
+    @Override
+    public Collection<User> findAllAfter(long afterId) {
+        return memory.findAllAfter(afterId);
+    }
+
+    @Override
+    public Collection<User> findPage(long afterId, int limit) {
+        return memory.findPage(afterId, limit);
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return memory.findById(id);
+    }
+
+    @Override
+    public User create(User user) {
+        return journal.record(() -> {
+            user.setId(memory.lastId() + 1);
+            user.setVersion(1L);
+            return user;
+        }, memory::create);
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        importAll(newUsers, List.of());
+        return newUsers;
+    }
+
+    /**
+     * Весь пакет уходит в журнал одной пакетной записью: после сбоя он восстанавливается целиком
+     * или не восстанавливается вовсе. Если один id обновляется в пакете несколько раз, каждое
+     * обновление получает следующую версию, как при последовательных вызовах {@link #update(User)}.
+     */
+    @Override
+    public void importAll(List<User> newUsers, List<User> changedUsers) {
+        journal.recordAll(() -> {
+            List<User> records = new ArrayList<>(newUsers.size() + changedUsers.size());
+            long id = memory.lastId();
+            for (User user : newUsers) {
+                user.setId(++id);
+                user.setVersion(1L);
+                records.add(user);
+            }
+            Map<Long, Long> versions = new HashMap<>();
+            for (User user : changedUsers) {
+                long version = versions.computeIfAbsent(user.getId(), this::currentVersion) + 1;
+                versions.put(user.getId(), version);
+                user.setVersion(version);
+                records.add(user);
+            }
+            return records;
+        }, records -> {
+            memory.importAll(newUsers, changedUsers);
+            return records;
+        });
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        return Optional.ofNullable(journal.record(() -> nextVersion(user, null),
+                prepared -> memory.update(prepared).orElseThrow()));
+    }
+
+    @Override
+    public Optional<User> update(User user, long expectedVersion) {
+        return Optional.ofNullable(journal.record(() -> nextVersion(user, expectedVersion),
+                prepared -> memory.update(prepared, expectedVersion).orElseThrow()));
+    }
+
+    /**
+     * Восстановленные записи уже есть на диске, поэтому в журнал не пишутся.
+     */
+    @Override
+    public void restore(User user) {
+        memory.restore(user);
+    }
+
+    @Override
+    public int size() {
+        return memory.size();
+    }
+
+    @Override
+    public long lastId() {
+        return memory.lastId();
+    }
+
+    private long currentVersion(long id) {
+        return memory.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Пользователь с id %d не найден", id)))
+                .getVersion();
+    }
+
+    /**
+     * Проставляет версию, которую присвоит обновление, или возвращает {@code null}, если записи нет.
+     */
+    private User nextVersion(User user, Long expectedVersion) {
+        if (user.getId() == null) {
+            return null;
+        }
+        Optional<User> current = memory.findById(user.getId());
+        if (current.isEmpty()) {
+            return null;
+        }
+        long version = current.get().getVersion();
+        if (expectedVersion != null && version != expectedVersion) {
+            throw new VersionConflictException(String.format(
+                    "Пользователь с id %d уже изменён: версия %d, ожидалась %d",
+                    user.getId(), version, expectedVersion));
+        }
+        user.setVersion(version + 1);
+        return user;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+/**
+ * Запись журнала о связи двух id — лайке или дружбе: {@code linked} — связь появилась или исчезла.
+ * Повторное применение записи ничего не меняет, поэтому снимок и журнал после него можно читать подряд,
+ * даже если изменение попало в оба.
+ */
+public record Link(long from, long to, boolean linked) {
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки локального хранения на диске ({@code filmorate.persistence.*}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "filmorate.persistence")
+public class PersistenceProperties {
+    /**
+     * Включает журнал изменений и восстановление данных при старте: фильмов, пользователей,
+     * лайков и дружбы.
+     */
+    private boolean enabled = false;
+    /**
+     * Каталог для снимков и журналов.
+     */
+    private Path directory = Path.of("data");
+    /**
+     * Сбрасывать ли каждую запись журнала на диск. Без этого при сбое ОС теряются последние изменения.
+     */
+    private boolean fsync = false;
+    /**
+     * Как часто сохранять снимок и удалять покрытые им журналы.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+}
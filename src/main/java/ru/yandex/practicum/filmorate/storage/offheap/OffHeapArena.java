@@ -0,0 +1,258 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Область памяти вне кучи для закодированных записей. Запись дописывается в конец текущего блока
+ * и получает ссылку — номер блока и смещение в одном {@code long}; в куче хранятся только ссылки.
+ *
+ * <p>Блоки — прямые {@link ByteBuffer} либо, если задан файл, участки этого файла, отображённые
+ * в память: тогда редко читаемые записи может вытеснить на диск сама ОС. Файл — не хранилище:
+ * он пересоздаётся при открытии и удаляется при закрытии, за сохранность данных отвечает журнал.
+ *
+ * <p>Запись занимает слот, размер которого округлён вверх до класса: классы идут шагом в четверть
+ * степени двойки, поэтому слот больше записи не более чем на четверть. Освобождённый слот попадает
+ * в список свободных своего класса и отдаётся следующей записи того же класса, так что при постоянных
+ * обновлениях область не растёт; свободное место видно в {@link #freeBytes()}.
+ *
+ * <p>Чтение не блокируется: запись видна читателю, получившему её ссылку через хранилище,
+ * которое публикует ссылку после записи. Читатель с устаревшей ссылкой может увидеть чужую запись,
+ * занявшую освобождённый слот, поэтому хранилища проверяют, что строка не менялась во время чтения,
+ * и иначе читают её заново.
+ */
+@Slf4j
+public class OffHeapArena implements Closeable {
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int MIN_SLOT_BITS = 4;
+    private static final int SIZE_CLASSES = (Integer.SIZE - MIN_SLOT_BITS) * 4 + 1;
+
+    private final String name;
+    private final int chunkSize;
+    private final Path file;
+    private final FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong freeBytes = new AtomicLong();
+    private final FreeList[] freeLists = new FreeList[SIZE_CLASSES];
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private int position;
+
+    /**
+     * @param file файл для отображения блоков в память или {@code null} для прямых буферов
+     */
+    public OffHeapArena(String name, int chunkSize, Path file) {
+        this.name = name;
+        this.chunkSize = chunkSize;
+        this.file = file;
+        try {
+            this.channel = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть файл " + file, e);
+        }
+        this.position = chunkSize;
+    }
+
+    /**
+     * Сохраняет запись и возвращает ссылку на неё. Запись занимает свободный слот своего класса,
+     * а если такого нет — новый в конце текущего блока.
+     */
+    public long append(byte[] record) {
+        int size = LENGTH_BYTES + record.length;
+        if (size > chunkSize) {
+            throw new IllegalArgumentException(String.format("Запись %d Б не помещается в блок %s по %d Б",
+                    record.length, name, chunkSize));
+        }
+        int sizeClass = sizeClass(size);
+        int slot = slotSize(sizeClass);
+        long ref;
+        ByteBuffer buffer;
+        // под блокировкой только выбор слота: байты копируются после неё, слот уже ничей больше
+        lock.lock();
+        try {
+            FreeList free = freeLists[sizeClass];
+            if (free != null && free.size > 0) {
+                ref = free.pop();
+                freeBytes.addAndGet(-slot);
+            } else {
+                if (position + slot > chunkSize) {
+                    addChunk();
+                }
+                ref = (long) (chunks.length - 1) << 32 | position;
+                position += slot;
+            }
+            buffer = chunks[(int) (ref >>> 32)];
+            usedBytes.addAndGet(slot);
+        } finally {
+            lock.unlock();
+        }
+        buffer.putInt((int) ref, record.length);
+        buffer.put((int) ref + LENGTH_BYTES, record);
+        return ref;
+    }
+
+    /**
+     * Читает запись по ссылке. Ссылка, прочитанная без блокировки и потому, возможно, несогласованная,
+     * приводит к исключению, а не к выделению памяти под случайную длину.
+     */
+    public byte[] read(long ref) {
+        ByteBuffer buffer = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        byte[] record = new byte[length(buffer, offset)];
+        buffer.get(offset + LENGTH_BYTES, record);
+        return record;
+    }
+
+    /**
+     * Совпадает ли сохранённая запись с {@code record}; позволяет не дописывать неизменённые данные.
+     */
+    public boolean matches(long ref, byte[] record) {
+        ByteBuffer buffer = chunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        return length(buffer, offset) == record.length
+                && buffer.slice(offset + LENGTH_BYTES, record.length).equals(ByteBuffer.wrap(record));
+    }
+
+    /**
+     * Освобождает слот заменённой записи для следующих записей того же класса. Вызывается,
+     * когда ссылку на запись уже заменили в хранилище.
+     */
+    public void release(long ref) {
+        ByteBuffer buffer = chunks[(int) (ref >>> 32)];
+        int sizeClass = sizeClass(LENGTH_BYTES + length(buffer, (int) ref));
+        int slot = slotSize(sizeClass);
+        lock.lock();
+        try {
+            FreeList free = freeLists[sizeClass];
+            if (free == null) {
+                free = new FreeList();
+                freeLists[sizeClass] = free;
+            }
+            free.push(ref);
+            usedBytes.addAndGet(-slot);
+            freeBytes.addAndGet(slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Память, занятая блоками, включая ещё не заполненную часть последнего блока.
+     */
+    public long reservedBytes() {
+        return (long) chunks.length * chunkSize;
+    }
+
+    /**
+     * Память слотов, занятых записями.
+     */
+    public long usedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * Память освобождённых слотов, ожидающих следующих записей своего класса.
+     */
+    public long freeBytes() {
+        return freeBytes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            chunks = new ByteBuffer[0];
+            Arrays.fill(freeLists, null);
+            if (channel != null) {
+                channel.close();
+                Files.deleteIfExists(file);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int length(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0 || length > chunkSize - offset - LENGTH_BYTES) {
+            throw new IllegalStateException(String.format("Неверная ссылка на запись в области %s: смещение %d, длина %d",
+                    name, offset, length));
+        }
+        return length;
+    }
+
+    /**
+     * Класс слота для записи из {@code size} байт вместе с длиной: 0 — слоты до {@code 2^MIN_SLOT_BITS} байт,
+     * дальше по четыре класса на каждую степень двойки.
+     */
+    private static int sizeClass(int size) {
+        if (size <= 1 << MIN_SLOT_BITS) {
+            return 0;
+        }
+        int bits = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(size - 1);
+        int quarter = ((size - 1) >>> (bits - 2)) - 3;
+        return (bits - MIN_SLOT_BITS) * 4 + quarter;
+    }
+
+    /**
+     * Размер слота класса; не больше блока, чтобы в блок помещалась любая допустимая запись.
+     */
+    private int slotSize(int sizeClass) {
+        if (sizeClass == 0) {
+            return Math.min(1 << MIN_SLOT_BITS, chunkSize);
+        }
+        int bits = (sizeClass - 1) / 4 + MIN_SLOT_BITS;
+        int quarter = (sizeClass - 1) % 4 + 1;
+        long slot = (1L << bits) + ((long) quarter << (bits - 2));
+        return (int) Math.min(slot, chunkSize);
+    }
+
+    private void addChunk() {
+        int index = chunks.length;
+        ByteBuffer chunk;
+        if (channel == null) {
+            chunk = ByteBuffer.allocateDirect(chunkSize);
+        } else {
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * chunkSize, chunkSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось отобразить блок " + index + " файла " + file, e);
+            }
+        }
+        chunks = Arrays.copyOf(chunks, index + 1);
+        chunks[index] = chunk;
+        position = 0;
+        log.debug("Область {}: выделен блок {}", name, index);
+    }
+
+    /**
+     * Стек ссылок на свободные слоты одного класса без упаковки в {@code Long}.
+     */
+    private static final class FreeList {
+        private long[] refs = new long[16];
+        private int size;
+
+        void push(long ref) {
+            if (size == refs.length) {
+                refs = Arrays.copyOf(refs, size * 2);
+            }
+            refs[size++] = ref;
+        }
+
+        long pop() {
+            return refs[--size];
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Хранилища при {@code filmorate.storage.mode=off-heap}: фильмы — компактные столбцы с описаниями
+ * вне кучи, пользователи — профили вне кучи. Области закрываются вместе с контекстом.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(OffHeapProperties.class)
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "mode", havingValue = "off-heap")
+public class OffHeapConfig {
+
+    @Bean
+    public OffHeapArena filmDescriptionArena(OffHeapProperties properties) {
+        return arena("film-descriptions", properties);
+    }
+
+    @Bean
+    public OffHeapArena userProfileArena(OffHeapProperties properties) {
+        return arena("user-profiles", properties);
+    }
+
+    @Bean("filmMemory")
+    public FilmStorage filmMemory(@Qualifier("filmDescriptionArena") OffHeapArena arena) {
+        return new CompactFilmStorage(arena);
+    }
+
+    @Bean("userMemory")
+    public UserStorage userMemory(@Qualifier("userProfileArena") OffHeapArena arena) {
+        return new OffHeapUserStorage(arena);
+    }
+
+    /**
+     * Память областей: занятая записями и освобождённая заменёнными записями для переиспользования.
+     */
+    @Bean
+    public MeterBinder offHeapMetrics(@Qualifier("filmDescriptionArena") OffHeapArena films,
+                                      @Qualifier("userProfileArena") OffHeapArena users) {
+        return registry -> {
+            bind(registry, "film-descriptions", films);
+            bind(registry, "user-profiles", users);
+        };
+    }
+
+    private static void bind(MeterRegistry registry, String name, OffHeapArena arena) {
+        Gauge.builder("filmorate.storage.offheap.used", arena, OffHeapArena::usedBytes)
+                .tag("arena", name)
+                .baseUnit("bytes")
+                .description("Память вне кучи, занятая записями")
+                .register(registry);
+        Gauge.builder("filmorate.storage.offheap.free", arena, OffHeapArena::freeBytes)
+                .tag("arena", name)
+                .baseUnit("bytes")
+                .description("Память вне кучи, освобождённая заменёнными записями")
+                .register(registry);
+        Gauge.builder("filmorate.storage.offheap.reserved", arena, OffHeapArena::reservedBytes)
+                .tag("arena", name)
+                .baseUnit("bytes")
+                .description("Память вне кучи, выделенная блоками")
+                .register(registry);
+    }
+
+    private static OffHeapArena arena(String name, OffHeapProperties properties) {
+        Path file = null;
+        if (properties.getDirectory() != null) {
+            try {
+                Files.createDirectories(properties.getDirectory());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось создать каталог " + properties.getDirectory(), e);
+            }
+            file = properties.getDirectory().resolve(name + ".arena");
+        }
+        log.info("Область {}: блоки по {} МБ, {}", name, properties.getChunkSize().toMegabytes(),
+                file == null ? "прямые буферы" : "файл " + file);
+        return new OffHeapArena(name, Math.toIntExact(properties.getChunkSize().toBytes()), file);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Настройки хранения вне кучи ({@code filmorate.storage.off-heap.*}), действуют при
+ * {@code filmorate.storage.mode=off-heap}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "filmorate.storage.off-heap")
+public class OffHeapProperties {
+    /**
+     * Каталог для файлов, отображаемых в память. Если не задан, записи лежат в прямых буферах,
+     * размер которых ограничен {@code -XX:MaxDirectMemorySize}.
+     */
+    private Path directory;
+    /**
+     * Размер блока области; одна запись должна в нём помещаться.
+     */
+    private DataSize chunkSize = DataSize.ofMegabytes(64);
+}
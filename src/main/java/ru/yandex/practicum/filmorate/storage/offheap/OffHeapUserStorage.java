@@ -0,0 +1,401 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Хранилище пользователей, профили которых лежат вне кучи в {@link OffHeapArena}. В куче остаётся
+ * только столбец ссылок на записи: строка находится по id, как в {@code CompactFilmStorage},
+ * а объект {@link User} собирается из записи при чтении.
+ *
+ * <p>Запись профиля — день рождения номером дня, затем email, логин и имя в UTF-8 с длиной впереди;
+ * длина {@code -1} означает отсутствующее значение. Версии лежат в куче отдельным столбцом, поэтому
+ * обновление, не изменившее профиль, запись не перезаписывает.
+ *
+ * <p>Блокировки те же, что в {@code CompactFilmStorage}: строка меняется под блокировкой своей полосы
+ * из {@value #LOCK_STRIPES}, выдача id и рост столбцов — под отдельной блокировкой, чтение оптимистичное.
+ */
+public class OffHeapUserStorage implements UserStorage {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long ABSENT = -1;
+    private static final int NONE = Integer.MIN_VALUE;
+    private static final int LOCK_STRIPES = 256;
+
+    private final OffHeapArena arena;
+    private final StampedLock[] rowLocks = new StampedLock[LOCK_STRIPES];
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile long[][] refs = new long[0][];
+    private volatile long[][] versions = new long[0][];
+    private volatile long lastId;
+    private volatile int size;
+
+    public OffHeapUserStorage(OffHeapArena arena) {
+        this.arena = arena;
+        Arrays.setAll(rowLocks, i -> new StampedLock());
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return new Users(0) {
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<User> findAllAfter(long afterId) {
+        return new Users(afterId);
+    }
+
+    @Override
+    public Collection<User> findPage(long afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<User> users = new Users(afterId).iterator();
+        while (page.size() < limit && users.hasNext()) {
+            page.add(users.next());
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<User> findById(long id) {
+        return Optional.ofNullable(read(id));
+    }
+
+    @Override
+    public User create(User user) {
+        growLock.lock();
+        try {
+            user.setId(lastId + 1);
+            user.setVersion(1L);
+            write(user);
+            lastId = user.getId();
+            size++;
+            return user;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        growLock.lock();
+        try {
+            long id = lastId;
+            for (User user : newUsers) {
+                user.setId(++id);
+                user.setVersion(1L);
+                write(user);
+            }
+            lastId = id;
+            size += newUsers.size();
+            return newUsers;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    @Override
+    public void importAll(List<User> newUsers, List<User> changedUsers) {
+        createAll(newUsers);
+        changedUsers.forEach(this::update);
+    }
+
+    @Override
+    public Optional<User> update(User user) {
+        return replace(user, null);
+    }
+
+    @Override
+    public Optional<User> update(User user, long expectedVersion) {
+        return replace(user, expectedVersion);
+    }
+
+    @Override
+    public void restore(User user) {
+        growLock.lock();
+        try {
+            boolean added = ref(user.getId()) == ABSENT;
+            if (user.getVersion() == null) {
+                user.setVersion(1L);
+            }
+            write(user);
+            if (added) {
+                size++;
+            }
+            lastId = Math.max(lastId, user.getId());
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long lastId() {
+        return lastId;
+    }
+
+    /**
+     * Версия проверяется и увеличивается под той же блокировкой полосы, что и замена записи.
+     * Строки не удаляются, поэтому существующей строке блокировка роста не нужна.
+     */
+    private Optional<User> replace(User user, Long expectedVersion) {
+        if (user.getId() == null) {
+            return Optional.empty();
+        }
+        long id = user.getId();
+        StampedLock lock = rowLock(id);
+        long stamp = lock.writeLock();
+        try {
+            if (ref(id) == ABSENT) {
+                return Optional.empty();
+            }
+            long version = versions[chunkOf(id)][slotOf(id)];
+            if (expectedVersion != null && version != expectedVersion) {
+                throw new VersionConflictException(String.format(
+                        "Пользователь с id %d уже изменён: версия %d, ожидалась %d", id, version, expectedVersion));
+            }
+            user.setVersion(version + 1);
+            store(user);
+            return Optional.of(user);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private User read(long id) {
+        if (id < 1 || id > lastId) {
+            return null;
+        }
+        StampedLock lock = rowLock(id);
+        long stamp = lock.tryOptimisticRead();
+        User user;
+        try {
+            user = materialize(id);
+        } catch (RuntimeException e) {
+            // ссылка прочитана во время записи и не согласована с областью; повторяем под блокировкой
+            user = null;
+            stamp = 0;
+        }
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                user = materialize(id);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return user;
+    }
+
+    private User materialize(long id) {
+        long ref = ref(id);
+        if (ref == ABSENT) {
+            return null;
+        }
+        User user = decode(id, arena.read(ref));
+        user.setVersion(versions[chunkOf(id)][slotOf(id)]);
+        return user;
+    }
+
+    private long ref(long id) {
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            return ABSENT;
+        }
+        long[][] current = refs;
+        int chunk = chunkOf(id);
+        return chunk < current.length && current[chunk] != null ? current[chunk][slotOf(id)] : ABSENT;
+    }
+
+    /**
+     * Записывает строку, при необходимости добавляя блок. Вызывается под {@link #growLock}.
+     */
+    private void write(User user) {
+        long id = user.getId();
+        if (id < 1 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Id пользователя вне допустимого диапазона: " + id);
+        }
+        int chunk = chunkOf(id);
+        long[][] current = refs;
+        long[][] currentVersions = versions;
+        if (chunk >= current.length) {
+            current = Arrays.copyOf(current, Math.max(chunk + 1, current.length * 2));
+            currentVersions = Arrays.copyOf(currentVersions, current.length);
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new long[CHUNK_SIZE];
+            Arrays.fill(current[chunk], ABSENT);
+            currentVersions[chunk] = new long[CHUNK_SIZE];
+        }
+        versions = currentVersions;
+        refs = current;
+
+        StampedLock lock = rowLock(id);
+        long stamp = lock.writeLock();
+        try {
+            store(user);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Записывает профиль в существующую строку. Вызывается под блокировкой полосы строки.
+     */
+    private void store(User user) {
+        long id = user.getId();
+        int chunk = chunkOf(id);
+        int slot = slotOf(id);
+        versions[chunk][slot] = user.getVersion();
+        long stored = refs[chunk][slot];
+        byte[] record = encode(user);
+        if (stored != ABSENT && arena.matches(stored, record)) {
+            return;
+        }
+        refs[chunk][slot] = arena.append(record);
+        if (stored != ABSENT) {
+            arena.release(stored);
+        }
+    }
+
+    private StampedLock rowLock(long id) {
+        return rowLocks[(int) (id & (LOCK_STRIPES - 1))];
+    }
+
+    private static int chunkOf(long id) {
+        return (int) ((id - 1) >>> CHUNK_BITS);
+    }
+
+    private static int slotOf(long id) {
+        return (int) ((id - 1) & (CHUNK_SIZE - 1));
+    }
+
+    private static byte[] encode(User user) {
+        byte[] email = bytes(user.getEmail());
+        byte[] login = bytes(user.getLogin());
+        byte[] name = bytes(user.getName());
+        ByteBuffer record = ByteBuffer.allocate(4 * Integer.BYTES + length(email) + length(login) + length(name));
+        record.putInt(user.getBirthday() == null ? NONE : (int) user.getBirthday().toEpochDay());
+        put(record, email);
+        put(record, login);
+        put(record, name);
+        return record.array();
+    }
+
+    private static User decode(long id, byte[] bytes) {
+        ByteBuffer record = ByteBuffer.wrap(bytes);
+        User user = new User();
+        user.setId(id);
+        int birthday = record.getInt();
+        user.setBirthday(birthday == NONE ? null : LocalDate.ofEpochDay(birthday));
+        user.setEmail(text(record));
+        user.setLogin(text(record));
+        user.setName(text(record));
+        return user;
+    }
+
+    private static byte[] bytes(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void put(ByteBuffer record, byte[] bytes) {
+        record.putInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+            record.put(bytes);
+        }
+    }
+
+    private static String text(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String text = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return text;
+    }
+
+    /**
+     * Представление пользователей с id больше {@code afterId} в порядке id; видит изменения,
+     * сделанные во время обхода.
+     */
+    private class Users extends AbstractCollection<User> {
+        private final long afterId;
+
+        Users(long afterId) {
+            this.afterId = Math.max(afterId, 0);
+        }
+
+        @Override
+        public Iterator<User> iterator() {
+            return new Iterator<>() {
+                private long id = afterId;
+                private User next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null && id < lastId) {
+                        next = read(++id);
+                    }
+                    return next != null;
+                }
+
+                @Override
+                public User next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    User user = next;
+                    next = null;
+                    return user;
+                }
+            };
+        }
+
+        /**
+         * Считает записи обходом. Потоки используют {@link #spliterator()}, которому размер не нужен.
+         */
+        @Override
+        public int size() {
+            int count = 0;
+            for (Iterator<User> users = iterator(); users.hasNext(); users.next()) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public Spliterator<User> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(),
+                    Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
+    }
+}
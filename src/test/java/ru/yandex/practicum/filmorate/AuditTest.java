@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditTest {
+    private final Logger auditLogger = (Logger) LoggerFactory.getLogger("filmorate.audit");
+    private final Level previousLevel = auditLogger.getLevel();
+    private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        auditLogger.setLevel(Level.INFO);
+        events.start();
+        auditLogger.addAppender(events);
+        userService = new UserService(new InMemoryUserStorage(), new InMemoryFriendStorage(), event -> {
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogger.detachAppender(events);
+        auditLogger.setLevel(previousLevel);
+    }
+
+    @Test
+    void create_ShouldRecordOnlyEntityAndId() {
+        userService.create(user("user@example.com", "user"));
+
+        Map<String, Object> pairs = pairs(events.list.getFirst());
+        assertEquals(Map.of("entity", "user", "action", "created", "id", 1L), pairs);
+    }
+
+    @Test
+    void update_ShouldRecordChangedFieldsOnly() {
+        userService.create(user("user@example.com", "user"));
+        User changed = user("other@example.com", "user");
+        changed.setId(1L);
+        changed.setBirthday(LocalDate.of(1990, 1, 1));
+
+        userService.update(changed);
+
+        Map<String, Object> pairs = pairs(events.list.getLast());
+        assertEquals("updated", pairs.get("action"));
+        assertEquals(List.of("email", "birthday"), pairs.get("fields"));
+        assertFalse(pairs.containsValue("other@example.com"));
+    }
+
+    @Test
+    void importBatch_ShouldRecordOneEventWithCreatedRangeAndUpdatedIds() {
+        userService.create(user("user@example.com", "user"));
+        User existing = user("user@example.com", "renamed");
+        existing.setId(1L);
+
+        userService.importBatch(List.of(user("a@example.com", "a"), existing, user("b@example.com", "b")));
+
+        assertEquals(2, events.list.size());
+        Map<String, Object> pairs = pairs(events.list.getLast());
+        assertEquals(2, pairs.get("created"));
+        assertEquals(2L, pairs.get("createdFrom"));
+        assertEquals(3L, pairs.get("createdTo"));
+        assertEquals(List.of(1L), pairs.get("updated"));
+    }
+
+    private static Map<String, Object> pairs(ILoggingEvent event) {
+        Map<String, Object> pairs = new LinkedHashMap<>();
+        for (KeyValuePair pair : event.getKeyValuePairs()) {
+            pairs.put(pair.key, pair.value);
+        }
+        return pairs;
+    }
+
+    private static User user(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        return user;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class BatchImportTest {
+    private static final String FILM = """
+            {"name":"%s","description":"d","releaseDate":"2000-01-01","duration":100}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void importBatch_WithJsonArray_ShouldCreateAllFilms() throws Exception {
+        String body = "[" + FILM.formatted("A") + "," + FILM.formatted("B") + "," + FILM.formatted("C") + "]";
+
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(true))
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[2].id").value(3))
+                .andExpect(jsonPath("$.items[2].status").value("CREATED"));
+
+        assertEquals(3, filmStorage.size());
+        assertEquals("B", filmStorage.findById(2).orElseThrow().getName());
+    }
+
+    @Test
+    void importBatch_WithNdjson_ShouldCreateAndUpdate() throws Exception {
+        mockMvc.perform(post("/films/batch").contentType("application/x-ndjson").content(FILM.formatted("A")))
+                .andExpect(status().isOk());
+
+        String body = """
+                {"id":1,"name":"A2","description":"d","releaseDate":"2000-01-01","duration":100}
+                """ + FILM.formatted("B") + "\n";
+
+        mockMvc.perform(post("/films/batch").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.items[1].id").value(2));
+
+        assertEquals("A2", filmStorage.findById(1).orElseThrow().getName());
+    }
+
+    @Test
+    void importBatch_WithInvalidItem_ShouldRejectWholeBatch() throws Exception {
+        String body = "[" + FILM.formatted("A") + "," + FILM.formatted("") + ","
+                + "{\"id\":42,\"name\":\"X\",\"releaseDate\":\"2000-01-01\",\"duration\":1}]";
+
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.applied").value(false))
+                .andExpect(jsonPath("$.items[0].status").value("VALID"))
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[1].errors[0]").value("Название фильма не может быть пустым"))
+                .andExpect(jsonPath("$.items[2].status").value("NOT_FOUND"));
+
+        assertEquals(0, filmStorage.size());
+    }
+
+    @Test
+    void importBatch_WithMalformedJson_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content("[{\"name\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void importBatch_WithUsers_ShouldFillNameFromLogin() throws Exception {
+        String body = """
+                [{"email":"a@example.com","login":"alice","birthday":"1990-01-01"},
+                 {"email":"b@example.com","login":"bob","name":"Bob"}]""";
+
+        mockMvc.perform(post("/users/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+
+        assertEquals("alice", userStorage.findById(1).orElseThrow().getName());
+        assertEquals("Bob", userStorage.findById(2).orElseThrow().getName());
+    }
+}
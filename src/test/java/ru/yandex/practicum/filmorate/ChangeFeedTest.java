@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.service.ChangeEvent;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+import ru.yandex.practicum.filmorate.service.ChangeFeedProperties;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void read_ShouldNumberEveryIdInOrderAndResumeFromCursor() {
+        ChangeFeed feed = feed(16);
+        feed.onChange(new EntitiesChanged(EntitiesChanged.Entity.FILM, EntitiesChanged.Change.CREATED, List.of(1L, 2L)));
+        feed.onChange(new EntitiesChanged(EntitiesChanged.Entity.USER, EntitiesChanged.Change.UPDATED, List.of(7L)));
+
+        ChangeFeed.Batch batch = feed.read(0, 2);
+        assertFalse(batch.lost());
+        assertEquals(List.of(new ChangeEvent(1, EntitiesChanged.Entity.FILM, EntitiesChanged.Change.CREATED, 1),
+                new ChangeEvent(2, EntitiesChanged.Entity.FILM, EntitiesChanged.Change.CREATED, 2)), batch.events());
+        assertEquals(2, batch.cursor());
+
+        ChangeFeed.Batch rest = feed.read(batch.cursor(), 10);
+        assertEquals(List.of(new ChangeEvent(3, EntitiesChanged.Entity.USER, EntitiesChanged.Change.UPDATED, 7)),
+                rest.events());
+        assertTrue(feed.read(3, 10).events().isEmpty());
+    }
+
+    @Test
+    void read_AfterOverflowOrRestart_ShouldReportLostEvents() {
+        ChangeFeed feed = feed(16);
+        feed.onChange(new EntitiesChanged(EntitiesChanged.Entity.FILM, EntitiesChanged.Change.CREATED,
+                LongStream.rangeClosed(1, 20).boxed().toList()));
+
+        ChangeFeed.Batch overflow = feed.read(2, 100);
+        assertTrue(overflow.lost());
+        assertEquals(5, overflow.events().getFirst().seq());
+        assertEquals(16, overflow.events().size());
+
+        ChangeFeed.Batch restarted = feed.read(100, 100);
+        assertTrue(restarted.lost());
+        assertEquals(5, restarted.events().getFirst().seq());
+    }
+
+    @Test
+    void await_ShouldWakeUpOnPublishAndTimeOutWithoutIt() throws Exception {
+        ChangeFeed feed = feed(16);
+        assertFalse(feed.await(0, Duration.ofMillis(10)));
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.await(0, Duration.ofMinutes(1));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        feed.onChange(new EntitiesChanged(EntitiesChanged.Entity.FILM, EntitiesChanged.Change.CREATED, List.of(1L)));
+        assertTrue(waiting.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void read_FromManyWriters_ShouldSeeEverySequenceOnce() throws Exception {
+        ChangeFeed feed = feed(1 << 16);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            writers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    feed.onChange(new EntitiesChanged(EntitiesChanged.Entity.FILM, EntitiesChanged.Change.UPDATED,
+                            List.of((long) i)));
+                }
+            }));
+        }
+        long cursor = 0;
+        while (cursor < 40_000) {
+            ChangeFeed.Batch batch = feed.read(cursor, 1000);
+            assertFalse(batch.lost());
+            for (ChangeEvent event : batch.events()) {
+                assertEquals(++cursor, event.seq());
+            }
+            feed.await(cursor, Duration.ofMillis(10));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertEquals(40_000, feed.lastSequence());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void events_ShouldStreamChangesSinceGivenSequence() throws Exception {
+        for (int i = 1; i <= 2; i++) {
+            mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content("""
+                    {"name":"Film","description":"","releaseDate":"2000-01-01","duration":100}"""));
+        }
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON).content("""
+                {"id":1,"name":"Updated","description":"","releaseDate":"2000-01-01","duration":100}"""));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/events").param("since", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!response.getContentAsString().contains("id:3") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        String body = response.getContentAsString();
+        assertFalse(body.contains("id:1\n"));
+        assertTrue(body.contains("id:2\nevent:change\ndata:{\"seq\":2,\"entity\":\"FILM\",\"change\":\"CREATED\",\"id\":2}"));
+        assertTrue(body.contains("id:3\nevent:change\ndata:{\"seq\":3,\"entity\":\"FILM\",\"change\":\"UPDATED\",\"id\":1}"));
+        mockMvc.perform(get("/events").param("since", "-1")).andExpect(status().isBadRequest());
+    }
+
+    private static ChangeFeed feed(int capacity) {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setCapacity(capacity);
+        return new ChangeFeed(properties);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.CompactFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactFilmStorageTest {
+    private CompactFilmStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new CompactFilmStorage();
+    }
+
+    @Test
+    void findById_ShouldMaterializeAllFieldsIncludingNullsAndUnicode() {
+        storage.create(film("Сталкер", "Зона — «комната желаний»", LocalDate.of(1979, 5, 25), 163));
+        storage.create(film("", null, null, null));
+
+        Film stalker = storage.findById(1).orElseThrow();
+        assertEquals("Сталкер", stalker.getName());
+        assertEquals("Зона — «комната желаний»", stalker.getDescription());
+        assertEquals(LocalDate.of(1979, 5, 25), stalker.getReleaseDate());
+        assertEquals(163, stalker.getDuration());
+
+        Film empty = storage.findById(2).orElseThrow();
+        assertEquals("", empty.getName());
+        assertNull(empty.getDescription());
+        assertNull(empty.getReleaseDate());
+        assertNull(empty.getDuration());
+        assertTrue(storage.findById(3).isEmpty());
+        assertTrue(storage.findById(0).isEmpty());
+    }
+
+    @Test
+    void update_ShouldReplaceStoredValuesAndRejectUnknownId() {
+        storage.create(film("Film", "Description", LocalDate.of(2000, 1, 1), 100));
+
+        Film changed = film("Changed", "Description", LocalDate.of(1895, 12, 28), 90);
+        changed.setId(1L);
+        assertTrue(storage.update(changed).isPresent());
+        Film unknown = film("Unknown", null, null, null);
+        unknown.setId(2L);
+        assertTrue(storage.update(unknown).isEmpty());
+
+        Film stored = storage.findById(1).orElseThrow();
+        assertEquals("Changed", stored.getName());
+        assertEquals(LocalDate.of(1895, 12, 28), stored.getReleaseDate());
+        assertEquals(90, stored.getDuration());
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    void findAllAfter_AcrossChunks_ShouldReturnFilmsInIdOrder() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            films.add(film("Film " + i, null, LocalDate.of(2000, 1, 1), 100));
+        }
+        storage.createAll(films);
+
+        assertEquals(10_000, storage.findAll().size());
+        assertEquals(List.of(4095L, 4096L, 4097L, 4098L),
+                storage.findPage(4094, 4).stream().map(Film::getId).toList());
+        assertEquals(IntStream.rangeClosed(9_001, 10_000).asLongStream().boxed().toList(),
+                storage.findAllAfter(9_000).stream().map(Film::getId).toList());
+        assertEquals(1_000, storage.findAllAfter(9_000).size());
+    }
+
+    @Test
+    void restore_ShouldKeepIdsAndMoveIdSequence() {
+        Film restored = film("Restored", null, null, null);
+        restored.setId(5000L);
+        storage.restore(restored);
+        storage.restore(restored);
+
+        assertEquals(1, storage.size());
+        assertEquals(5000L, storage.lastId());
+        assertEquals(5001L, storage.create(film("Next", null, null, null)).getId());
+        assertEquals(List.of(5000L, 5001L), storage.findAll().stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void findFiltered_WithCompactRangeIndex_ShouldFollowUpdates() {
+        FilmService filmService = new FilmService(storage, new InMemoryUserStorage(), new InMemoryLikeStorage(),
+                new InMemoryFilmSearchIndex(), new CompactFilmRangeIndex(storage),
+                new InMemoryRecommendationIndex(), event -> {
+                });
+        filmService.create(film("First", "", LocalDate.of(1999, 3, 31), 136));
+        filmService.create(film("Second", "", LocalDate.of(1900, 1, 1), 138));
+        filmService.create(film("Third", "", LocalDate.of(2003, 5, 15), 85));
+
+        assertEquals(List.of(2L, 1L), ids(filmService, new FilmFilter(null, LocalDate.of(2000, 1, 1), null, null)));
+        assertEquals(List.of(3L, 1L), ids(filmService, new FilmFilter(null, null, null, 136)));
+
+        Film moved = film("Third", "", LocalDate.of(1950, 1, 1), 200);
+        moved.setId(3L);
+        filmService.update(moved);
+
+        assertEquals(List.of(2L, 3L, 1L), ids(filmService, new FilmFilter(null, LocalDate.of(2000, 1, 1), null, null)));
+        assertEquals(List.of(1L), ids(filmService, new FilmFilter(null, null, null, 136)));
+        FilmFilter before2000 = new FilmFilter(null, LocalDate.of(2000, 1, 1), null, null);
+        assertEquals(List.of(3L, 1L), filmService.findFiltered(before2000, "1900-01-01,2").map(Film::getId).toList());
+    }
+
+    private static List<Long> ids(FilmService filmService, FilmFilter filter) {
+        return filmService.findFiltered(filter).map(Film::getId).toList();
+    }
+
+    private static Film film(String name, String description, LocalDate releaseDate, Integer duration) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(releaseDate);
+        film.setDuration(duration);
+        return film;
+    }
+}
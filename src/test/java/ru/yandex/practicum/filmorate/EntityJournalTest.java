@@ -0,0 +1,403 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.journal.EntityJournal;
+import ru.yandex.practicum.filmorate.storage.journal.JournaledFilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournaledFriendStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournaledLikeStorage;
+import ru.yandex.practicum.filmorate.storage.journal.Link;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityJournalTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replay_AfterCreateAndUpdate_ShouldRestoreLatestState() throws IOException {
+        try (EntityJournal<Film> journal = newJournal()) {
+            JournaledFilmStorage storage = open(journal, new InMemoryFilmStorage());
+            storage.create(film("First"));
+            storage.create(film("Second"));
+            Film updated = film("First updated");
+            updated.setId(1L);
+            storage.update(updated);
+        }
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(3, journal.replay(restored::restore));
+        }
+
+        assertEquals(2, restored.size());
+        assertEquals("First updated", restored.findById(1).orElseThrow().getName());
+        assertEquals("Second", restored.findById(2).orElseThrow().getName());
+        assertEquals(3, restored.create(film("Third")).getId());
+    }
+
+    @Test
+    void replay_AfterSnapshot_ShouldCombineSnapshotAndNewRecords() throws IOException {
+        try (EntityJournal<Film> journal = newJournal()) {
+            InMemoryFilmStorage memory = new InMemoryFilmStorage();
+            JournaledFilmStorage storage = open(journal, memory);
+            for (int i = 0; i < 10; i++) {
+                storage.create(film("Film " + i));
+            }
+            journal.snapshot(memory.findAll());
+            storage.create(film("After snapshot"));
+        }
+
+        assertEquals(1, logFiles().count());
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(11, journal.replay(restored::restore));
+        }
+        assertEquals(11, restored.size());
+        assertEquals("After snapshot", restored.findById(11).orElseThrow().getName());
+    }
+
+    @Test
+    void replay_WithTornTail_ShouldKeepValidRecordsAndTruncateLog() throws IOException {
+        try (EntityJournal<Film> journal = newJournal()) {
+            JournaledFilmStorage storage = open(journal, new InMemoryFilmStorage());
+            storage.create(film("Kept"));
+            storage.create(film("Torn"));
+        }
+        Path log = logFiles().findFirst().orElseThrow();
+        long fullSize = Files.size(log);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(fullSize - 3);
+        }
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(1, journal.replay(restored::restore));
+            JournaledFilmStorage storage = new JournaledFilmStorage(restored, journal);
+            storage.create(film("Appended after recovery"));
+        }
+        assertEquals("Kept", restored.findById(1).orElseThrow().getName());
+
+        InMemoryFilmStorage again = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(2, journal.replay(again::restore));
+        }
+        assertEquals("Appended after recovery", again.findById(2).orElseThrow().getName());
+    }
+
+    @Test
+    void replay_WithCorruptedChecksum_ShouldStopAtCorruptedRecord() throws IOException {
+        try (EntityJournal<Film> journal = newJournal()) {
+            JournaledFilmStorage storage = open(journal, new InMemoryFilmStorage());
+            storage.create(film("Kept"));
+            storage.create(film("Corrupted"));
+        }
+        Path log = logFiles().findFirst().orElseThrow();
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 2] ^= 0x20;
+        Files.write(log, bytes);
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(1, journal.replay(restored::restore));
+        }
+        assertEquals(1, restored.size());
+    }
+
+    @Test
+    void record_WhenWriteFails_ShouldLeaveMemoryUnchangedAndKeepJournalReadable() throws IOException {
+        FailingJournal journal = new FailingJournal();
+        InMemoryFilmStorage memory = new InMemoryFilmStorage();
+        try (journal) {
+            JournaledFilmStorage storage = open(journal, memory);
+            storage.create(film("Kept"));
+
+            journal.failWrites = true;
+            assertThrows(UncheckedIOException.class, () -> storage.create(film("Lost")));
+            Film renamed = film("Renamed");
+            renamed.setId(1L);
+            assertThrows(UncheckedIOException.class, () -> storage.update(renamed));
+            assertThrows(UncheckedIOException.class, () -> storage.createAll(List.of(film("A"), film("B"))));
+            Film imported = film("Imported");
+            imported.setId(1L);
+            assertThrows(UncheckedIOException.class,
+                    () -> storage.importAll(List.of(film("C")), List.of(imported)));
+
+            assertEquals(1, memory.size());
+            assertEquals(1, memory.lastId());
+            assertEquals("Kept", memory.findById(1).orElseThrow().getName());
+            assertEquals(1L, memory.findById(1).orElseThrow().getVersion());
+
+            journal.failWrites = false;
+            assertEquals(2, storage.create(film("After failure")).getId());
+        }
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> again = newJournal()) {
+            assertEquals(2, again.replay(restored::restore));
+        }
+        assertEquals("Kept", restored.findById(1).orElseThrow().getName());
+        assertEquals("After failure", restored.findById(2).orElseThrow().getName());
+    }
+
+    @Test
+    void replay_AfterImportAll_ShouldRestoreWholeBatch() throws IOException {
+        try (EntityJournal<Film> journal = newJournal()) {
+            JournaledFilmStorage storage = open(journal, new InMemoryFilmStorage());
+            storage.create(film("First"));
+            Film renamed = film("Renamed");
+            renamed.setId(1L);
+            Film renamedAgain = film("Renamed again");
+            renamedAgain.setId(1L);
+            storage.importAll(List.of(film("Second"), film("Third")), List.of(renamed, renamedAgain));
+            assertEquals(3L, storage.findById(1).orElseThrow().getVersion());
+        }
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(5, journal.replay(restored::restore));
+        }
+        assertEquals(3, restored.size());
+        assertEquals("Renamed again", restored.findById(1).orElseThrow().getName());
+        assertEquals(3L, restored.findById(1).orElseThrow().getVersion());
+        assertEquals("Third", restored.findById(3).orElseThrow().getName());
+    }
+
+    @Test
+    void replay_WithTornBatch_ShouldDropWholeBatchAndTruncateLog() throws IOException {
+        try (EntityJournal<Film> journal = newJournal()) {
+            JournaledFilmStorage storage = open(journal, new InMemoryFilmStorage());
+            storage.create(film("Kept"));
+            Film renamed = film("Renamed");
+            renamed.setId(1L);
+            storage.importAll(List.of(film("Second"), film("Third")), List.of(renamed));
+        }
+        Path log = logFiles().findFirst().orElseThrow();
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(log) - 3);
+        }
+
+        InMemoryFilmStorage restored = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(1, journal.replay(restored::restore));
+            new JournaledFilmStorage(restored, journal).create(film("Appended after recovery"));
+        }
+        assertEquals(2, restored.size());
+        assertEquals("Kept", restored.findById(1).orElseThrow().getName());
+
+        InMemoryFilmStorage again = new InMemoryFilmStorage();
+        try (EntityJournal<Film> journal = newJournal()) {
+            assertEquals(2, journal.replay(again::restore));
+        }
+        assertEquals("Appended after recovery", again.findById(2).orElseThrow().getName());
+    }
+
+    @Test
+    void replay_LikesAndFriendships_ShouldRestoreThemFromSnapshotAndLog() throws IOException {
+        try (EntityJournal<Link> likeJournal = linkJournal("likes");
+             EntityJournal<Link> friendJournal = linkJournal("friends")) {
+            InMemoryLikeStorage likeMemory = new InMemoryLikeStorage();
+            InMemoryFriendStorage friendMemory = new InMemoryFriendStorage();
+            likeJournal.replay(link -> JournaledLikeStorage.restore(likeMemory, link));
+            friendJournal.replay(link -> JournaledFriendStorage.restore(friendMemory, link));
+            JournaledLikeStorage likes = new JournaledLikeStorage(likeMemory, likeJournal);
+            JournaledFriendStorage friends = new JournaledFriendStorage(friendMemory, friendJournal);
+
+            assertTrue(likes.addLike(1, 10));
+            assertTrue(likes.addLike(1, 11));
+            assertFalse(likes.addLike(1, 11));
+            assertTrue(likes.addLike(2, 10));
+            friends.addFriend(10, 11);
+            friends.addFriend(12, 10);
+            likeJournal.snapshot(JournaledLikeStorage.links(likeMemory));
+            friendJournal.snapshot(JournaledFriendStorage.links(friendMemory));
+
+            assertTrue(likes.removeLike(1, 11));
+            assertFalse(likes.removeLike(1, 42));
+            assertTrue(likes.addLike(3, 10));
+            assertTrue(likes.addLike(3, 11));
+            friends.removeFriend(10, 12);
+        }
+
+        InMemoryLikeStorage likes = new InMemoryLikeStorage();
+        InMemoryFriendStorage friends = new InMemoryFriendStorage();
+        try (EntityJournal<Link> likeJournal = linkJournal("likes");
+             EntityJournal<Link> friendJournal = linkJournal("friends")) {
+            likeJournal.replay(link -> JournaledLikeStorage.restore(likes, link));
+            friendJournal.replay(link -> JournaledFriendStorage.restore(friends, link));
+        }
+        assertEquals(1, likes.countLikes(1));
+        assertEquals(1, likes.countLikes(2));
+        assertEquals(2, likes.countLikes(3));
+        assertEquals(List.of(3L, 1L, 2L), likes.findTopFilmIds(10));
+        assertArrayEquals(new long[]{11}, friends.findFriendIds(10));
+        assertArrayEquals(new long[]{10}, friends.findFriendIds(11));
+        assertArrayEquals(new long[0], friends.findFriendIds(12));
+    }
+
+    private EntityJournal<Link> linkJournal(String name) {
+        return new EntityJournal<>(directory, name, Link.class, objectMapper, false);
+    }
+
+    private EntityJournal<Film> newJournal() {
+        return new EntityJournal<>(directory, "films", Film.class, objectMapper, false);
+    }
+
+    private JournaledFilmStorage open(EntityJournal<Film> journal, InMemoryFilmStorage memory) throws IOException {
+        journal.replay(memory::restore);
+        return new JournaledFilmStorage(memory, journal);
+    }
+
+    private Stream<Path> logFiles() throws IOException {
+        return Files.list(directory).filter(path -> path.toString().endsWith(".log"));
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    /**
+     * Журнал, канал которого по флагу записывает половину буфера и падает, как при переполнении диска.
+     */
+    private class FailingJournal extends EntityJournal<Film> {
+        volatile boolean failWrites;
+
+        FailingJournal() {
+            super(directory, "films", Film.class, objectMapper, false);
+        }
+
+        @Override
+        protected FileChannel openForAppend(Path file) throws IOException {
+            return new FailingChannel(super.openForAppend(file));
+        }
+
+        private class FailingChannel extends FileChannel {
+            private final FileChannel delegate;
+
+            FailingChannel(FileChannel delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                if (failWrites) {
+                    ByteBuffer half = src.slice(src.position(), src.remaining() / 2);
+                    src.position(src.position() + delegate.write(half));
+                    throw new IOException("No space left on device");
+                }
+                return delegate.write(src);
+            }
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                return delegate.read(dst);
+            }
+
+            @Override
+            public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+                return delegate.read(dsts, offset, length);
+            }
+
+            @Override
+            public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+                return delegate.write(srcs, offset, length);
+            }
+
+            @Override
+            public long position() throws IOException {
+                return delegate.position();
+            }
+
+            @Override
+            public FileChannel position(long newPosition) throws IOException {
+                delegate.position(newPosition);
+                return this;
+            }
+
+            @Override
+            public long size() throws IOException {
+                return delegate.size();
+            }
+
+            @Override
+            public FileChannel truncate(long size) throws IOException {
+                delegate.truncate(size);
+                return this;
+            }
+
+            @Override
+            public void force(boolean metaData) throws IOException {
+                delegate.force(metaData);
+            }
+
+            @Override
+            public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+                return delegate.transferTo(position, count, target);
+            }
+
+            @Override
+            public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+                return delegate.transferFrom(src, position, count);
+            }
+
+            @Override
+            public int read(ByteBuffer dst, long position) throws IOException {
+                return delegate.read(dst, position);
+            }
+
+            @Override
+            public int write(ByteBuffer src, long position) throws IOException {
+                return delegate.write(src, position);
+            }
+
+            @Override
+            public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+                return delegate.map(mode, position, size);
+            }
+
+            @Override
+            public FileLock lock(long position, long size, boolean shared) throws IOException {
+                return delegate.lock(position, size, shared);
+            }
+
+            @Override
+            public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+                return delegate.tryLock(position, size, shared);
+            }
+
+            @Override
+            protected void implCloseChannel() throws IOException {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmLikesTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private InMemoryLikeStorage likeStorage;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        likeStorage = new InMemoryLikeStorage();
+        filmService = new FilmService(filmStorage, userStorage, likeStorage,
+                new InMemoryFilmSearchIndex(), new InMemoryFilmRangeIndex(),
+                new InMemoryRecommendationIndex(), event -> {
+                });
+        for (int i = 1; i <= 5; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            filmService.create(film);
+
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            userStorage.create(user);
+        }
+    }
+
+    @Test
+    void getPopular_ShouldOrderByLikesThenFillWithUnlikedFilms() {
+        filmService.addLike(3, 1);
+        filmService.addLike(3, 2);
+        filmService.addLike(5, 1);
+
+        assertEquals(List.of(3L, 5L, 1L, 2L), ids(filmService.getPopular(4)));
+        assertEquals(List.of(3L), ids(filmService.getPopular(1)));
+        assertEquals(List.of(3L, 5L, 1L, 2L, 4L), ids(filmService.getPopular(10)));
+    }
+
+    @Test
+    void addLike_Twice_ShouldCountOnce() {
+        filmService.addLike(2, 1);
+        filmService.addLike(2, 1);
+
+        assertEquals(1, likeStorage.countLikes(2));
+    }
+
+    @Test
+    void removeLike_ShouldMoveFilmDownInRanking() {
+        filmService.addLike(1, 1);
+        filmService.addLike(2, 1);
+        filmService.addLike(2, 2);
+        filmService.removeLike(2, 1);
+        filmService.removeLike(2, 2);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(filmService.getPopular(3)));
+        assertEquals(0, likeStorage.countLikes(2));
+    }
+
+    @Test
+    void addLike_WithUnknownFilmOrUser_ShouldThrowNotFoundException() {
+        assertThrows(NotFoundException.class, () -> filmService.addLike(42, 1));
+        assertThrows(NotFoundException.class, () -> filmService.addLike(1, 42));
+    }
+
+    @Test
+    void getPopular_WithNonPositiveCount_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> filmService.getPopular(0));
+    }
+
+    @Test
+    void addAndRemoveLike_FromManyThreads_ShouldKeepCountsAndRankingConsistent() throws Exception {
+        int threads = 64;
+        int usersPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long firstUser = (long) t * usersPerThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long user = firstUser; user < firstUser + usersPerThread; user++) {
+                        likeStorage.addLike(1, user);
+                        likeStorage.addLike(2, user);
+                        likeStorage.removeLike(2, user);
+                        if (user % 2 == 0) {
+                            likeStorage.addLike(3, user);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * usersPerThread, likeStorage.countLikes(1));
+        assertEquals(0, likeStorage.countLikes(2));
+        assertEquals(threads * usersPerThread / 2, likeStorage.countLikes(3));
+        assertEquals(List.of(1L, 3L), likeStorage.findTopFilmIds(10));
+    }
+
+    @Test
+    void findTopFilmIds_WhileTopFilmIsReranked_ShouldNeverDropIt() throws Exception {
+        for (long user = 1; user <= 100; user++) {
+            likeStorage.addLike(1, user);
+        }
+        likeStorage.addLike(2, 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            AtomicBoolean done = new AtomicBoolean();
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    likeStorage.addLike(1, 1000);
+                    likeStorage.removeLike(1, 1000);
+                }
+                done.set(true);
+            });
+            while (!done.get()) {
+                assertEquals(List.of(1L), likeStorage.findTopFilmIds(1));
+            }
+            writer.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+}
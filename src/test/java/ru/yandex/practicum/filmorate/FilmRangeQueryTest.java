@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmRangeIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryLikeStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmRangeQueryTest {
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage(), new InMemoryLikeStorage(),
+                new InMemoryFilmSearchIndex(), new InMemoryFilmRangeIndex(),
+                new InMemoryRecommendationIndex(), event -> {
+                });
+        filmService.create(film(LocalDate.of(1999, 3, 31), 136));
+        filmService.create(film(LocalDate.of(2003, 5, 15), 138));
+        filmService.create(film(LocalDate.of(1994, 9, 23), 142));
+        filmService.create(film(LocalDate.of(2003, 5, 15), 85));
+    }
+
+    @Test
+    void findFiltered_ByReleaseDate_ShouldReturnRangeInDateOrder() {
+        assertEquals(List.of(1L, 2L, 4L), ids(new FilmFilter(LocalDate.of(1999, 3, 31), LocalDate.of(2003, 5, 15),
+                null, null)));
+        assertEquals(List.of(3L), ids(new FilmFilter(null, LocalDate.of(1999, 1, 1), null, null)));
+        assertEquals(List.of(), ids(new FilmFilter(LocalDate.of(2010, 1, 1), null, null, null)));
+    }
+
+    @Test
+    void findFiltered_ByDuration_ShouldReturnRangeInDurationOrder() {
+        assertEquals(List.of(4L), ids(new FilmFilter(null, null, null, 89)));
+        assertEquals(List.of(1L, 2L, 3L), ids(new FilmFilter(null, null, 90, null)));
+        assertEquals(List.of(2L), ids(new FilmFilter(null, null, 138, 138)));
+    }
+
+    @Test
+    void findFiltered_ByReleaseDateAndDuration_ShouldApplyBothConditions() {
+        assertEquals(List.of(2L), ids(new FilmFilter(LocalDate.of(2000, 1, 1), null, 90, null)));
+    }
+
+    @Test
+    void findFiltered_AfterUpdate_ShouldMoveFilmWithinIndexes() {
+        Film updated = film(LocalDate.of(2021, 10, 22), 155);
+        updated.setId(3L);
+        filmService.update(updated);
+
+        assertEquals(List.of(), ids(new FilmFilter(null, LocalDate.of(1999, 1, 1), null, null)));
+        assertEquals(List.of(3L), ids(new FilmFilter(LocalDate.of(2021, 1, 1), null, null, null)));
+        assertEquals(List.of(1L, 2L, 3L), ids(new FilmFilter(null, null, 90, null)));
+        assertEquals(List.of(3L), ids(new FilmFilter(null, null, 150, null)));
+    }
+
+    @Test
+    void findFiltered_WithInvertedRange_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> filmService.findFiltered(
+                new FilmFilter(LocalDate.of(2001, 1, 1), LocalDate.of(2000, 1, 1), null, null)));
+        assertThrows(ValidationException.class, () -> filmService.findFiltered(
+                new FilmFilter(null, null, 120, 90)));
+    }
+
+    @Test
+    void findFiltered_AfterCursor_ShouldContinueInIndexOrder() {
+        FilmFilter byDate = new FilmFilter(LocalDate.of(1999, 3, 31), LocalDate.of(2003, 5, 15), null, null);
+        FilmFilter byDuration = new FilmFilter(null, null, 90, null);
+
+        assertEquals(List.of(2L, 4L), ids(byDate, "1999-03-31,1"));
+        assertEquals(List.of(4L), ids(byDate, "2003-05-15,2"));
+        assertEquals(List.of(), ids(byDate, "2003-05-15,4"));
+        // курсор раньше начала диапазона, поэтому выдача идёт с его начала
+        assertEquals(List.of(1L, 2L, 4L), ids(byDate, "1994-09-23,3"));
+        assertEquals(List.of(2L, 3L), ids(byDuration, "136,1"));
+        assertEquals(List.of(1L, 2L, 3L), ids(byDuration, "85,4"));
+        assertThrows(ValidationException.class, () -> ids(byDate, "42"));
+        assertThrows(ValidationException.class, () -> ids(byDate, "136,1"));
+        assertThrows(ValidationException.class, () -> ids(byDuration, "136,x"));
+    }
+
+    @Test
+    void findFiltered_WhenCursorFilmMovedBetweenPages_ShouldNeitherSkipNorRepeat() {
+        FilmFilter byDate = new FilmFilter(LocalDate.of(1999, 3, 31), LocalDate.of(2003, 5, 15), null, null);
+        assertEquals(List.of(1L), filmService.findFiltered(byDate).limit(1).map(Film::getId).toList());
+
+        // фильм-курсор уходит за конец диапазона: по его новой позиции выдача закончилась бы
+        Film moved = film(LocalDate.of(2010, 1, 1), 136);
+        moved.setId(1L);
+        filmService.update(moved);
+        assertEquals(List.of(2L, 4L), ids(byDate, "1999-03-31,1"));
+
+        FilmFilter byDuration = new FilmFilter(null, null, 90, null);
+        assertEquals(List.of(1L, 2L), filmService.findFiltered(byDuration).limit(2).map(Film::getId).toList());
+        // а здесь уходит в начало диапазона: по новой позиции фильм 1 попал бы в выдачу второй раз
+        Film shortened = film(LocalDate.of(2003, 5, 15), 95);
+        shortened.setId(2L);
+        filmService.update(shortened);
+        assertEquals(List.of(3L), ids(byDuration, "138,2"));
+    }
+
+    @Test
+    void index_WithOlderVersionAfterNewer_ShouldKeepNewer() {
+        InMemoryFilmRangeIndex index = new InMemoryFilmRangeIndex();
+        Film newer = film(LocalDate.of(2021, 10, 22), 155);
+        newer.setId(1L);
+        newer.setVersion(3L);
+        Film older = film(LocalDate.of(1999, 3, 31), 136);
+        older.setId(1L);
+        older.setVersion(2L);
+
+        index.index(newer);
+        index.index(older);
+
+        assertEquals(List.of(newer), list(index.findByReleaseDate(null, null, null, 0)));
+        assertEquals(List.of(), list(index.findByDuration(null, 140, null, 0)));
+    }
+
+    private static List<Film> list(Iterable<Film> films) {
+        List<Film> list = new ArrayList<>();
+        films.forEach(list::add);
+        return list;
+    }
+
+    private List<Long> ids(FilmFilter filter, String cursor) {
+        return filmService.findFiltered(filter, cursor).map(Film::getId).toList();
+    }
+
+    private List<Long> ids(FilmFilter filter) {
+        return filmService.findFiltered(filter).map(Film::getId).toList();
+    }
+
+    private static Film film(LocalDate releaseDate, int duration) {
+        Film film = new Film();
+        film.setName("Film");
+        film.setReleaseDate(releaseDate);
+        film.setDuration(duration);
+        return film;
+    }
+}
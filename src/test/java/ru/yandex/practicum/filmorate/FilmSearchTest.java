@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmSearchIndex;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilmSearchTest {
+    private InMemoryFilmSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryFilmSearchIndex();
+        index.index(film(1, "Ёлки", "Новогодняя комедия"));
+        index.index(film(2, "Matrix", "Neo learns the truth"));
+        index.index(film(3, "Matrix Reloaded", "Sequel to the Matrix"));
+        index.index(film(4, "Комедия положений", "Фильм о ёлках"));
+    }
+
+    @Test
+    void search_ShouldIgnoreCaseForLatinAndCyrillic() {
+        // в фильме 3 слово есть и в названии, и в описании, поэтому он выше
+        assertEquals(List.of(3L, 2L), index.search("MATRIX", 10));
+        assertEquals(List.of(4L, 1L), index.search("КОМЕДИЯ", 10));
+    }
+
+    @Test
+    void search_ShouldTreatYoAsYe() {
+        assertEquals(List.of(1L), index.search("елки", 10));
+    }
+
+    @Test
+    void search_ShouldMatchLastWordByPrefix() {
+        assertEquals(List.of(3L), index.search("matrix rel", 10));
+        assertEquals(List.of(3L, 2L), index.search("matr", 10));
+    }
+
+    @Test
+    void search_ShouldRequireAllWordsAndRankNameAboveDescription() {
+        assertEquals(List.of(3L), index.search("sequel matrix", 10));
+        assertEquals(List.of(), index.search("neo reloaded", 10));
+        assertEquals(List.of(3L, 2L), index.search("matrix the", 10));
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        assertEquals(List.of(3L), index.search("matrix", 1));
+    }
+
+    @Test
+    void index_AfterUpdate_ShouldForgetOldWords() {
+        index.index(film(2, "Inception", "Dreams"));
+
+        assertEquals(List.of(3L), index.search("matrix", 10));
+        assertEquals(List.of(2L), index.search("dream", 10));
+    }
+
+    @Test
+    void search_WhenRarestWordListHasNonMatchingFilms_ShouldKeepScanningIt() {
+        index = new InMemoryFilmSearchIndex();
+        for (long id = 1; id <= 40; id++) {
+            index.index(film(id, id % 2 == 0 ? "alpha beta" : "alpha gamma", null));
+        }
+        for (long id = 41; id <= 70; id++) {
+            index.index(film(id, "beta zeta", null));
+        }
+
+        List<Long> found = index.search("alpha beta", 100);
+
+        assertEquals(LongStream.rangeClosed(1, 20).map(i -> i * 2).boxed().toList(), found);
+    }
+
+    @Test
+    void index_WithOlderVersionAfterNewer_ShouldKeepNewerWords() {
+        Film newer = film(2, "Inception", "Dreams");
+        newer.setVersion(3L);
+        Film older = film(2, "Matrix", "Neo learns the truth");
+        older.setVersion(2L);
+
+        index.index(newer);
+        index.index(older);
+
+        assertEquals(List.of(2L), index.search("inception", 10));
+        assertEquals(List.of(), index.search("neo", 10));
+    }
+
+    @Test
+    void search_WithCommonWord_ShouldReturnTrueTopByWeightThenId() {
+        index = new InMemoryFilmSearchIndex();
+        for (long id = 1; id <= 20_000; id++) {
+            index.index(film(id, "Film " + id, "common"));
+        }
+        index.index(film(19_999, "Common", "common"));
+        index.index(film(15_000, "Common common", null));
+
+        assertEquals(List.of(15_000L, 19_999L, 1L, 2L), index.search("common", 4));
+        assertEquals(List.of(15_000L, 19_999L, 1L), index.search("comm", 3));
+    }
+
+    @Test
+    void search_WithManyWordsForPrefix_ShouldExpandMostFrequentWords() {
+        index = new InMemoryFilmSearchIndex();
+        // редкие слова идут раньше по алфавиту, чем частое
+        for (long id = 1; id <= 100; id++) {
+            index.index(film(id, String.format("aba%03d", id), null));
+        }
+        for (long id = 101; id <= 110; id++) {
+            index.index(film(id, "abzac", null));
+        }
+
+        List<Long> found = index.search("ab", 200);
+
+        assertTrue(found.containsAll(LongStream.rangeClosed(101, 110).boxed().toList()), found.toString());
+    }
+
+    @Test
+    void search_AfterPrefixWordGrows_ShouldRefreshCachedExpansion() {
+        index = new InMemoryFilmSearchIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.index(film(id, String.format("aba%03d", id), null));
+        }
+        index.index(film(101, "abzac", null));
+        assertFalse(index.search("ab", 200).contains(101L));
+
+        for (long id = 102; id <= 110; id++) {
+            index.index(film(id, "abzac", null));
+        }
+
+        List<Long> found = index.search("ab", 200);
+
+        assertTrue(found.containsAll(LongStream.rangeClosed(101, 110).boxed().toList()), found.toString());
+    }
+
+    @Test
+    void index_AfterUpdate_ShouldMoveFilmBetweenWeights() {
+        index = new InMemoryFilmSearchIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.index(film(id, "Other", "matrix"));
+        }
+        Film renamed = film(5, "Matrix", "matrix");
+        renamed.setVersion(2L);
+        index.index(renamed);
+
+        assertEquals(List.of(5L, 1L, 2L), index.search("matrix", 3));
+
+        Film back = film(5, "Other", null);
+        back.setVersion(3L);
+        index.index(back);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 6L), index.search("matrix", 5));
+    }
+
+    @Test
+    void index_AfterUpdate_ShouldDropWordsLeftWithoutFilms() {
+        int terms = index.termCount();
+
+        index.index(film(2, "Inception", null));
+        index.index(film(3, "Inception", null));
+
+        // ушли neo, learns, truth, reloaded, sequel, to, the и matrix; добавилось inception
+        assertEquals(terms - 8 + 1, index.termCount());
+        assertEquals(List.of(), index.search("matr", 10));
+    }
+
+    @Test
+    void search_WithOnlySeparators_ShouldReturnNothing() {
+        assertEquals(List.of(), index.search(" ,.! ", 10));
+    }
+
+    private static Film film(long id, String name, String description) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription(description);
+        return film;
+    }
+}
@@ -6,6 +6,7 @@ import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,7 +19,7 @@ class FilmValidationTest {
         validFilm = new Film();
         validFilm.setName("Valid Film");
         validFilm.setDescription("Valid description");
-        validFilm.setReleaseDate("2000-01-01");
+        validFilm.setReleaseDate(LocalDate.of(2000, 1, 1));
         validFilm.setDuration(120);
     }
 
@@ -88,7 +89,7 @@ class FilmValidationTest {
 
     @Test
     void validateFilm_WithReleaseDateBefore1895_12_28_ShouldThrowValidationException() {
-        validFilm.setReleaseDate("1895-12-27");
+        validFilm.setReleaseDate(LocalDate.of(1895, 12, 27));
 
         ValidationException exception = assertThrows(ValidationException.class,
                 () -> ValidationException.validateFilm(validFilm));
@@ -98,7 +99,7 @@ class FilmValidationTest {
 
     @Test
     void validateFilm_WithReleaseDateExactly1895_12_28_ShouldNotThrowException() {
-        validFilm.setReleaseDate("1895-12-28");
+        validFilm.setReleaseDate(LocalDate.of(1895, 12, 28));
 
         assertDoesNotThrow(() -> ValidationException.validateFilm(validFilm));
     }
@@ -147,12 +148,33 @@ class FilmValidationTest {
         Film invalidFilm = new Film();
         invalidFilm.setName("");
         invalidFilm.setDescription("A".repeat(201));
-        invalidFilm.setReleaseDate(String.valueOf(LocalDate.of(1890, 1, 1).atStartOfDay()));
+        invalidFilm.setReleaseDate(LocalDate.of(1890, 1, 1));
         invalidFilm.setDuration(-10);
         ValidationException exception = assertThrows(ValidationException.class,
                 () -> ValidationException.validateFilm(invalidFilm));
 
-        // Проверяем, что выбрасывается первая найденная ошибка (название)
+        // Сообщение — первая найденная ошибка (название), но собраны все нарушения
         assertEquals("Название фильма не может быть пустым", exception.getMessage());
+        assertEquals(List.of(
+                "Название фильма не может быть пустым",
+                "Максимальная длина описания — 200 символов",
+                "Дата релиза не может быть раньше 28 декабря 1895 года",
+                "Продолжительность фильма должна быть положительным числом"
+        ), exception.getErrors());
+    }
+
+    @Test
+    void checkFilm_WithValidData_ShouldReturnNoErrors() {
+        assertTrue(ValidationException.checkFilm(validFilm).isEmpty());
+    }
+
+    @Test
+    void validationException_ShouldNotCaptureStackTrace() {
+        validFilm.setName(null);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> ValidationException.validateFilm(validFilm));
+
+        assertEquals(0, exception.getStackTrace().length);
     }
 }
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFriendStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.SortedLongSet;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendsTest {
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(new InMemoryUserStorage(), new InMemoryFriendStorage(), event -> {
+                });
+        for (int i = 1; i <= 5; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            userService.create(user);
+        }
+    }
+
+    @Test
+    void addFriend_ShouldMakeFriendshipMutual() {
+        userService.addFriend(1, 2);
+
+        assertEquals(List.of(2L), ids(userService.getFriends(1)));
+        assertEquals(List.of(1L), ids(userService.getFriends(2)));
+    }
+
+    @Test
+    void getFriends_ShouldReturnFriendsInIdOrder() {
+        userService.addFriend(1, 5);
+        userService.addFriend(1, 3);
+        userService.addFriend(1, 4);
+        userService.addFriend(1, 3);
+
+        assertEquals(List.of(3L, 4L, 5L), ids(userService.getFriends(1)));
+    }
+
+    @Test
+    void getCommonFriends_ShouldReturnIntersection() {
+        userService.addFriend(1, 3);
+        userService.addFriend(1, 4);
+        userService.addFriend(1, 5);
+        userService.addFriend(2, 4);
+        userService.addFriend(2, 5);
+
+        assertEquals(List.of(4L, 5L), ids(userService.getCommonFriends(1, 2)));
+        assertEquals(List.of(), ids(userService.getCommonFriends(3, 2)));
+    }
+
+    @Test
+    void removeFriend_ShouldRemoveFromBothSides() {
+        userService.addFriend(1, 2);
+        userService.removeFriend(2, 1);
+
+        assertTrue(userService.getFriends(1).isEmpty());
+        assertTrue(userService.getFriends(2).isEmpty());
+    }
+
+    @Test
+    void addAndRemoveFriend_Concurrently_ShouldKeepFriendshipMutual() throws InterruptedException {
+        for (int round = 0; round < 2_000; round++) {
+            InMemoryFriendStorage storage = new InMemoryFriendStorage();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread adder = new Thread(() -> {
+                await(start);
+                storage.addFriend(1, 2);
+            });
+            Thread remover = new Thread(() -> {
+                await(start);
+                storage.removeFriend(2, 1);
+            });
+            adder.start();
+            remover.start();
+            start.countDown();
+            adder.join();
+            remover.join();
+
+            assertEquals(storage.findFriendIds(1).length, storage.findFriendIds(2).length, "раунд " + round);
+        }
+    }
+
+    @Test
+    void addFriend_WithSelfOrUnknownUser_ShouldThrow() {
+        assertThrows(ValidationException.class, () -> userService.addFriend(1, 1));
+        assertThrows(NotFoundException.class, () -> userService.addFriend(1, 42));
+        assertThrows(NotFoundException.class, () -> userService.getFriends(42));
+    }
+
+    @Test
+    void sortedLongSet_WithAndWithout_ShouldKeepValuesSortedAndUnique() {
+        SortedLongSet set = SortedLongSet.EMPTY.with(5).with(1).with(3).with(3);
+        assertArrayEquals(new long[]{1, 3, 5}, set.toArray());
+
+        SortedLongSet other = SortedLongSet.EMPTY.with(3).with(5).with(7);
+        assertArrayEquals(new long[]{3, 5}, set.intersect(other));
+
+        assertArrayEquals(new long[]{1, 5}, set.without(3).without(42).toArray());
+        assertSame(SortedLongSet.EMPTY, SortedLongSet.EMPTY.with(1).without(1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
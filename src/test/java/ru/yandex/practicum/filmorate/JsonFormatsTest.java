@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.controller.EntityVersions;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class JsonFormatsTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityVersions versions;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void serialize_ShouldWriteSameJsonAsReflectiveMapper() throws Exception {
+        ObjectMapper reflective = JsonMapper.builder()
+                .disable(MapperFeature.USE_ANNOTATIONS)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addModule(new JavaTimeModule())
+                .build();
+        Film film = film(7L, null);
+        film.setVersion(3L);
+        User user = new User();
+        user.setId(5L);
+        user.setEmail("user@mail.ru");
+        user.setLogin("login");
+        user.setBirthday(LocalDate.of(1990, 12, 31));
+
+        assertEquals("""
+                {"id":7,"version":3,"name":"Фильм","description":null,"releaseDate":"2000-01-01","duration":100}""",
+                objectMapper.writeValueAsString(film));
+        assertEquals(reflective.readTree(reflective.writeValueAsString(film)),
+                objectMapper.readTree(objectMapper.writeValueAsString(film)));
+        assertEquals(reflective.readTree(reflective.writeValueAsString(user)),
+                objectMapper.readTree(objectMapper.writeValueAsString(user)));
+    }
+
+    @Test
+    void deserialize_ShouldIgnoreUnknownFieldsAndCoerceScalars() throws Exception {
+        Film film = objectMapper.readValue("""
+                {"extra":{"nested":[1,2]},"name":"Фильм","releaseDate":"2000-01-01","duration":"100","id":"7"}""",
+                Film.class);
+
+        assertEquals(7L, film.getId());
+        assertEquals("Фильм", film.getName());
+        assertNull(film.getDescription());
+        assertEquals(LocalDate.of(2000, 1, 1), film.getReleaseDate());
+        assertEquals(100, film.getDuration());
+    }
+
+    @Test
+    void create_WithMalformedDate_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"name":"Фильм","releaseDate":"01.01.2000","duration":100}"""))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"email":"user@mail.ru","login":"login","birthday":"1990-13-01"}"""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void binaryFormats_ShouldRoundTripThroughApi() throws Exception {
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        Film film = film(null, "Описание");
+
+        MvcResult created = mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR).content(cbor.writeValueAsBytes(film)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        assertEquals(1L, cbor.readValue(created.getResponse().getContentAsByteArray(), Film.class).getId());
+
+        MvcResult found = mockMvc.perform(get("/films/1").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, versions.etag(1, SMILE)))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn();
+        Film read = smile.readValue(found.getResponse().getContentAsByteArray(), Film.class);
+        assertEquals("Описание", read.getDescription());
+        assertEquals(LocalDate.of(2000, 1, 1), read.getReleaseDate());
+        mockMvc.perform(get("/films/1").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, versions.etag(1, SMILE)))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        // тег JSON и другого двоичного формата не подтверждает тело в Smile
+        mockMvc.perform(get("/films/1").accept(SMILE).header(HttpHeaders.IF_NONE_MATCH, versions.etag(1)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/1").accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, versions.etag(1, SMILE)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, versions.etag(1, MediaType.APPLICATION_CBOR)));
+        mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, versions.etag(1, MediaType.APPLICATION_CBOR)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, versions.etag(1)))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, versions.etag(1, MediaType.APPLICATION_CBOR))
+                        .content(objectMapper.writeValueAsString(film(1L, "Другое"))))
+                .andExpect(status().isOk());
+
+        MvcResult all = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn();
+        Film[] films = cbor.readValue(all.getResponse().getContentAsByteArray(), Film[].class);
+        assertEquals(1, films.length);
+        assertEquals(1L, films[0].getId());
+        mockMvc.perform(get("/films"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/films/1").accept(MediaType.ALL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private static Film film(Long id, String description) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName("Фильм");
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
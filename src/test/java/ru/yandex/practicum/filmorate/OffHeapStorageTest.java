@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapArena;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapUserStorage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+    private final List<OffHeapArena> arenas = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (OffHeapArena arena : arenas) {
+            arena.close();
+        }
+    }
+
+    @Test
+    void append_AcrossChunks_ShouldReadBackEveryRecord() {
+        OffHeapArena arena = arena(null);
+        List<Long> refs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            refs.add(arena.append(("record " + i).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("record " + i, new String(arena.read(refs.get(i)), StandardCharsets.UTF_8));
+        }
+        assertTrue(arena.reservedBytes() > 64);
+        assertThrows(IllegalArgumentException.class, () -> arena.append(new byte[64]));
+    }
+
+    @Test
+    void close_WithMappedFile_ShouldDeleteFile() throws IOException {
+        OffHeapArena arena = arena(directory.resolve("test.arena"));
+        long ref = arena.append("mapped".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(arena.matches(ref, "mapped".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(arena.matches(ref, "other".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(Files.exists(directory.resolve("test.arena")));
+        arena.close();
+        assertFalse(Files.exists(directory.resolve("test.arena")));
+    }
+
+    @Test
+    void update_ShouldKeepUnchangedProfileAndFreeReplaced() {
+        OffHeapArena arena = arena(directory.resolve("users.arena"));
+        OffHeapUserStorage storage = new OffHeapUserStorage(arena);
+        storage.create(user("mail@mail.ru", "login", "Имя", LocalDate.of(1990, 1, 1)));
+        storage.create(user("other@mail.ru", "other", null, null));
+        long used = arena.usedBytes();
+
+        User same = user("mail@mail.ru", "login", "Имя", LocalDate.of(1990, 1, 1));
+        same.setId(1L);
+        storage.update(same);
+        assertEquals(used, arena.usedBytes());
+
+        User changed = user("mail@mail.ru", "login", "Новое имя", null);
+        changed.setId(1L);
+        assertTrue(storage.update(changed).isPresent());
+        assertTrue(arena.freeBytes() > 0);
+        assertEquals(changed, storage.findById(1).orElseThrow());
+        assertEquals("other@mail.ru", storage.findById(2).orElseThrow().getEmail());
+        assertNull(storage.findById(2).orElseThrow().getName());
+
+        User unknown = user("x@mail.ru", "x", "x", null);
+        unknown.setId(3L);
+        assertTrue(storage.update(unknown).isEmpty());
+        assertEquals(List.of(1L, 2L), storage.findAll().stream().map(User::getId).toList());
+    }
+
+    @Test
+    void restore_ShouldKeepIdsAndMoveIdSequence() {
+        OffHeapUserStorage storage = new OffHeapUserStorage(arena(null));
+        User restored = user("mail@mail.ru", "login", "", null);
+        restored.setId(5000L);
+        storage.restore(restored);
+        storage.restore(restored);
+
+        assertEquals(1, storage.size());
+        assertEquals("", storage.findById(5000).orElseThrow().getName());
+        assertEquals(5001L, storage.create(user("next@mail.ru", "next", null, null)).getId());
+        assertEquals(List.of(5001L), storage.findPage(5000, 10).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void findById_WithOffHeapDescriptions_ShouldFollowUpdates() {
+        OffHeapArena arena = arena(null);
+        CompactFilmStorage storage = new CompactFilmStorage(arena);
+        storage.create(film("Сталкер", "Зона — «комната желаний»"));
+        storage.create(film("Empty", ""));
+        storage.create(film("Null", null));
+
+        assertEquals("Зона — «комната желаний»", storage.findById(1).orElseThrow().getDescription());
+        assertEquals("", storage.findById(2).orElseThrow().getDescription());
+        assertNull(storage.findById(3).orElseThrow().getDescription());
+
+        Film changed = film("Сталкер", "Другое описание");
+        changed.setId(1L);
+        storage.update(changed);
+        Film cleared = film("Empty", null);
+        cleared.setId(2L);
+        storage.update(cleared);
+
+        assertEquals("Другое описание", storage.findById(1).orElseThrow().getDescription());
+        assertNull(storage.findById(2).orElseThrow().getDescription());
+        // слот округлён вверх до класса, но не больше чем на четверть
+        int replaced = Integer.BYTES + "Зона — «комната желаний»".getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(arena.freeBytes() >= replaced && arena.freeBytes() <= replaced * 5 / 4);
+    }
+
+    @Test
+    void update_RepeatedlyWithOffHeapDescription_ShouldReuseFreedSlots() {
+        OffHeapArena arena = arena(null);
+        CompactFilmStorage storage = new CompactFilmStorage(arena);
+        storage.create(film("Сталкер", "Зона"));
+
+        Film changed = film("Сталкер", null);
+        changed.setId(1L);
+        for (int i = 0; i < 10_000; i++) {
+            changed.setDescription("описание ".repeat(1 + i % 3) + i);
+            storage.update(changed);
+        }
+
+        assertEquals(changed.getDescription(), storage.findById(1).orElseThrow().getDescription());
+        // без переиспользования 10 000 записей заняли бы тысячи блоков по 64 Б
+        assertTrue(arena.reservedBytes() <= 16 * 64, "выделено " + arena.reservedBytes() + " Б");
+        assertTrue(arena.usedBytes() <= 64);
+    }
+
+    private OffHeapArena arena(Path file) {
+        OffHeapArena arena = new OffHeapArena("test", 64, file);
+        arenas.add(arena);
+        return arena;
+    }
+
+    private static User user(String email, String login, String name, LocalDate birthday) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(name);
+        user.setBirthday(birthday);
+        return user;
+    }
+
+    private static Film film(String name, String description) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(1979, 5, 25));
+        film.setDuration(163);
+        return film;
+    }
+}
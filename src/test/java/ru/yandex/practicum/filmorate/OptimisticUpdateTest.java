@@ -0,0 +1,257 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.controller.EntityVersions;
+import ru.yandex.practicum.filmorate.exception.VersionConflictException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.CompactFilmStorage;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapArena;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapUserStorage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class OptimisticUpdateTest {
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 500;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final OffHeapArena arena = new OffHeapArena("test", 1 << 20, null);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityVersions versions;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        executor.shutdownNow();
+        arena.close();
+    }
+
+    @Test
+    void update_WithMatchingIfMatch_ShouldReturnNextVersionAsEtag() throws Exception {
+        createFilm();
+        mockMvc.perform(get("/films/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, versions.etag(1)))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, versions.etag(1))
+                        .contentType(MediaType.APPLICATION_JSON).content(film(1, "Updated")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, versions.etag(2)))
+                .andExpect(jsonPath("$.version").value(2));
+        mockMvc.perform(get("/films/1"))
+                .andExpect(header().string(HttpHeaders.ETAG, versions.etag(2)))
+                .andExpect(jsonPath("$.name").value("Updated"));
+    }
+
+    @Test
+    void etag_FromAnotherContext_ShouldNotMatchSameVersion() throws Exception {
+        createFilm();
+        String etag = mockMvc.perform(get("/films/1")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String otherEtag;
+        try (ConfigurableApplicationContext other = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE).run()) {
+            otherEtag = other.getBean(EntityVersions.class).etag(1);
+        }
+        assertNotEquals(etag, otherEtag);
+
+        // без журнала другой запуск снова выдаёт id 1 и версию 1, но его тег ничего не подтверждает
+        mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, otherEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, otherEtag)
+                        .contentType(MediaType.APPLICATION_JSON).content(film(1, "Updated")))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void update_WithStaleIfMatch_ShouldReturnPreconditionFailedAndKeepFilm() throws Exception {
+        createFilm();
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON).content(film(1, "First")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, versions.etag(1))
+                        .contentType(MediaType.APPLICATION_JSON).content(film(1, "Second")))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, "W/" + versions.etag(2))
+                        .contentType(MediaType.APPLICATION_JSON).content(film(1, "Second")))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/films").header(HttpHeaders.IF_MATCH, versions.etag(1))
+                        .contentType(MediaType.APPLICATION_JSON).content(film(2, "Missing")))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/films/1"))
+                .andExpect(jsonPath("$.name").value("First"))
+                .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @Test
+    void update_ConcurrentIncrements_ShouldNotLoseUpdatesInAnyFilmStorage() throws Exception {
+        for (FilmStorage storage : List.of(new InMemoryFilmStorage(), new CompactFilmStorage(),
+                new CompactFilmStorage(arena))) {
+            Film film = new Film();
+            film.setName("Counter");
+            film.setDuration(0);
+            long id = storage.create(film).getId();
+
+            runConcurrently(() -> {
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    while (true) {
+                        Film current = storage.findById(id).orElseThrow();
+                        Film next = new Film();
+                        next.setId(id);
+                        next.setName(current.getName());
+                        next.setDuration(current.getDuration() + 1);
+                        try {
+                            storage.update(next, current.getVersion());
+                            break;
+                        } catch (VersionConflictException e) {
+                            // фильм изменили между чтением и записью; перечитываем
+                        }
+                    }
+                }
+            });
+
+            Film counter = storage.findById(id).orElseThrow();
+            assertEquals(THREADS * INCREMENTS_PER_THREAD, counter.getDuration(), storage.getClass().getSimpleName());
+            assertEquals(THREADS * INCREMENTS_PER_THREAD + 1, counter.getVersion());
+        }
+    }
+
+    @Test
+    void update_DisjointUsersFromManyThreads_ShouldNeverConflict() throws Exception {
+        for (UserStorage storage : List.of(new InMemoryUserStorage(), new OffHeapUserStorage(arena))) {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                users.add(user("user" + i));
+            }
+            storage.createAll(users);
+            AtomicInteger thread = new AtomicInteger();
+
+            runConcurrently(() -> {
+                long id = users.get(thread.getAndIncrement()).getId();
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    User next = user("user" + id + "-" + i);
+                    next.setId(id);
+                    storage.update(next, i + 1);
+                }
+            });
+
+            for (User user : users) {
+                User stored = storage.findById(user.getId()).orElseThrow();
+                assertEquals(INCREMENTS_PER_THREAD + 1, stored.getVersion());
+                assertEquals("user" + user.getId() + "-" + (INCREMENTS_PER_THREAD - 1), stored.getLogin());
+            }
+        }
+    }
+
+    @Test
+    void update_DisjointFilmsWithConcurrentReads_ShouldNeverExposeTornRows() throws Exception {
+        for (FilmStorage storage : List.of(new CompactFilmStorage(), new CompactFilmStorage(arena))) {
+            List<Film> films = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                films.add(counterFilm(0));
+            }
+            storage.createAll(films);
+            AtomicInteger thread = new AtomicInteger();
+
+            runConcurrently(() -> {
+                int index = thread.getAndIncrement();
+                long id = films.get(index).getId();
+                long neighbourId = films.get((index + 1) % THREADS).getId();
+                for (int i = 1; i <= INCREMENTS_PER_THREAD; i++) {
+                    Film next = counterFilm(i);
+                    next.setId(id);
+                    storage.update(next, i);
+                    // соседний фильм меняет другой поток; строка не должна читаться наполовину обновлённой
+                    Film neighbour = storage.findById(neighbourId).orElseThrow();
+                    assertEquals("Counter " + neighbour.getDuration(), neighbour.getName());
+                    assertEquals("Description " + neighbour.getDuration(), neighbour.getDescription());
+                }
+            });
+
+            for (Film film : films) {
+                Film stored = storage.findById(film.getId()).orElseThrow();
+                assertEquals(INCREMENTS_PER_THREAD, stored.getDuration());
+                assertEquals(INCREMENTS_PER_THREAD + 1, stored.getVersion());
+            }
+        }
+    }
+
+    private static Film counterFilm(int value) {
+        Film film = new Film();
+        film.setName("Counter " + value);
+        film.setDescription("Description " + value);
+        film.setDuration(value);
+        return film;
+    }
+
+    private void createFilm() throws Exception {
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content(film(0, "Film").replace("\"id\":0,", "")))
+                .andExpect(status().isOk());
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static String film(long id, String name) {
+        return """
+                {"id":%d,"name":"%s","description":"Description","releaseDate":"2000-01-01","duration":100}"""
+                .formatted(id, name);
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
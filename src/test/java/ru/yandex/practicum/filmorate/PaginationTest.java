@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class PaginationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            filmStorage.create(film);
+        }
+    }
+
+    @Test
+    void findAll_WithoutParameters_ShouldReturnWholeCatalog() throws Exception {
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(5)));
+    }
+
+    @Test
+    void findAll_WithAfterAndLimit_ShouldReturnNextPageInIdOrder() throws Exception {
+        mockMvc.perform(get("/films").param("after", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(4));
+    }
+
+    @Test
+    void findAll_WithLastCursor_ShouldReturnEmptyPage() throws Exception {
+        mockMvc.perform(get("/films").param("after", "5").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void findAll_WithInvalidLimit_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/films").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void findAll_WithFilterAndIdCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/films").param("minDuration", "0").param("after", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/films").param("cursor", "100,1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films").param("minDuration", "0").param("cursor", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamAll_WithNdjsonAccept_ShouldWriteOneFilmPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/films").param("after", "1").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"id\":2"));
+        assertTrue(lines[3].contains("\"id\":5"));
+    }
+
+    @Test
+    void streamAll_WithLimit_ShouldStopAfterLimit() throws Exception {
+        MvcResult result = mockMvc.perform(get("/films").param("limit", "3").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(3, body.lines().count());
+        assertTrue(body.lines().toList().get(2).contains("\"id\":3"));
+    }
+}
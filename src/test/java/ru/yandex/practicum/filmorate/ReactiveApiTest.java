@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.controller.EntityVersions;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.main.web-application-type=reactive",
+        "filmorate.throttling.enabled=true",
+        "filmorate.throttling.limits.imports.rate=0.001",
+        "filmorate.throttling.limits.imports.burst=2"
+})
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ReactiveApiTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final String FILM = """
+            {"name":"Film","description":"Description","releaseDate":"2000-01-01","duration":100}""";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private EntityVersions versions;
+
+    @Test
+    void createAndFindById_ShouldUseSameContractAsServletApi() {
+        webTestClient.post().uri("/films").contentType(MediaType.APPLICATION_JSON).bodyValue(FILM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(1);
+
+        webTestClient.get().uri("/films/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.releaseDate").isEqualTo("2000-01-01");
+        String etag = webTestClient.get().uri("/films/1")
+                .exchange()
+                .expectHeader().exists("ETag")
+                .returnResult(String.class).getResponseHeaders().getETag();
+        webTestClient.get().uri("/films/1").ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified();
+        webTestClient.get().uri("/films/42")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.error").isEqualTo("Фильм с id 42 не найден");
+    }
+
+    @Test
+    void create_WithInvalidFilm_ShouldReturnAllValidationErrors() {
+        webTestClient.post().uri("/films").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"\",\"releaseDate\":\"1800-01-01\",\"duration\":-1}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.length()").isEqualTo(3);
+    }
+
+    @Test
+    void findAll_AsNdjson_ShouldStreamOneFilmPerLineAfterCursor() {
+        importFilms(5);
+
+        String body = webTestClient.get().uri("/films?after=2&limit=2").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":3"));
+        assertTrue(lines[1].contains("\"id\":4"));
+    }
+
+    @Test
+    void findAll_AsJson_ShouldReturnPageOrWholeCatalog() {
+        importFilms(5);
+
+        webTestClient.get().uri("/films")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(5);
+        webTestClient.get().uri("/films?limit=2")
+                .exchange()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void findAll_AsCborOrSmile_ShouldUseRequestedFormat() throws Exception {
+        importFilms(3);
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+
+        byte[] page = webTestClient.get().uri("/films?limit=2").accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals(2, cbor.readValue(page, Film[].class).length);
+
+        byte[] film = webTestClient.get().uri("/films/3")
+                .accept(SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", versions.etag(1, SMILE))
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals(3L, smile.readValue(film, Film.class).getId());
+        webTestClient.get().uri("/films/3").accept(MediaType.APPLICATION_CBOR).ifNoneMatch(versions.etag(1, SMILE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", versions.etag(1, MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void addFriend_ShouldBeVisibleFromBothUsers() {
+        for (int i = 1; i <= 2; i++) {
+            webTestClient.post().uri("/users").contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue("{\"email\":\"user" + i + "@example.com\",\"login\":\"user" + i
+                            + "\",\"birthday\":\"1990-01-01\"}")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+
+        webTestClient.put().uri("/users/1/friends/2").exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/users/2/friends")
+                .exchange()
+                .expectBody().jsonPath("$[0].id").isEqualTo(1);
+    }
+
+    @Test
+    void importBatch_OverRateLimit_ShouldReturnTooManyRequests() {
+        importFilms(1);
+        importFilms(1);
+
+        webTestClient.post().uri("/films/batch").contentType(MediaType.APPLICATION_NDJSON).bodyValue(FILM)
+                .exchange()
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists("Retry-After")
+                .expectBody().jsonPath("$.error").isEqualTo("Слишком много запросов, повторите позже");
+        webTestClient.get().uri("/films").exchange().expectStatus().isOk();
+    }
+
+    private void importFilms(int count) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append(FILM).append('\n');
+        }
+        webTestClient.post().uri("/films/batch").contentType(MediaType.APPLICATION_NDJSON).bodyValue(body.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.created").isEqualTo(count);
+    }
+}
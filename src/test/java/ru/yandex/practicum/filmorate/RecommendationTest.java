@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.InMemoryRecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.RecommendationIndex;
+import ru.yandex.practicum.filmorate.storage.SortedLongSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecommendationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void recommend_ShouldWeighFilmsByOverlapOfTheirLikers() {
+        RecommendationIndex index = new InMemoryRecommendationIndex();
+        like(index, 1, 1, 2, 3);
+        like(index, 2, 1, 2, 3, 4, 5);
+        like(index, 3, 1, 6);
+        like(index, 4, 7);
+
+        // у пользователя 2 три общих лайка, у пользователя 3 — один
+        assertEquals(List.of(4L, 5L, 6L), index.recommend(1, 10));
+        assertEquals(List.of(4L, 5L), index.recommend(1, 2));
+        assertEquals(List.of(), index.recommend(4, 10));
+        assertEquals(List.of(), index.recommend(42, 10));
+    }
+
+    @Test
+    void sortedLongSet_IntersectionSizeAndForEach_ShouldWalkValuesInOrder() {
+        SortedLongSet set = SortedLongSet.EMPTY.with(5).with(1).with(3);
+        SortedLongSet other = SortedLongSet.EMPTY.with(3).with(5).with(7);
+
+        assertEquals(2, set.intersectionSize(other));
+        assertEquals(0, set.intersectionSize(SortedLongSet.EMPTY));
+        List<Long> values = new ArrayList<>();
+        set.forEach(values::add);
+        assertEquals(List.of(1L, 3L, 5L), values);
+    }
+
+    @Test
+    void recommend_AfterLikesChange_ShouldMatchFreshlyBuiltIndex() {
+        Random random = new Random(42);
+        RecommendationIndex index = new InMemoryRecommendationIndex();
+        boolean[][] likes = new boolean[60][40];
+        for (int step = 0; step < 5_000; step++) {
+            int user = 1 + random.nextInt(likes.length - 1);
+            int film = 1 + random.nextInt(likes[0].length - 1);
+            if (random.nextInt(4) == 0) {
+                index.removeLike(film, user);
+                likes[user][film] = false;
+            } else {
+                index.addLike(film, user);
+                likes[user][film] = true;
+            }
+            if (step % 50 == 0) {
+                // запоминаем ближайших, чтобы следующие лайки меняли уже найденные списки
+                for (int asked = 1; asked < likes.length; asked += 3) {
+                    index.recommend(asked, 10);
+                }
+            }
+        }
+
+        RecommendationIndex fresh = new InMemoryRecommendationIndex();
+        for (int user = 1; user < likes.length; user++) {
+            for (int film = 1; film < likes[user].length; film++) {
+                if (likes[user][film]) {
+                    fresh.addLike(film, user);
+                }
+            }
+        }
+        for (int user = 1; user < likes.length; user++) {
+            assertEquals(fresh.recommend(user, 10), index.recommend(user, 10), "пользователь " + user);
+        }
+    }
+
+    @Test
+    void recommend_WithManyLikesOnPopularFilms_ShouldCountOverlapsInParallel() {
+        RecommendationIndex index = new InMemoryRecommendationIndex();
+        for (long user = 1; user <= 30_000; user++) {
+            index.addLike(1, user);
+            index.addLike(2, user);
+        }
+        like(index, 7, 3, 100);
+        like(index, 30_000, 3);
+
+        // с пользователем 7 три общих лайка, с остальными по два, и лишних фильмов у них нет
+        assertEquals(List.of(100L), index.recommend(30_000, 10));
+        assertEquals(List.of(), index.recommend(7, 10));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void recommendations_ShouldReturnFilmsLikedBySimilarUser() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content("""
+                    {"name":"Film %d","description":"","releaseDate":"2000-01-01","duration":100}""".formatted(i)));
+            mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content("""
+                    {"email":"user%d@mail.ru","login":"user%d","birthday":"1990-01-01"}""".formatted(i, i)));
+        }
+        mockMvc.perform(put("/films/1/like/1"));
+        mockMvc.perform(put("/films/1/like/2"));
+        mockMvc.perform(put("/films/2/like/2"));
+        mockMvc.perform(put("/films/3/like/3"));
+
+        mockMvc.perform(get("/users/1/recommendations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2));
+        mockMvc.perform(get("/users/42/recommendations")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/1/recommendations").param("count", "0")).andExpect(status().isBadRequest());
+    }
+
+    private static void like(RecommendationIndex index, long userId, long... filmIds) {
+        for (long filmId : filmIds) {
+            index.addLike(filmId, userId);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.controller.EntityVersions;
+import ru.yandex.practicum.filmorate.controller.ResponseCache;
+import ru.yandex.practicum.filmorate.controller.ResponseCacheProperties;
+import ru.yandex.practicum.filmorate.service.EntitiesChanged;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "filmorate.cache.page-sizes=2,100")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ResponseCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(film("Film " + i)))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void findById_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        String etag = etag("/films/1");
+
+        mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void findById_AfterUpdate_ShouldReturnNewBodyAndEtag() throws Exception {
+        String etag = etag("/films/1");
+
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content(film("Updated").replace("{", "{\"id\":1,")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Updated"));
+        assertNotEquals(etag, etag("/films/1"));
+    }
+
+    @Test
+    void findPage_AfterCreate_ShouldInvalidateOnlyIncompletePages() throws Exception {
+        String fullPage = etag("/films?after=0&limit=2");
+        String lastPage = etag("/films?after=4&limit=2");
+
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(film("Film 6")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films").param("after", "0").param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, fullPage))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/films").param("after", "4").param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, lastPage))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id").value(6));
+    }
+
+    @Test
+    void findPage_AfterUpdate_ShouldInvalidatePagesContainingFilm() throws Exception {
+        String firstPage = etag("/films?after=0&limit=2");
+        String secondPage = etag("/films?after=2&limit=2");
+
+        mockMvc.perform(put("/films").contentType(MediaType.APPLICATION_JSON)
+                        .content(film("Updated").replace("{", "{\"id\":3,")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films").param("after", "0").param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/films").param("after", "2").param("limit", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, secondPage))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Updated"));
+    }
+
+    @Test
+    void findById_WithUnknownId_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/films/42"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void entity_BeyondByteLimit_ShouldEvictAndStayWithinLimit() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEntityBytes(DataSize.ofKilobytes(16));
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), properties, new EntityVersions());
+        AtomicInteger loads = new AtomicInteger();
+        String body = "x".repeat(200);
+
+        for (long id = 1; id <= 1000; id++) {
+            cache.entity(EntitiesChanged.Entity.FILM, id, () -> {
+                loads.incrementAndGet();
+                return body;
+            }, value -> 1, null);
+        }
+
+        assertEquals(1000, loads.get());
+        assertTrue(cache.cachedBytes() > 0);
+        assertTrue(cache.cachedBytes() <= properties.getEntityBytes().toBytes(), cache.cachedBytes() + " Б");
+    }
+
+    @Test
+    void page_WithNonStandardLimit_ShouldNotBeCached() {
+        ResponseCache cache = new ResponseCache(new ObjectMapper(), new ResponseCacheProperties(),
+                new EntityVersions());
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.page(EntitiesChanged.Entity.FILM, 0, 7, () -> {
+                loads.incrementAndGet();
+                return List.of(1L, 2L);
+            }, Long::longValue, null);
+        }
+        assertEquals(2, loads.get());
+
+        for (int i = 0; i < 2; i++) {
+            cache.page(EntitiesChanged.Entity.FILM, 0, 10, () -> {
+                loads.incrementAndGet();
+                return List.of(1L, 2L);
+            }, Long::longValue, null);
+        }
+        assertEquals(3, loads.get());
+    }
+
+    private String etag(String uri) throws Exception {
+        String etag = mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private static String film(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"Description\",\"releaseDate\":\"2000-01-01\","
+                + "\"duration\":100}";
+    }
+}
@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageConcurrencyTest {
+    private static final int THREADS = 200;
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void createFilm_FromManyThreads_ShouldAssignUniqueIdsWithoutLostWrites() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film film = new Film();
+                film.setName("Film");
+                ids.add(storage.create(film).getId());
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, ids.size());
+        assertEquals(expected, storage.size());
+        assertEquals(expected, storage.findAll().size());
+        for (long id = 1; id <= expected; id++) {
+            assertTrue(storage.findById(id).isPresent(), "Нет фильма с id " + id);
+        }
+    }
+
+    @Test
+    void createUser_FromManyThreads_ShouldAssignUniqueIdsWithoutLostWrites() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                User user = new User();
+                user.setLogin("login");
+                ids.add(storage.create(user).getId());
+            }
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(expected, ids.size());
+        assertEquals(expected, storage.size());
+    }
+
+    @Test
+    void updateFilm_ConcurrentlyWithCreate_ShouldKeepEveryFilm() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film first = new Film();
+        first.setName("First");
+        long firstId = storage.create(first).getId();
+
+        runConcurrently(() -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film created = new Film();
+                created.setName("Created");
+                storage.create(created);
+
+                Film updated = new Film();
+                updated.setId(firstId);
+                updated.setName("Updated");
+                assertTrue(storage.update(updated).isPresent());
+            }
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD + 1, storage.size());
+        assertEquals("Updated", storage.findById(firstId).orElseThrow().getName());
+    }
+
+    @Test
+    void updateFilm_WithUnknownId_ShouldNotCreateFilm() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film film = new Film();
+        film.setId(42L);
+
+        assertTrue(storage.update(film).isEmpty());
+        assertEquals(0, storage.size());
+    }
+
+    private void runConcurrently(Runnable task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.controller.ConcurrencyLimit;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.controller.Throttling;
+import ru.yandex.practicum.filmorate.controller.ThrottlingProperties;
+import ru.yandex.practicum.filmorate.controller.TokenBucket;
+import ru.yandex.practicum.filmorate.exception.ThrottledException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "filmorate.throttling.enabled=true",
+        "filmorate.throttling.limits.writes.rate=0.001",
+        "filmorate.throttling.limits.writes.burst=3",
+        "filmorate.throttling.trusted-proxies=127.0.0.1"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ThrottlingTest {
+    private static final long MILLIS = 1_000_000;
+    private static final String FILM = """
+            {"name":"Фильм","releaseDate":"2000-01-01","duration":100}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void tokenBucket_ShouldAllowBurstThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(100 * MILLIS, bucket.tryAcquire(0));
+        assertEquals(40 * MILLIS, bucket.tryAcquire(60 * MILLIS));
+        assertEquals(0, bucket.tryAcquire(100 * MILLIS));
+        assertTrue(bucket.tryAcquire(100 * MILLIS) > 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(10_000 * MILLIS));
+        }
+    }
+
+    @Test
+    void concurrencyLimit_ShouldShrinkOnSlowResponsesAndGrowWhenBusy() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(2, 10, 50 * MILLIS);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(100 * MILLIS);
+        }
+        assertEquals(2, limit.limit());
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.inFlight());
+
+        limit.release(MILLIS);
+        limit.release(MILLIS);
+        assertEquals(3, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    @Test
+    void acquire_OverConcurrencyLimit_ShouldRejectAsOverloaded() throws Exception {
+        ThrottlingProperties.Limit writes = new ThrottlingProperties.Limit();
+        writes.setMinConcurrency(1);
+        writes.setMaxConcurrency(1);
+        writes.setTargetLatency(Duration.ofMinutes(1));
+        ThrottlingProperties properties = new ThrottlingProperties();
+        properties.setEnabled(true);
+        properties.getLimits().put("writes", writes);
+        Throttling throttling = new Throttling(properties);
+        Method create = FilmController.class.getMethod("create", Film.class);
+        Method findById = FilmController.class.getMethod("findById", long.class, String.class);
+
+        Throttling.Permit permit = throttling.acquire(create, "a");
+        ThrottledException e = assertThrows(ThrottledException.class, () -> throttling.acquire(create, "b"));
+        assertTrue(e.isOverloaded());
+        throttling.acquire(findById, "b").release();
+        permit.release();
+        throttling.acquire(create, "b").release();
+
+        properties.setEnabled(false);
+        permit = throttling.acquire(create, "a");
+        throttling.acquire(create, "b").release();
+        permit.release();
+    }
+
+    @Test
+    void acquire_RejectedAsOverloaded_ShouldKeepClientRateBudget() throws Exception {
+        ThrottlingProperties.Limit writes = new ThrottlingProperties.Limit();
+        writes.setRate(0.001);
+        writes.setMinConcurrency(1);
+        writes.setMaxConcurrency(1);
+        writes.setTargetLatency(Duration.ofMinutes(1));
+        ThrottlingProperties properties = new ThrottlingProperties();
+        assertFalse(properties.isEnabled());
+        properties.setEnabled(true);
+        properties.getLimits().put("writes", writes);
+        Throttling throttling = new Throttling(properties);
+        Method create = FilmController.class.getMethod("create", Film.class);
+
+        Throttling.Permit permit = throttling.acquire(create, "a");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(assertThrows(ThrottledException.class, () -> throttling.acquire(create, "b")).isOverloaded());
+        }
+        permit.release();
+        throttling.acquire(create, "b").release();
+        assertFalse(assertThrows(ThrottledException.class, () -> throttling.acquire(create, "b")).isOverloaded());
+        throttling.acquire(create, "c").release();
+    }
+
+    @Test
+    void acquire_OverMaxClients_ShouldShareOverflowBucket() throws Exception {
+        ThrottlingProperties.Limit writes = new ThrottlingProperties.Limit();
+        writes.setRate(0.001);
+        ThrottlingProperties properties = new ThrottlingProperties();
+        properties.setEnabled(true);
+        properties.setMaxClients(2);
+        properties.getLimits().put("writes", writes);
+        Throttling throttling = new Throttling(properties);
+        Method create = FilmController.class.getMethod("create", Film.class);
+
+        throttling.acquire(create, "a").release();
+        throttling.acquire(create, "b").release();
+        throttling.acquire(create, "c").release();
+        assertThrows(ThrottledException.class, () -> throttling.acquire(create, "d"));
+        assertThrows(ThrottledException.class, () -> throttling.acquire(create, "c"));
+        assertThrows(ThrottledException.class, () -> throttling.acquire(create, "a"));
+    }
+
+    @Test
+    void client_ShouldTrustForwardedHeaderOnlyFromTrustedProxies() {
+        ThrottlingProperties properties = new ThrottlingProperties();
+        properties.setTrustedProxies(Set.of("10.0.0.1", "10.0.0.2"));
+        Throttling throttling = new Throttling(properties);
+        Map<String, List<String>> headers = Map.of("X-Forwarded-For", List.of("6.6.6.6, 1.2.3.4", "10.0.0.2"));
+
+        assertEquals("1.2.3.4", throttling.client("10.0.0.1", name -> headers.getOrDefault(name, List.of())));
+        assertEquals("5.5.5.5", throttling.client("5.5.5.5", name -> headers.getOrDefault(name, List.of())));
+        assertEquals("10.0.0.1", throttling.client("10.0.0.1", name -> List.of()));
+        assertEquals("10.0.0.2", throttling.client("10.0.0.1", name -> List.of("10.0.0.2")));
+    }
+
+    @Test
+    void create_OverRateLimit_ShouldReturnTooManyRequestsAndKeepReadsAndOtherClients() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.error").value("Слишком много запросов, повторите позже"));
+
+        mockMvc.perform(get("/films/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/films")).andExpect(jsonPath("$.length()").value(3));
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM)
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.2");
+                            return request;
+                        }))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void create_OverRateLimitBehindTrustedProxy_ShouldLimitEachForwardedClient() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM)
+                            .header("X-Forwarded-For", "1.2.3.4"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM)
+                        .header("X-Forwarded-For", "1.2.3.4"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM)
+                        .header("X-Forwarded-For", "1.2.3.4, 5.6.7.8"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                .andExpect(status().isOk());
+    }
+}
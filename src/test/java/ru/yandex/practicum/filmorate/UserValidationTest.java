@@ -6,6 +6,7 @@ import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,7 +20,7 @@ class UserValidationTest {
         validUser.setEmail("test@example.com");
         validUser.setLogin("validlogin");
         validUser.setName("Valid Name");
-        validUser.setBirthday("1990-01-01");
+        validUser.setBirthday(LocalDate.of(1990, 1, 1));
     }
 
     @Test
@@ -155,17 +156,17 @@ class UserValidationTest {
 
     @Test
     void validateUser_WithTodayBirthday_ShouldNotThrowException() {
-        validUser.setBirthday(String.valueOf(LocalDate.now()));
+        validUser.setBirthday(LocalDate.now());
 
         assertDoesNotThrow(() -> ValidationException.validateUser(validUser));
     }
 
     @Test
     void validateUser_WithPastBirthday_ShouldNotThrowException() {
-        validUser.setBirthday(String.valueOf(LocalDate.now().minusDays(1)));
+        validUser.setBirthday(LocalDate.now().minusDays(1));
         assertDoesNotThrow(() -> ValidationException.validateUser(validUser));
 
-        validUser.setBirthday("1900-01-01");
+        validUser.setBirthday(LocalDate.of(1900, 1, 1));
         assertDoesNotThrow(() -> ValidationException.validateUser(validUser));
     }
 
@@ -181,12 +182,27 @@ class UserValidationTest {
         User invalidUser = new User();
         invalidUser.setEmail("invalid");
         invalidUser.setLogin("invalid login");
-        invalidUser.setBirthday(String.valueOf(LocalDate.now().plusYears(1).atStartOfDay()));
+        invalidUser.setBirthday(LocalDate.now().plusYears(1));
 
         ValidationException exception = assertThrows(ValidationException.class,
                 () -> ValidationException.validateUser(invalidUser));
 
-        // Проверяем, что выбрасывается первая найденная ошибка (email)
+        // Сообщение — первая найденная ошибка (email), но собраны все нарушения
         assertEquals("Электронная почта должна содержать символ @", exception.getMessage());
+        assertEquals(List.of(
+                "Электронная почта должна содержать символ @",
+                "Логин не может содержать пробелы",
+                "Дата рождения не может быть в будущем"
+        ), exception.getErrors());
+    }
+
+    @Test
+    void validateUser_WithFutureBirthday_ShouldThrowValidationException() {
+        validUser.setBirthday(LocalDate.now().plusDays(1));
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> ValidationException.validateUser(validUser));
+
+        assertEquals("Дата рождения не может быть в будущем", exception.getMessage());
     }
 }